@@ -2,12 +2,10 @@ package com.katlehouniversity.ecd;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableScheduling
-@EnableAsync
 public class EcdPaymentReconciliationApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,72 @@
+package com.katlehouniversity.ecd.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Executor configuration.
+ *
+ * Statement processing and the webhook queue get their own pools so a burst of large
+ * uploads or month-end notifications can never starve the default application executor
+ * (used by MVC async requests) or each other.
+ */
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Default application executor, built from the spring.task.execution properties.
+     * Declared explicitly because defining any other executor bean disables Spring Boot's.
+     */
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * Dedicated worker pool for uploaded statements. Submissions beyond the queue
+     * capacity are rejected rather than queued indefinitely.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor statementProcessingExecutor(
+            @Value("${statement.processing.pool-size:2}") int poolSize,
+            @Value("${statement.processing.queue-capacity:20}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("statement-worker-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Threads for the webhook queue workers, one long-running poll loop per thread.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor webhookQueueExecutor(@Value("${webhook.queue.workers:2}") int workers) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("webhook-worker-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Fork-join pool that extracts and parses page ranges of large PDF statements.
+     * Kept apart from the common pool so statement parsing cannot stall parallel streams
+     * elsewhere; a parallelism of 0 means one thread per available processor.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool pdfExtractionPool(@Value("${statement.pdf.extraction-parallelism:0}") int parallelism) {
+        return new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+}
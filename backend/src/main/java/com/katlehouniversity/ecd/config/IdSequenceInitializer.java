@@ -0,0 +1,65 @@
+package com.katlehouniversity.ecd.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.sequence.SequenceSupport;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Moves the id sequences past rows written before ids came from sequences.
+ *
+ * Those rows got their ids from IDENTITY columns, while schema update creates the new sequences
+ * starting at 1. Runs once at startup, before any writer, and only restarts a sequence whose next
+ * allocation block would overlap existing ids.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdSequenceInitializer {
+
+    /**
+     * Must match the allocationSize of the entities' @SequenceGenerator
+     */
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final Map<String, String> SEQUENCES_BY_TABLE = Map.of(
+            "transactions", "transactions_seq",
+            "payments", "payments_seq",
+            "students", "students_seq",
+            "uploaded_statements", "uploaded_statements_seq",
+            "webhook_queue", "webhook_queue_seq"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    void alignSequences() {
+        SequenceSupport sequenceSupport = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect().getSequenceSupport();
+
+        SEQUENCES_BY_TABLE.forEach((table, sequence) -> {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            if (maxId == null || maxId == 0) {
+                return;
+            }
+
+            // The pooled optimizer hands out the block (value - allocation, value], so the block
+            // after this value starts at value + 1
+            Long value = jdbcTemplate.queryForObject(sequenceSupport.getSequenceNextValString(sequence), Long.class);
+            if (value != null && value >= maxId) {
+                return;
+            }
+
+            long restartWith = maxId + ALLOCATION_SIZE;
+            jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + restartWith);
+            log.info("Restarted {} at {} to follow existing {} ids (max {})", sequence, restartWith, table, maxId);
+        });
+    }
+}
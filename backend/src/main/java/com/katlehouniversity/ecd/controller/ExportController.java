@@ -0,0 +1,99 @@
+package com.katlehouniversity.ecd.controller;
+
+import com.katlehouniversity.ecd.service.BulkExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/exports")
+@RequiredArgsConstructor
+@PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+@Tag(name = "Exports", description = "Bulk CSV exports of raw transactions and payments")
+@SecurityRequirement(name = "bearerAuth")
+public class ExportController {
+
+    // Open ends of an export date range
+    private static final LocalDate EARLIEST = LocalDate.of(1900, 1, 1);
+    private static final LocalDate LATEST = LocalDate.of(9999, 12, 31);
+
+    private final BulkExportService bulkExportService;
+
+    @Operation(
+        summary = "Export transactions as CSV",
+        description = "Stream every bank transaction dated in the range as CSV, optionally gzip-compressed. Suitable for millions of rows."
+    )
+    @GetMapping("/transactions")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @Parameter(description = "First transaction date (inclusive); open if omitted", example = "2025-01-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last transaction date (inclusive); open if omitted", example = "2025-12-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Compress the file with gzip")
+            @RequestParam(defaultValue = "false") boolean gzip) {
+
+        LocalDate start = from != null ? from : EARLIEST;
+        LocalDate end = to != null ? to : LATEST;
+        return csvDownload("transactions", gzip,
+            outputStream -> bulkExportService.writeTransactionsCsv(start, end, outputStream));
+    }
+
+    @Operation(
+        summary = "Export payments as CSV",
+        description = "Stream every payment dated in the range, with student number and name, as CSV, optionally gzip-compressed."
+    )
+    @GetMapping("/payments")
+    public ResponseEntity<StreamingResponseBody> exportPayments(
+            @Parameter(description = "First payment date (inclusive); open if omitted", example = "2025-01-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last payment date (inclusive); open if omitted", example = "2025-12-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Compress the file with gzip")
+            @RequestParam(defaultValue = "false") boolean gzip) {
+
+        LocalDate start = from != null ? from : EARLIEST;
+        LocalDate end = to != null ? to : LATEST;
+        return csvDownload("payments", gzip,
+            outputStream -> bulkExportService.writePaymentsCsv(start, end, outputStream));
+    }
+
+    /**
+     * Stream a CSV file download, gzip-compressed as a .csv.gz file if asked to.
+     */
+    private ResponseEntity<StreamingResponseBody> csvDownload(String name, boolean gzip, StreamingResponseBody csv) {
+        String fileName = String.format("%s-%s.csv", name, LocalDate.now());
+
+        HttpHeaders headers = new HttpHeaders();
+        StreamingResponseBody body;
+        if (gzip) {
+            headers.setContentType(MediaType.parseMediaType("application/gzip"));
+            headers.setContentDispositionFormData("attachment", fileName + ".gz");
+            body = outputStream -> {
+                GZIPOutputStream compressed = new GZIPOutputStream(outputStream, 64 * 1024);
+                csv.writeTo(compressed);
+                compressed.finish();
+                compressed.flush();
+            };
+        } else {
+            headers.setContentType(new MediaType("text", "csv", StandardCharsets.UTF_8));
+            headers.setContentDispositionFormData("attachment", fileName);
+            body = csv;
+        }
+
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+}
@@ -1,9 +1,13 @@
 package com.katlehouniversity.ecd.controller;
 
+import com.katlehouniversity.ecd.dto.MonthlyCollectionSummaryDto;
 import com.katlehouniversity.ecd.dto.MonthlyReportDto;
+import com.katlehouniversity.ecd.service.ArrearsReportService;
 import com.katlehouniversity.ecd.service.ExcelExportService;
+import com.katlehouniversity.ecd.service.MonthlyCollectionSummaryService;
+import com.katlehouniversity.ecd.service.MonthlyReportCache;
 import com.katlehouniversity.ecd.service.PdfExportService;
-import com.katlehouniversity.ecd.service.ReportService;
+import com.katlehouniversity.ecd.service.ReportArtifactCache;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,12 +16,21 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/reports")
@@ -27,20 +40,115 @@ import org.springframework.web.bind.annotation.*;
 @SecurityRequirement(name = "bearerAuth")
 public class ReportController {
 
-    private final ReportService reportService;
+    private final MonthlyReportCache reportCache;
+    private final ReportArtifactCache artifactCache;
     private final PdfExportService pdfExportService;
     private final ExcelExportService excelExportService;
+    private final MonthlyCollectionSummaryService summaryService;
+    private final ArrearsReportService arrearsReportService;
 
+    @Operation(
+        summary = "Get monthly report",
+        description = "Paid and owing students for a month. Responses carry an ETag; a request whose If-None-Match still matches gets 304 Not Modified."
+    )
     @GetMapping("/monthly")
     public ResponseEntity<MonthlyReportDto> getMonthlyReport(
             @RequestParam Integer month,
-            @RequestParam Integer year) {
-        return ResponseEntity.ok(reportService.generateMonthlyReport(month, year));
+            @RequestParam Integer year,
+            WebRequest request) {
+        return conditionalReport(month, year, request);
     }
 
     @GetMapping("/monthly/current")
-    public ResponseEntity<MonthlyReportDto> getCurrentMonthReport() {
-        return ResponseEntity.ok(reportService.getCurrentMonthReport());
+    public ResponseEntity<MonthlyReportDto> getCurrentMonthReport(WebRequest request) {
+        YearMonth currentMonth = YearMonth.now();
+        return conditionalReport(currentMonth.getMonthValue(), currentMonth.getYear(), request);
+    }
+
+    @Operation(
+        summary = "Get monthly collection totals",
+        description = "Pre-aggregated expected, collected, paid and owing totals for a month, kept up to date as payments and students change."
+    )
+    @GetMapping("/summary")
+    public ResponseEntity<MonthlyCollectionSummaryDto> getMonthlySummary(
+            @Parameter(description = "Month number (1-12)", required = true, example = "1")
+            @RequestParam Integer month,
+            @Parameter(description = "Year", required = true, example = "2025")
+            @RequestParam Integer year) {
+        return ResponseEntity.ok(summaryService.getSummary(month, year));
+    }
+
+    @GetMapping("/summary/current")
+    public ResponseEntity<MonthlyCollectionSummaryDto> getCurrentMonthSummary() {
+        return ResponseEntity.ok(summaryService.getCurrentMonthSummary());
+    }
+
+    @Operation(
+        summary = "Recalculate monthly collection totals",
+        description = "Rebuild the summary for one month from payments and students, or for every stored month when no month is given."
+    )
+    @PostMapping("/summary/recalculate")
+    public ResponseEntity<List<MonthlyCollectionSummaryDto>> recalculateSummaries(
+            @RequestParam(required = false) Integer month,
+            @RequestParam(required = false) Integer year) {
+        if (month != null && year != null) {
+            return ResponseEntity.ok(List.of(summaryService.recalculate(month, year)));
+        }
+        return ResponseEntity.ok(summaryService.recalculateAll());
+    }
+
+    @Operation(
+        summary = "Get arrears aging report",
+        description = "What each active student owes over a range of months, bucketed into current, 30, 60 and 90+ days overdue. Computed in one query and streamed as JSON, CSV or Excel."
+    )
+    @GetMapping("/arrears")
+    public ResponseEntity<?> getArrearsReport(
+            @Parameter(description = "First month of the range (yyyy-MM); defaults to 11 months before the end", example = "2025-01")
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @Parameter(description = "Last month of the range (yyyy-MM); defaults to the current month", example = "2025-12")
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to,
+            @Parameter(description = "json, csv or xlsx", example = "json")
+            @RequestParam(defaultValue = "json") String format) {
+
+        YearMonth end = to != null ? to : YearMonth.now();
+        YearMonth start = from != null ? from : end.minusMonths(11);
+        YearMonth asOf = ArrearsReportService.asOf(end);
+
+        if (start.isAfter(asOf)) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", "The range must start on or before " + asOf));
+        }
+        if (!start.plusMonths(ArrearsReportService.MAX_RANGE_MONTHS).isAfter(asOf)) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", "The range cannot exceed " + ArrearsReportService.MAX_RANGE_MONTHS + " months"));
+        }
+
+        String fileName = String.format("arrears-%s-to-%s", start, asOf);
+        HttpHeaders headers = new HttpHeaders();
+        StreamingResponseBody body;
+        switch (format.toLowerCase()) {
+            case "json" -> {
+                headers.setContentType(MediaType.APPLICATION_JSON);
+                body = outputStream -> arrearsReportService.writeJson(start, end, outputStream);
+            }
+            case "csv" -> {
+                headers.setContentType(new MediaType("text", "csv", StandardCharsets.UTF_8));
+                headers.setContentDispositionFormData("attachment", fileName + ".csv");
+                body = outputStream -> arrearsReportService.writeCsv(start, end, outputStream);
+            }
+            case "xlsx" -> {
+                headers.setContentType(MediaType.parseMediaType(
+                    "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
+                headers.setContentDispositionFormData("attachment", fileName + ".xlsx");
+                body = outputStream -> arrearsReportService.writeExcel(start, end, outputStream);
+            }
+            default -> {
+                return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Format must be json, csv or xlsx"));
+            }
+        }
+
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
     }
 
     @Operation(
@@ -53,26 +161,22 @@ public class ReportController {
         content = @Content(mediaType = "application/pdf")
     )
     @GetMapping("/monthly/export/pdf")
-    public ResponseEntity<byte[]> exportMonthlyReportPdf(
+    public ResponseEntity<StreamingResponseBody> exportMonthlyReportPdf(
             @Parameter(description = "Month number (1-12)", required = true, example = "1")
             @RequestParam Integer month,
             @Parameter(description = "Year", required = true, example = "2025")
             @RequestParam Integer year) {
 
-        // Generate report data
-        MonthlyReportDto report = reportService.generateMonthlyReport(month, year);
+        // Report data, generated only if its payments or students changed since last time
+        MonthlyReportDto report = reportCache.get(month, year).report();
 
-        // Generate PDF
-        byte[] pdfBytes = pdfExportService.generateMonthlyReportPdf(report, month, year);
+        // Rendered PDF, from disk if this exact report was rendered before
+        ReportArtifactCache.Artifact artifact = artifactCache.getOrRender(
+            ReportArtifactCache.ArtifactType.PDF, report,
+            outputStream -> outputStream.write(pdfExportService.generateMonthlyReportPdf(report, month, year)));
 
-        // Set headers for file download
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_PDF);
-        headers.setContentDispositionFormData("attachment",
+        return download(artifact, MediaType.APPLICATION_PDF,
             String.format("monthly-report-%d-%02d.pdf", year, month));
-        headers.setContentLength(pdfBytes.length);
-
-        return new ResponseEntity<>(pdfBytes, headers, HttpStatus.OK);
     }
 
     @Operation(
@@ -85,26 +189,55 @@ public class ReportController {
         content = @Content(mediaType = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")
     )
     @GetMapping("/monthly/export/excel")
-    public ResponseEntity<byte[]> exportMonthlyReportExcel(
+    public ResponseEntity<StreamingResponseBody> exportMonthlyReportExcel(
             @Parameter(description = "Month number (1-12)", required = true, example = "1")
             @RequestParam Integer month,
             @Parameter(description = "Year", required = true, example = "2025")
             @RequestParam Integer year) {
 
-        // Generate report data
-        MonthlyReportDto report = reportService.generateMonthlyReport(month, year);
+        // Report data, generated only if its payments or students changed since last time
+        MonthlyReportDto report = reportCache.get(month, year).report();
 
-        // Generate Excel
-        byte[] excelBytes = excelExportService.generateMonthlyReportExcel(report, month, year);
+        // Rendered workbook, from disk if this exact report was rendered before
+        ReportArtifactCache.Artifact artifact = artifactCache.getOrRender(
+            ReportArtifactCache.ArtifactType.EXCEL, report,
+            outputStream -> excelExportService.writeMonthlyReportExcel(report, month, year, outputStream));
 
-        // Set headers for file download
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.parseMediaType(
-            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
-        headers.setContentDispositionFormData("attachment",
+        return download(artifact,
+            MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"),
             String.format("monthly-report-%d-%02d.xlsx", year, month));
-        headers.setContentLength(excelBytes.length);
+    }
+
+    /**
+     * Serve a cached export as a file download, copied from its file channel into the response.
+     */
+    private ResponseEntity<StreamingResponseBody> download(ReportArtifactCache.Artifact artifact,
+                                                           MediaType contentType, String fileName) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(contentType);
+        headers.setContentDispositionFormData("attachment", fileName);
+        headers.setContentLength(artifact.size());
+
+        StreamingResponseBody body = artifact::transferTo;
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    /**
+     * 304 if the client already holds the current report, otherwise the report with its ETag.
+     * Clients must revalidate every time, as the report changes with each payment.
+     */
+    private ResponseEntity<MonthlyReportDto> conditionalReport(Integer month, Integer year, WebRequest request) {
+        MonthlyReportCache.CachedReport cached = reportCache.get(month, year);
+        if (request.checkNotModified(cached.eTag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(cached.eTag())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .build();
+        }
 
-        return new ResponseEntity<>(excelBytes, headers, HttpStatus.OK);
+        return ResponseEntity.ok()
+            .eTag(cached.eTag())
+            .cacheControl(CacheControl.noCache().cachePrivate())
+            .body(cached.report());
     }
 }
@@ -1,11 +1,14 @@
 package com.katlehouniversity.ecd.controller;
 
+import com.katlehouniversity.ecd.dto.StatementProcessingStatusDto;
 import com.katlehouniversity.ecd.entity.UploadedStatement;
 import com.katlehouniversity.ecd.entity.User;
 import com.katlehouniversity.ecd.repository.UserRepository;
 import com.katlehouniversity.ecd.service.StatementUploadService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -13,6 +16,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.net.URI;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -53,25 +57,25 @@ public class StatementUploadController {
             User uploadedBy = userRepository.findByUsername(username)
                     .orElseThrow(() -> new RuntimeException("User not found: " + username));
 
-            UploadedStatement statement = statementUploadService.uploadAndProcessStatement(file, uploadedBy);
+            UploadedStatement statement = statementUploadService.submitStatement(file, uploadedBy);
+            String statusUrl = "/api/statements/" + statement.getId() + "/status";
 
             Map<String, Object> response = new HashMap<>();
             response.put("id", statement.getId());
             response.put("fileName", statement.getFileName());
             response.put("fileType", statement.getFileType());
             response.put("status", statement.getStatus());
-            response.put("totalTransactions", statement.getTotalTransactions());
-            response.put("matchedCount", statement.getMatchedCount());
-            response.put("unmatchedCount", statement.getUnmatchedCount());
             response.put("uploadDate", statement.getUploadDate());
-            response.put("processedDate", statement.getProcessedDate());
+            response.put("statusUrl", statusUrl);
 
-            if (statement.getStatus() == UploadedStatement.ProcessingStatus.FAILED) {
-                response.put("errorMessage", statement.getErrorMessage());
-                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
-            }
+            return ResponseEntity.accepted()
+                    .location(URI.create(statusUrl))
+                    .body(response);
 
-            return ResponseEntity.ok(response);
+        } catch (TaskRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .body(Map.of("error", "Statement processing queue is full, please retry shortly"));
 
         } catch (Exception e) {
             log.error("Error uploading statement", e);
@@ -101,4 +105,9 @@ public class StatementUploadController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
     }
+
+    @GetMapping("/{id}/status")
+    public ResponseEntity<StatementProcessingStatusDto> getStatementStatus(@PathVariable Long id) {
+        return ResponseEntity.ok(statementUploadService.getStatementStatus(id));
+    }
 }
@@ -1,7 +1,10 @@
 package com.katlehouniversity.ecd.controller;
 
 import com.katlehouniversity.ecd.dto.MyUpdatesWebhookPayload;
+import com.katlehouniversity.ecd.entity.WebhookQueueItem;
+import com.katlehouniversity.ecd.service.WebhookDuplicateGuard;
 import com.katlehouniversity.ecd.service.WebhookProcessingService;
+import com.katlehouniversity.ecd.service.WebhookQueueService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -15,11 +18,17 @@ import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * REST controller for receiving Standard Bank MyUpdates webhook notifications.
@@ -34,9 +43,18 @@ public class WebhookController {
     @Autowired
     private WebhookProcessingService webhookService;
 
+    @Autowired
+    private WebhookQueueService webhookQueueService;
+
+    @Autowired
+    private WebhookDuplicateGuard duplicateGuard;
+
     @Value("${webhook.myupdates.api-key:default-secret-key}")
     private String webhookApiKey;
 
+    @Value("${webhook.batch.max-size:1000}")
+    private int maxBatchSize;
+
     /**
      * Endpoint for receiving MyUpdates email notifications
      */
@@ -47,10 +65,9 @@ public class WebhookController {
 
             The system will:
             1. Validate the API key and sender email
-            2. Parse the email to extract transaction details
-            3. Check for duplicates
-            4. Attempt automatic matching to students
-            5. Create payment records or flag for manual review
+            2. Persist the notification on the webhook queue and respond immediately
+            3. Queue workers parse the email, check for duplicates and attempt automatic matching
+            4. Create payment records or flag for manual review, retrying failures with backoff
 
             **Authentication:** API key via X-API-Key header or in request body
             """,
@@ -66,7 +83,21 @@ public class WebhookController {
                     {
                       "status": "accepted",
                       "message": "Notification queued for processing",
-                      "email_id": "unique-id"
+                      "email_id": "unique-id",
+                      "queue_id": 42
+                    }
+                    """)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "Webhook queue is full, retry later",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(value = """
+                    {
+                      "status": "error",
+                      "error": "Webhook queue is full, retry later"
                     }
                     """)
             )
@@ -149,15 +180,27 @@ public class WebhookController {
                     ));
             }
 
-            // Process notification asynchronously
-            webhookService.processNotificationAsync(payload);
+            // Backpressure: refuse new work while the queue is saturated
+            if (webhookQueueService.isFull()) {
+                log.warn("Webhook queue is full, rejecting notification: {}", payload.getEmailId());
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "60")
+                    .body(Map.of(
+                        "status", "error",
+                        "error", "Webhook queue is full, retry later"
+                    ));
+            }
+
+            // Persist for processing by the queue workers
+            WebhookQueueItem queued = webhookQueueService.enqueue(payload);
 
             log.info("MyUpdates notification queued for processing: {}", payload.getEmailId());
 
             return ResponseEntity.ok(Map.of(
                 "status", "accepted",
                 "message", "Notification queued for processing",
-                "email_id", payload.getEmailId() != null ? payload.getEmailId() : "unknown"
+                "email_id", payload.getEmailId() != null ? payload.getEmailId() : "unknown",
+                "queue_id", queued.getId()
             ));
 
         } catch (Exception e) {
@@ -170,6 +213,159 @@ public class WebhookController {
         }
     }
 
+    /**
+     * Endpoint for receiving many MyUpdates email notifications in one request
+     */
+    @Operation(
+        summary = "Receive a batch of MyUpdates email notifications",
+        description = """
+            Accepts an array of notifications in the same format as /api/webhook/myupdates, for forwarders
+            replaying a backlog after an outage.
+
+            The whole batch is validated and deduplicated together (within the batch and against notifications
+            already stored), and the accepted notifications are queued in one transaction. The response reports
+            a result per item, in request order: accepted (with its queue id), duplicate, or rejected (with the reason).
+
+            **Authentication:** API key via X-API-Key header for the whole batch, or in each item's body
+            """,
+        security = @SecurityRequirement(name = "webhookApiKey")
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Batch processed; see per-item results",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(value = """
+                    {
+                      "status": "processed",
+                      "accepted": 1,
+                      "duplicates": 1,
+                      "rejected": 1,
+                      "results": [
+                        {"index": 0, "email_id": "id-1", "status": "accepted", "queue_id": 42},
+                        {"index": 1, "email_id": "id-1-retry", "status": "duplicate"},
+                        {"index": 2, "email_id": "id-2", "status": "rejected", "error": "Email body is required"}
+                      ]
+                    }
+                    """)
+            )
+        ),
+        @ApiResponse(responseCode = "400", description = "Empty batch or more items than webhook.batch.max-size"),
+        @ApiResponse(responseCode = "401", description = "No valid API key"),
+        @ApiResponse(responseCode = "503", description = "Webhook queue cannot take the batch, retry later")
+    })
+    @PostMapping("/myupdates/batch")
+    public ResponseEntity<?> handleMyUpdatesBatch(
+            @RequestBody List<MyUpdatesWebhookPayload> payloads,
+            @Parameter(description = "API key for authentication (alternative to each item's body)")
+            @RequestHeader(value = "X-API-Key", required = false) String headerApiKey) {
+
+        log.info("Received MyUpdates webhook batch of {} notifications", payloads != null ? payloads.size() : 0);
+
+        if (payloads == null || payloads.isEmpty() || payloads.size() > maxBatchSize) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(Map.of(
+                    "status", "error",
+                    "error", "Batch must contain between 1 and " + maxBatchSize + " notifications"
+                ));
+        }
+
+        boolean batchAuthenticated = isValidApiKey(headerApiKey);
+        if (headerApiKey != null && !batchAuthenticated) {
+            log.warn("Invalid API key in webhook batch request");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(Map.of("status", "error", "error", "Invalid API key"));
+        }
+
+        try {
+            List<Map<String, Object>> results = new ArrayList<>(payloads.size());
+            List<MyUpdatesWebhookPayload> accepted = new ArrayList<>();
+            List<Map<String, Object>> acceptedResults = new ArrayList<>();
+            Set<String> batchHashes = new HashSet<>();
+            int duplicates = 0;
+            int rejected = 0;
+            int unauthenticated = 0;
+
+            for (int i = 0; i < payloads.size(); i++) {
+                MyUpdatesWebhookPayload payload = payloads.get(i);
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("index", i);
+                result.put("email_id", payload != null && payload.getEmailId() != null ? payload.getEmailId() : "unknown");
+                results.add(result);
+
+                if (!batchAuthenticated && (payload == null || !isValidApiKey(payload.getApiKey()))) {
+                    result.put("status", "rejected");
+                    result.put("error", "Invalid API key");
+                    rejected++;
+                    unauthenticated++;
+                    continue;
+                }
+
+                String error = validateBatchItem(payload);
+                if (error != null) {
+                    result.put("status", "rejected");
+                    result.put("error", error);
+                    rejected++;
+                    continue;
+                }
+
+                // Unparseable emails are still queued, to be recorded as failed notifications for review
+                String hash = webhookService.duplicateHashOf(payload);
+                if (hash != null && (!batchHashes.add(hash) || duplicateGuard.isDuplicate(hash))) {
+                    result.put("status", "duplicate");
+                    duplicates++;
+                    continue;
+                }
+
+                accepted.add(payload);
+                acceptedResults.add(result);
+            }
+
+            if (unauthenticated == payloads.size()) {
+                log.warn("No valid API key in webhook batch request");
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("status", "error", "error", "Invalid API key"));
+            }
+
+            // Backpressure: the batch is queued whole or not at all
+            if (!accepted.isEmpty() && !webhookQueueService.hasCapacityFor(accepted.size())) {
+                log.warn("Webhook queue cannot take a batch of {} notifications", accepted.size());
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "60")
+                    .body(Map.of(
+                        "status", "error",
+                        "error", "Webhook queue is full, retry later"
+                    ));
+            }
+
+            List<WebhookQueueItem> queued = accepted.isEmpty() ? List.of() : webhookQueueService.enqueueAll(accepted);
+            for (int i = 0; i < queued.size(); i++) {
+                acceptedResults.get(i).put("status", "accepted");
+                acceptedResults.get(i).put("queue_id", queued.get(i).getId());
+            }
+
+            log.info("MyUpdates batch queued: {} accepted, {} duplicates, {} rejected",
+                queued.size(), duplicates, rejected);
+
+            return ResponseEntity.ok(Map.of(
+                "status", "processed",
+                "accepted", queued.size(),
+                "duplicates", duplicates,
+                "rejected", rejected,
+                "results", results
+            ));
+
+        } catch (Exception e) {
+            log.error("Error processing webhook batch", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of(
+                    "status", "error",
+                    "error", "Processing failed: " + e.getMessage()
+                ));
+        }
+    }
+
     /**
      * Test endpoint to verify webhook configuration
      *
@@ -230,6 +426,42 @@ public class WebhookController {
         return ResponseEntity.ok(stats);
     }
 
+    /**
+     * Get webhook queue depth and lag (requires authentication)
+     */
+    @GetMapping("/myupdates/queue")
+    public ResponseEntity<?> getQueueStats(
+            @RequestParam(required = false) String apiKey,
+            @RequestHeader(value = "X-API-Key", required = false) String headerApiKey) {
+
+        String providedKey = headerApiKey != null ? headerApiKey : apiKey;
+
+        if (!isValidApiKey(providedKey)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(Map.of("status", "error", "error", "Invalid API key"));
+        }
+
+        return ResponseEntity.ok(webhookQueueService.getQueueStats());
+    }
+
+    /**
+     * The same checks as the single endpoint, for one item of a batch
+     *
+     * @return the reason the item is rejected, or null if it is valid
+     */
+    private String validateBatchItem(MyUpdatesWebhookPayload payload) {
+        if (payload == null) {
+            return "Notification is empty";
+        }
+        if (!isValidStandardBankSender(payload.getSender())) {
+            return "Invalid sender email. Must be from standardbank.co.za or sbsa.co.za";
+        }
+        if (payload.getBody() == null || payload.getBody().trim().isEmpty()) {
+            return "Email body is required";
+        }
+        return null;
+    }
+
     /**
      * Validate API key
      */
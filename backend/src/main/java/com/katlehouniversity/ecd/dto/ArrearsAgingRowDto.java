@@ -0,0 +1,32 @@
+package com.katlehouniversity.ecd.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * What one student owes over a range of months, bucketed by how long each month's fee has been
+ * overdue. Fees fall due on the first of their month, so the 30, 60 and 90+ day buckets hold the
+ * fees of one, two and three or more months before the as-of month.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArrearsAgingRowDto {
+
+    private Long childId;
+    private String studentNumber;
+    private String fullName;
+    private String paymentReference;
+    private BigDecimal monthlyFee;
+
+    private BigDecimal current;
+    private BigDecimal days30;
+    private BigDecimal days60;
+    private BigDecimal days90Plus;
+    private BigDecimal totalOwed;
+
+    private long monthsOwing;
+    private String oldestUnpaidPeriod;
+}
@@ -0,0 +1,27 @@
+package com.katlehouniversity.ecd.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonthlyCollectionSummaryDto {
+
+    private Integer month;
+    private Integer year;
+    private String period;
+
+    private BigDecimal totalExpected;
+    private BigDecimal totalCollected;
+    private BigDecimal totalOutstanding;
+
+    private long totalChildren;
+    private long paidCount;
+    private long owingCount;
+
+    private LocalDateTime recalculatedAt;
+}
@@ -0,0 +1,40 @@
+package com.katlehouniversity.ecd.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress snapshot of an uploaded statement that is being processed in the background
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatementProcessingStatusDto {
+
+    private Long id;
+    private String fileName;
+    private String fileType;
+    private String status;
+
+    private int rowsParsed;
+    private int rowsMatched;
+    private int rowsUnmatched;
+
+    /**
+     * Rows skipped because an earlier upload, a webhook notification or an API sync already recorded them
+     */
+    private int rowsAlreadyImported;
+
+    /**
+     * Rows committed per second since processing started
+     */
+    private double throughputRowsPerSecond;
+    private long elapsedMillis;
+
+    private LocalDateTime uploadDate;
+    private LocalDateTime processingStartedAt;
+    private LocalDateTime processedDate;
+    private String errorMessage;
+}
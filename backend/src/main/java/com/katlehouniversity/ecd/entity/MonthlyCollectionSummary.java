@@ -0,0 +1,68 @@
+package com.katlehouniversity.ecd.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Pre-aggregated collection totals for one payment month.
+ * Kept in step with payments and students by {@code MonthlyCollectionSummaryService},
+ * so dashboard totals are a single row read instead of a scan over all students and payments.
+ */
+@Entity
+@Table(name = "monthly_collection_summaries", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"payment_year", "payment_month"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MonthlyCollectionSummary {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Integer paymentYear;
+
+    @Column(nullable = false)
+    private Integer paymentMonth;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    @Builder.Default
+    private BigDecimal totalExpected = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    @Builder.Default
+    private BigDecimal totalCollected = BigDecimal.ZERO;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long activeChildren = 0L;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long paidCount = 0L;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long owingCount = 0L;
+
+    private LocalDateTime recalculatedAt;
+
+    /**
+     * Bumped with every change to the totals, in the same transaction, so readers on any
+     * instance can tell whether the month changed since they last looked
+     */
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    @Builder.Default
+    private Long revision = 0L;
+
+    public BigDecimal getTotalOutstanding() {
+        return totalExpected.subtract(totalCollected);
+    }
+}
@@ -22,7 +22,8 @@ import java.time.YearMonth;
 public class Payment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payments_seq")
+    @SequenceGenerator(name = "payments_seq", sequenceName = "payments_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -101,13 +102,25 @@ public class Payment {
     }
 
     public boolean isFullyPaid() {
+        return isFullyPaid(amountPaid, expectedAmount);
+    }
+
+    public BigDecimal getOutstandingAmount() {
+        return outstandingAmount(amountPaid, expectedAmount);
+    }
+
+    /**
+     * Whether the amounts settle the month. Shared with report queries that read payment
+     * columns without loading the entity.
+     */
+    public static boolean isFullyPaid(BigDecimal amountPaid, BigDecimal expectedAmount) {
         if (expectedAmount == null) {
             return false;
         }
         return amountPaid.compareTo(expectedAmount) >= 0;
     }
 
-    public BigDecimal getOutstandingAmount() {
+    public static BigDecimal outstandingAmount(BigDecimal amountPaid, BigDecimal expectedAmount) {
         if (expectedAmount == null) {
             return BigDecimal.ZERO;
         }
@@ -118,13 +131,23 @@ public class Payment {
     @PrePersist
     @PreUpdate
     private void updatePaymentStatus() {
+        status = resolveStatus(amountPaid, expectedAmount, status);
+    }
+
+    /**
+     * Status a payment ends up in for the given amounts. Shared with bulk writers
+     * that bypass the entity lifecycle callbacks.
+     */
+    public static PaymentStatus resolveStatus(BigDecimal amountPaid, BigDecimal expectedAmount,
+                                              PaymentStatus currentStatus) {
         if (expectedAmount != null) {
             int comparison = amountPaid.compareTo(expectedAmount);
             if (comparison >= 0) {
-                status = PaymentStatus.PAID;
+                return PaymentStatus.PAID;
             } else if (amountPaid.compareTo(BigDecimal.ZERO) > 0) {
-                status = PaymentStatus.PARTIAL;
+                return PaymentStatus.PARTIAL;
             }
         }
+        return currentStatus;
     }
 }
\ No newline at end of file
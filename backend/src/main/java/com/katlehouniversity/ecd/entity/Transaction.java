@@ -14,7 +14,8 @@ import java.util.List;
 @Table(name = "transactions", indexes = {
     @Index(name = "idx_transaction_date", columnList = "transactionDate"),
     @Index(name = "idx_bank_reference", columnList = "bankReference"),
-    @Index(name = "idx_payment_reference", columnList = "paymentReference")
+    @Index(name = "idx_payment_reference", columnList = "paymentReference"),
+    @Index(name = "idx_identity_key", columnList = "identityKey")
 })
 @Getter
 @Setter
@@ -24,12 +25,22 @@ import java.util.List;
 public class Transaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence rather than IDENTITY so statement imports can use JDBC batch inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false, length = 100)
     private String bankReference;
 
+    /**
+     * Channel-independent identity of the bank credit (date, amount and resulting balance),
+     * shared by statement uploads, webhook notifications and API sync. Null when the source
+     * does not report a balance. See {@link com.katlehouniversity.ecd.service.TransactionIdentityIndex}.
+     */
+    @Column(length = 60)
+    private String identityKey;
+
     @Column(nullable = false, precision = 10, scale = 2)
     private BigDecimal amount;
 
@@ -81,6 +92,10 @@ public class Transaction {
     @Column(columnDefinition = "TEXT")
     private String rawData;
 
+    // Balance printed on the statement line, if any; only used to fingerprint it during import
+    @Transient
+    private BigDecimal statementBalance;
+
     public enum TransactionStatus {
         UNMATCHED,
         MATCHED,
@@ -2,6 +2,7 @@ package com.katlehouniversity.ecd.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
@@ -18,7 +19,8 @@ import java.util.List;
 public class UploadedStatement {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "uploaded_statements_seq")
+    @SequenceGenerator(name = "uploaded_statements_seq", sequenceName = "uploaded_statements_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 255)
@@ -39,6 +41,12 @@ public class UploadedStatement {
     @Builder.Default
     private Integer unmatchedCount = 0;
 
+    // Lines skipped because an earlier upload, a webhook or an API sync already recorded them
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Integer duplicateCount = 0;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 20)
     @Builder.Default
@@ -59,6 +67,12 @@ public class UploadedStatement {
     @Column(updatable = false)
     private LocalDateTime uploadDate;
 
+    private LocalDateTime processingStartedAt;
+
+    // Refreshed by the instance that queued or is processing the statement; a stale one means
+    // that instance stopped and the statement will never finish
+    private LocalDateTime heartbeatAt;
+
     private LocalDateTime processedDate;
 
     public enum FileType {
@@ -76,6 +90,8 @@ public class UploadedStatement {
 
     public void markAsProcessing() {
         this.status = ProcessingStatus.PROCESSING;
+        this.processingStartedAt = LocalDateTime.now();
+        this.heartbeatAt = this.processingStartedAt;
     }
 
     public void markAsCompleted() {
@@ -85,7 +101,9 @@ public class UploadedStatement {
 
     public void markAsFailed(String errorMessage) {
         this.status = ProcessingStatus.FAILED;
-        this.errorMessage = errorMessage;
+        this.errorMessage = errorMessage != null && errorMessage.length() > 500
+                ? errorMessage.substring(0, 500)
+                : errorMessage;
         this.processedDate = LocalDateTime.now();
     }
 
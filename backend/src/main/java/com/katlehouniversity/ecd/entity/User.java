@@ -1,5 +1,6 @@
 package com.katlehouniversity.ecd.entity;
 
+import com.katlehouniversity.ecd.security.UserCacheEvictionListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
@@ -10,6 +11,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserCacheEvictionListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,120 @@
+package com.katlehouniversity.ecd.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Durable queue entry for an incoming MyUpdates webhook.
+ * The raw payload is persisted on receipt and processed later by the queue workers,
+ * so nothing is lost on restart and bursts are absorbed by the database.
+ */
+@Entity
+@Table(name = "webhook_queue", indexes = {
+    @Index(name = "idx_webhook_queue_claim", columnList = "status, nextAttemptAt"),
+    @Index(name = "idx_webhook_queue_locked_at", columnList = "lockedAt")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WebhookQueueItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "webhook_queue_seq")
+    @SequenceGenerator(name = "webhook_queue_seq", sequenceName = "webhook_queue_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(length = 255)
+    private String emailId;
+
+    @Column(length = 100)
+    private String receivedAt;
+
+    @Column(length = 255)
+    private String sender;
+
+    @Column(length = 500)
+    private String subject;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String body;
+
+    @Column(length = 255)
+    private String recipient;
+
+    @Column(length = 50)
+    private String source;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private QueueStatus status = QueueStatus.PENDING;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(nullable = false)
+    private LocalDateTime enqueuedAt;
+
+    /**
+     * Earliest time a worker may (re)claim this item; pushed out on retry backoff
+     */
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    private LocalDateTime lockedAt;
+
+    @Column(length = 100)
+    private String lockedBy;
+
+    private LocalDateTime processedAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    public enum QueueStatus {
+        PENDING,
+        PROCESSING,
+        DONE,
+        FAILED
+    }
+
+    public void markAsClaimed(String workerId) {
+        this.status = QueueStatus.PROCESSING;
+        this.lockedAt = LocalDateTime.now();
+        this.lockedBy = workerId;
+        this.attempts = this.attempts + 1;
+    }
+
+    public void markAsDone() {
+        this.status = QueueStatus.DONE;
+        this.processedAt = LocalDateTime.now();
+        this.lockedAt = null;
+        this.lockedBy = null;
+        this.lastError = null;
+    }
+
+    public void scheduleRetry(LocalDateTime nextAttemptAt, String error) {
+        this.status = QueueStatus.PENDING;
+        this.nextAttemptAt = nextAttemptAt;
+        this.lockedAt = null;
+        this.lockedBy = null;
+        this.lastError = truncate(error);
+    }
+
+    public void markAsFailed(String error) {
+        this.status = QueueStatus.FAILED;
+        this.processedAt = LocalDateTime.now();
+        this.lockedAt = null;
+        this.lockedBy = null;
+        this.lastError = truncate(error);
+    }
+
+    private static String truncate(String error) {
+        return error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+    }
+}
@@ -1,13 +1,19 @@
 package com.katlehouniversity.ecd.repository;
 
 import com.katlehouniversity.ecd.entity.Child;
+import com.katlehouniversity.ecd.entity.Payment;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ChildRepository extends JpaRepository<Child, Long> {
@@ -39,6 +45,60 @@ public interface ChildRepository extends JpaRepository<Child, Long> {
     @Query("SELECT COUNT(c) FROM Child c WHERE c.status = 'ACTIVE'")
     long countActiveChildren();
 
+    @Query("SELECT COUNT(c) AS activeChildren, COALESCE(SUM(c.monthlyFee), 0) AS totalFees " +
+           "FROM Child c WHERE c.status = 'ACTIVE'")
+    ActiveFeeTotalsView getActiveFeeTotals();
+
     @Query("SELECT c FROM Child c LEFT JOIN FETCH c.payments WHERE c.id = :id")
     Optional<Child> findByIdWithPayments(@Param("id") Long id);
-}
\ No newline at end of file
+
+    /**
+     * Every student's identifiers, fee and status, for the in-memory reference cache and match index.
+     */
+    @Query("SELECT c.id AS id, c.studentNumber AS studentNumber, c.paymentReference AS paymentReference, " +
+           "c.firstName AS firstName, c.lastName AS lastName, c.monthlyFee AS monthlyFee, c.status AS status " +
+           "FROM Child c ORDER BY c.id")
+    List<StudentReferenceView> findAllReferenceViews();
+
+    /**
+     * One row per active student with that month's payment columns, or nulls if there is none,
+     * for the monthly report. Reads only the columns the report shows. Must be consumed inside
+     * a transaction.
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("SELECT c.id AS childId, c.firstName AS firstName, c.lastName AS lastName, " +
+           "c.monthlyFee AS monthlyFee, c.paymentReference AS paymentReference, " +
+           "p.amountPaid AS amountPaid, p.expectedAmount AS expectedAmount, p.status AS paymentStatus, " +
+           "p.paymentDate AS paymentDate " +
+           "FROM Child c LEFT JOIN Payment p " +
+           "ON p.child = c AND p.paymentMonth = :month AND p.paymentYear = :year " +
+           "WHERE c.status = 'ACTIVE' ORDER BY c.id")
+    Stream<MonthlyReportRowView> streamMonthlyReportRows(@Param("month") Integer month, @Param("year") Integer year);
+
+    interface StudentReferenceView {
+        Long getId();
+        String getStudentNumber();
+        String getPaymentReference();
+        String getFirstName();
+        String getLastName();
+        BigDecimal getMonthlyFee();
+        Child.StudentStatus getStatus();
+    }
+
+    interface ActiveFeeTotalsView {
+        Long getActiveChildren();
+        BigDecimal getTotalFees();
+    }
+
+    interface MonthlyReportRowView {
+        Long getChildId();
+        String getFirstName();
+        String getLastName();
+        BigDecimal getMonthlyFee();
+        String getPaymentReference();
+        BigDecimal getAmountPaid();
+        BigDecimal getExpectedAmount();
+        Payment.PaymentStatus getPaymentStatus();
+        LocalDate getPaymentDate();
+    }
+}
@@ -0,0 +1,56 @@
+package com.katlehouniversity.ecd.repository;
+
+import com.katlehouniversity.ecd.entity.MonthlyCollectionSummary;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface MonthlyCollectionSummaryRepository extends JpaRepository<MonthlyCollectionSummary, Long> {
+
+    Optional<MonthlyCollectionSummary> findByPaymentYearAndPaymentMonth(Integer year, Integer month);
+
+    /**
+     * Lock a month's row so concurrent recalculations of the same month run one after the other
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM MonthlyCollectionSummary s WHERE s.paymentYear = :year AND s.paymentMonth = :month")
+    Optional<MonthlyCollectionSummary> findForUpdate(@Param("year") Integer year, @Param("month") Integer month);
+
+    List<MonthlyCollectionSummary> findAllByOrderByPaymentYearAscPaymentMonthAsc();
+
+    /**
+     * A month's revision, without loading its row
+     */
+    @Query("SELECT s.revision FROM MonthlyCollectionSummary s WHERE s.paymentYear = :year AND s.paymentMonth = :month")
+    Optional<Long> findRevision(@Param("year") Integer year, @Param("month") Integer month);
+
+    /**
+     * Add payment changes to a month's totals in one atomic statement.
+     *
+     * @return 0 if the month has no summary yet
+     */
+    @Modifying
+    @Query("UPDATE MonthlyCollectionSummary s SET s.totalCollected = s.totalCollected + :collected, " +
+           "s.paidCount = s.paidCount + :paid, s.owingCount = s.owingCount - :paid, s.revision = s.revision + 1 " +
+           "WHERE s.paymentYear = :year AND s.paymentMonth = :month")
+    int addCollected(@Param("year") Integer year, @Param("month") Integer month,
+                     @Param("collected") BigDecimal collected, @Param("paid") long paid);
+
+    /**
+     * Add a change in active students and their fees to every month's totals.
+     */
+    @Modifying
+    @Query("UPDATE MonthlyCollectionSummary s SET s.totalExpected = s.totalExpected + :fees, " +
+           "s.activeChildren = s.activeChildren + :children, s.owingCount = s.owingCount + :children, " +
+           "s.revision = s.revision + 1")
+    int addExpected(@Param("fees") BigDecimal fees, @Param("children") long children);
+}
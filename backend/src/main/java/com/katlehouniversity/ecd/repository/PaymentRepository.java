@@ -1,15 +1,19 @@
 package com.katlehouniversity.ecd.repository;
 
 import com.katlehouniversity.ecd.entity.Payment;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
@@ -44,6 +48,16 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
            "WHERE p.paymentMonth = :month AND p.paymentYear = :year AND p.status = 'PAID'")
     long countPaidChildrenForMonth(@Param("month") Integer month, @Param("year") Integer year);
 
+    /**
+     * Collected amount and fully-paid count over active students' payments for a month,
+     * with the same rules as the monthly report.
+     */
+    @Query("SELECT COALESCE(SUM(p.amountPaid), 0) AS totalCollected, " +
+           "COALESCE(SUM(CASE WHEN p.expectedAmount IS NOT NULL AND p.amountPaid >= p.expectedAmount " +
+           "THEN 1 ELSE 0 END), 0) AS paidCount FROM Payment p " +
+           "WHERE p.paymentMonth = :month AND p.paymentYear = :year AND p.child.status = 'ACTIVE'")
+    MonthCollectionView getActiveCollectionForMonth(@Param("month") Integer month, @Param("year") Integer year);
+
     @Query("SELECT p FROM Payment p WHERE p.paymentDate BETWEEN :startDate AND :endDate")
     List<Payment> findByPaymentDateBetween(
             @Param("startDate") LocalDate startDate,
@@ -51,4 +65,46 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
 
     boolean existsByChildIdAndPaymentMonthAndPaymentYear(
             Long childId, Integer month, Integer year);
-}
\ No newline at end of file
+
+    /**
+     * Every payment dated in the range with its student's number and name, oldest id first, for
+     * the bulk CSV export. Read through a cursor in fetch-size chunks as plain columns, so memory
+     * stays constant however many rows there are. Must be consumed inside a transaction.
+     */
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheable", value = "false")
+    })
+    @Query("SELECT p.id AS id, c.studentNumber AS studentNumber, c.firstName AS firstName, " +
+           "c.lastName AS lastName, p.paymentMonth AS paymentMonth, p.paymentYear AS paymentYear, " +
+           "p.amountPaid AS amountPaid, p.expectedAmount AS expectedAmount, p.paymentDate AS paymentDate, " +
+           "p.status AS status, p.paymentMethod AS paymentMethod, p.transactionReference AS transactionReference, " +
+           "t.id AS transactionId, p.matchedAutomatically AS matchedAutomatically, p.createdAt AS createdAt " +
+           "FROM Payment p JOIN p.child c LEFT JOIN p.transaction t " +
+           "WHERE p.paymentDate BETWEEN :from AND :to ORDER BY p.id")
+    Stream<PaymentExportView> streamForExport(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    interface MonthCollectionView {
+        BigDecimal getTotalCollected();
+        Long getPaidCount();
+    }
+
+    interface PaymentExportView {
+        Long getId();
+        String getStudentNumber();
+        String getFirstName();
+        String getLastName();
+        Integer getPaymentMonth();
+        Integer getPaymentYear();
+        BigDecimal getAmountPaid();
+        BigDecimal getExpectedAmount();
+        LocalDate getPaymentDate();
+        Payment.PaymentStatus getStatus();
+        Payment.PaymentMethod getPaymentMethod();
+        String getTransactionReference();
+        Long getTransactionId();
+        Boolean getMatchedAutomatically();
+        LocalDateTime getCreatedAt();
+    }
+}
@@ -1,8 +1,10 @@
 package com.katlehouniversity.ecd.repository;
 
 import com.katlehouniversity.ecd.entity.TransactionNotification;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -10,6 +12,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionNotificationRepository extends JpaRepository<TransactionNotification, UUID> {
@@ -21,6 +24,13 @@ public interface TransactionNotificationRepository extends JpaRepository<Transac
      */
     boolean existsByDuplicateCheckHash(String hash);
 
+    /**
+     * Every stored duplicate hash, read from the duplicate hash index. Must be consumed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT n.duplicateCheckHash FROM TransactionNotification n WHERE n.duplicateCheckHash IS NOT NULL")
+    Stream<String> streamDuplicateCheckHashes();
+
     /**
      * Find notification by duplicate hash
      */
@@ -62,9 +72,24 @@ public interface TransactionNotificationRepository extends JpaRepository<Transac
     @Query("SELECT n FROM TransactionNotification n WHERE n.receivedAt >= :since ORDER BY n.receivedAt DESC")
     List<TransactionNotification> findRecentNotifications(@Param("since") LocalDateTime since);
 
+    /**
+     * Notification counts per match status, with how many of each were received since the given time.
+     * One grouped scan of the match status and received-at columns, for the monitoring stats.
+     */
+    @Query("SELECT n.matchStatus AS matchStatus, COUNT(n) AS total, " +
+           "SUM(CASE WHEN n.receivedAt >= :since THEN 1 ELSE 0 END) AS receivedSince " +
+           "FROM TransactionNotification n GROUP BY n.matchStatus")
+    List<StatusCount> countByMatchStatus(@Param("since") LocalDateTime since);
+
     /**
      * Find failed notifications for retry/review
      */
     @Query("SELECT n FROM TransactionNotification n WHERE n.matchStatus = 'FAILED' ORDER BY n.receivedAt DESC")
     List<TransactionNotification> findFailedNotifications();
+
+    interface StatusCount {
+        TransactionNotification.MatchStatus getMatchStatus();
+        Long getTotal();
+        Long getReceivedSince();
+    }
 }
@@ -1,14 +1,22 @@
 package com.katlehouniversity.ecd.repository;
 
 import com.katlehouniversity.ecd.entity.Transaction;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
@@ -33,10 +41,71 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
 
     boolean existsByBankReference(String bankReference);
 
+    /**
+     * Which of the given bank references are already stored, answered from the bank reference index.
+     */
+    @Query("SELECT t.bankReference FROM Transaction t WHERE t.bankReference IN :references")
+    Set<String> findExistingBankReferences(@Param("references") Collection<String> references);
+
+    /**
+     * Transactions already stored under any of the given identity keys, from the identity key index.
+     */
+    List<Transaction> findByIdentityKeyIn(Collection<String> identityKeys);
+
     @Query("SELECT COUNT(t) FROM Transaction t WHERE t.status = 'UNMATCHED'")
     long countUnmatchedTransactions();
 
     @Query("SELECT t FROM Transaction t WHERE t.status = 'UNMATCHED' " +
            "AND t.paymentReference IS NOT NULL AND t.paymentReference != ''")
     List<Transaction> findUnmatchedWithReference();
-}
\ No newline at end of file
+
+    /**
+     * Keyset page of unmatched transactions that carry a payment reference, for bulk matching.
+     */
+    @Query("SELECT t.id AS id, t.bankReference AS bankReference, t.paymentReference AS paymentReference, " +
+           "t.amount AS amount, t.transactionDate AS transactionDate FROM Transaction t " +
+           "WHERE t.status = 'UNMATCHED' AND t.paymentReference IS NOT NULL AND t.paymentReference != '' " +
+           "AND t.id > :afterId ORDER BY t.id")
+    List<UnmatchedReferenceView> findUnmatchedWithReferenceAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Every transaction dated in the range, oldest id first, for the bulk CSV export. Read through
+     * a cursor in fetch-size chunks as plain columns, so memory stays constant however many rows
+     * there are. Must be consumed inside a transaction.
+     */
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheable", value = "false")
+    })
+    @Query("SELECT t.id AS id, t.bankReference AS bankReference, t.transactionDate AS transactionDate, " +
+           "t.amount AS amount, t.type AS type, t.status AS status, t.paymentReference AS paymentReference, " +
+           "t.description AS description, t.senderName AS senderName, t.senderAccount AS senderAccount, " +
+           "t.manuallyMatched AS manuallyMatched, t.matchedAt AS matchedAt, t.createdAt AS createdAt " +
+           "FROM Transaction t WHERE t.transactionDate BETWEEN :from AND :to ORDER BY t.id")
+    Stream<TransactionExportView> streamForExport(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    interface UnmatchedReferenceView {
+        Long getId();
+        String getBankReference();
+        String getPaymentReference();
+        BigDecimal getAmount();
+        LocalDate getTransactionDate();
+    }
+
+    interface TransactionExportView {
+        Long getId();
+        String getBankReference();
+        LocalDate getTransactionDate();
+        BigDecimal getAmount();
+        Transaction.TransactionType getType();
+        Transaction.TransactionStatus getStatus();
+        String getPaymentReference();
+        String getDescription();
+        String getSenderName();
+        String getSenderAccount();
+        Boolean getManuallyMatched();
+        LocalDateTime getMatchedAt();
+        LocalDateTime getCreatedAt();
+    }
+}
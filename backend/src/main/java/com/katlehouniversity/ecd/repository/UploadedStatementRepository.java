@@ -2,9 +2,13 @@ package com.katlehouniversity.ecd.repository;
 
 import com.katlehouniversity.ecd.entity.UploadedStatement;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,5 +18,32 @@ public interface UploadedStatementRepository extends JpaRepository<UploadedState
 
     List<UploadedStatement> findByStatus(UploadedStatement.ProcessingStatus status);
 
+    List<UploadedStatement> findByStatusIn(Collection<UploadedStatement.ProcessingStatus> statuses);
+
     List<UploadedStatement> findByOrderByUploadDateDesc();
+
+    @Modifying
+    @Query("UPDATE UploadedStatement s SET s.totalTransactions = s.totalTransactions + :total, " +
+           "s.matchedCount = s.matchedCount + :matched, " +
+           "s.unmatchedCount = s.unmatchedCount + (:total - :matched), " +
+           "s.duplicateCount = s.duplicateCount + :duplicates WHERE s.id = :id")
+    int incrementCounts(@Param("id") Long id, @Param("total") int total, @Param("matched") int matched,
+                        @Param("duplicates") int duplicates);
+
+    @Modifying
+    @Query("UPDATE UploadedStatement s SET s.heartbeatAt = :now WHERE s.id IN :ids")
+    int refreshHeartbeats(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Fail statements in one of the given statuses whose heartbeat is older than the cutoff.
+     */
+    @Modifying
+    @Query("UPDATE UploadedStatement s SET s.status = :failed, s.errorMessage = :errorMessage, " +
+           "s.processedDate = :now WHERE s.status IN :statuses " +
+           "AND (s.heartbeatAt IS NULL OR s.heartbeatAt < :cutoff)")
+    int failStale(@Param("statuses") Collection<UploadedStatement.ProcessingStatus> statuses,
+                  @Param("cutoff") LocalDateTime cutoff,
+                  @Param("failed") UploadedStatement.ProcessingStatus failed,
+                  @Param("errorMessage") String errorMessage,
+                  @Param("now") LocalDateTime now);
 }
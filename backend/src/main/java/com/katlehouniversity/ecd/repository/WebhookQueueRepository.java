@@ -0,0 +1,47 @@
+package com.katlehouniversity.ecd.repository;
+
+import com.katlehouniversity.ecd.entity.WebhookQueueItem;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface WebhookQueueRepository extends JpaRepository<WebhookQueueItem, Long> {
+
+    /**
+     * Lock the next due items for a worker. The lock timeout hint of -2 makes Hibernate emit
+     * FOR UPDATE SKIP LOCKED, so concurrent workers never block on or double-claim a row.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT q FROM WebhookQueueItem q WHERE q.status = 'PENDING' AND q.nextAttemptAt <= :now " +
+           "ORDER BY q.nextAttemptAt, q.id")
+    List<WebhookQueueItem> findClaimable(@Param("now") LocalDateTime now, Pageable pageable);
+
+    long countByStatus(WebhookQueueItem.QueueStatus status);
+
+    @Query("SELECT MIN(q.enqueuedAt) FROM WebhookQueueItem q WHERE q.status = 'PENDING'")
+    LocalDateTime findOldestPendingEnqueuedAt();
+
+    /**
+     * Return items whose worker died mid-processing to the queue
+     */
+    @Modifying
+    @Query("UPDATE WebhookQueueItem q SET q.status = 'PENDING', q.lockedAt = NULL, q.lockedBy = NULL " +
+           "WHERE q.status = 'PROCESSING' AND q.lockedAt < :lockedBefore")
+    int releaseStaleLocks(@Param("lockedBefore") LocalDateTime lockedBefore);
+
+    @Modifying
+    @Query("DELETE FROM WebhookQueueItem q WHERE q.status = 'DONE' AND q.processedAt < :processedBefore")
+    int deleteDoneBefore(@Param("processedBefore") LocalDateTime processedBefore);
+}
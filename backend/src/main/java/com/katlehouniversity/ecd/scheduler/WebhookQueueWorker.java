@@ -0,0 +1,155 @@
+package com.katlehouniversity.ecd.scheduler;
+
+import com.katlehouniversity.ecd.entity.WebhookQueueItem;
+import com.katlehouniversity.ecd.service.WebhookProcessingService;
+import com.katlehouniversity.ecd.service.WebhookQueueService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Pool of workers draining the webhook queue.
+ *
+ * Each worker claims a batch of due items (FOR UPDATE SKIP LOCKED), processes them one by one
+ * and records success or a failed attempt. An item out of attempts is stored as a FAILED
+ * notification in the same transaction, so it shows up for review and retry like any other
+ * failed notification. Items locked by a worker that died are returned to the queue by the
+ * maintenance job. Can be disabled with webhook.queue.enabled=false.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(
+        value = "webhook.queue.enabled",
+        havingValue = "true",
+        matchIfMissing = true
+)
+public class WebhookQueueWorker implements SmartLifecycle {
+
+    private final WebhookQueueService queueService;
+    private final WebhookProcessingService webhookService;
+    private final TaskExecutor webhookQueueExecutor;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${webhook.queue.workers:2}")
+    private int workerCount;
+
+    @Value("${webhook.queue.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    @Value("${webhook.queue.lock-timeout-seconds:300}")
+    private long lockTimeoutSeconds;
+
+    @Value("${webhook.queue.retention-days:7}")
+    private long retentionDays;
+
+    private volatile boolean running;
+
+    public WebhookQueueWorker(WebhookQueueService queueService,
+                              WebhookProcessingService webhookService,
+                              @Qualifier("webhookQueueExecutor") TaskExecutor webhookQueueExecutor,
+                              TransactionTemplate transactionTemplate) {
+        this.queueService = queueService;
+        this.webhookService = webhookService;
+        this.webhookQueueExecutor = webhookQueueExecutor;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        for (int i = 1; i <= workerCount; i++) {
+            String workerId = "webhook-worker-" + i;
+            webhookQueueExecutor.execute(() -> pollLoop(workerId));
+        }
+        log.info("Started {} webhook queue workers", workerCount);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        log.info("Stopping webhook queue workers");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Periodically return stale claims to the queue and purge old completed items
+     */
+    @Scheduled(fixedDelayString = "${webhook.queue.maintenance-interval-ms:60000}")
+    public void maintainQueue() {
+        int released = queueService.releaseStaleLocks(Duration.ofSeconds(lockTimeoutSeconds));
+        if (released > 0) {
+            log.warn("Released {} stale webhook queue claims", released);
+        }
+
+        int purged = queueService.purgeDone(Duration.ofDays(retentionDays));
+        if (purged > 0) {
+            log.info("Purged {} completed webhook queue items", purged);
+        }
+    }
+
+    private void pollLoop(String workerId) {
+        while (running) {
+            try {
+                List<WebhookQueueItem> batch = queueService.claimBatch(workerId);
+                if (batch.isEmpty()) {
+                    Thread.sleep(pollIntervalMs);
+                    continue;
+                }
+
+                for (WebhookQueueItem item : batch) {
+                    process(item);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Webhook queue worker {} failed to claim work", workerId, e);
+                sleepQuietly();
+            }
+        }
+    }
+
+    void process(WebhookQueueItem item) {
+        try {
+            webhookService.processNotification(queueService.toPayload(item));
+            queueService.markDone(item.getId());
+        } catch (Exception e) {
+            log.error("Error processing webhook queue item {}", item.getId(), e);
+            recordFailedAttempt(item, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+    }
+
+    private void recordFailedAttempt(WebhookQueueItem item, String error) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (queueService.markAttemptFailed(item.getId(), error)) {
+                    webhookService.recordFailedNotification(queueService.toPayload(item), error);
+                }
+            });
+        } catch (Exception e) {
+            // The claim goes stale and the maintenance job returns the item to the queue
+            log.error("Could not record failed attempt for webhook queue item {}", item.getId(), e);
+        }
+    }
+
+    private void sleepQuietly() {
+        try {
+            Thread.sleep(pollIntervalMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
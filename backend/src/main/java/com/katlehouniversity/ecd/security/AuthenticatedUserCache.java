@@ -0,0 +1,69 @@
+package com.katlehouniversity.ecd.security;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Short-lived cache of active users for request authentication.
+ *
+ * Lets {@link JwtAuthenticationFilter} confirm that a token's user still exists and is active
+ * without a database query on every request. Entries expire after a short TTL and are evicted
+ * as soon as a change to the user row commits (see {@link UserCacheEvictionListener}), so
+ * deactivating a user takes effect immediately on this instance. A user loaded while an
+ * eviction happened is returned but not cached, as it may have been read before the change
+ * committed. Logins always go to the database.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AuthenticatedUserCache {
+
+    private final CustomUserDetailsService userDetailsService;
+
+    @Value("${jwt.user-cache-ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private final ConcurrentMap<String, CachedUser> users = new ConcurrentHashMap<>();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Active user by username, loaded from the database when absent or expired.
+     *
+     * @throws UsernameNotFoundException if the user does not exist or is inactive
+     */
+    public UserDetails get(String username) {
+        long now = System.nanoTime();
+        CachedUser cached = users.get(username);
+        if (cached != null && now - cached.loadedAt < ttlSeconds * 1_000_000_000L) {
+            return cached.userDetails;
+        }
+
+        long evictionsBefore = evictions.get();
+        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        CachedUser loaded = new CachedUser(userDetails, now);
+        users.put(username, loaded);
+        // Checked after the put, so an eviction racing with it cannot leave the entry behind
+        if (evictions.get() != evictionsBefore) {
+            users.remove(username, loaded);
+        }
+        return userDetails;
+    }
+
+    public void evict(String username) {
+        evictions.incrementAndGet();
+        if (username != null && users.remove(username) != null) {
+            log.debug("Evicted cached authentication for user {}", username);
+        }
+    }
+
+    private record CachedUser(UserDetails userDetails, long loadedAt) {
+    }
+}
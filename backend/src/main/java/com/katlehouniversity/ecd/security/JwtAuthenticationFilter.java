@@ -1,25 +1,32 @@
 package com.katlehouniversity.ecd.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final CustomUserDetailsService userDetailsService;
+    private final AuthenticatedUserCache authenticatedUserCache;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -28,13 +35,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwt = null;
+        Claims claims = null;
 
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
+            String jwt = authorizationHeader.substring(7);
             try {
-                username = jwtUtil.extractUsername(jwt);
+                // Signature and expiry are verified once, here
+                claims = jwtUtil.parseToken(jwt);
             } catch (io.jsonwebtoken.ExpiredJwtException e) {
                 logger.error("JWT token expired", e);
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
@@ -48,10 +55,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             }
         }
 
+        String username = claims != null ? claims.getSubject() : null;
+
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            UserDetails userDetails = findActiveUser(username);
 
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+            if (userDetails != null && hasCurrentRoles(claims, userDetails)) {
                 UsernamePasswordAuthenticationToken authenticationToken =
                         new UsernamePasswordAuthenticationToken(
                                 userDetails,
@@ -69,4 +78,28 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    private UserDetails findActiveUser(String username) {
+        try {
+            return authenticatedUserCache.get(username);
+        } catch (UsernameNotFoundException e) {
+            logger.debug("JWT user no longer active: " + username);
+            return null;
+        }
+    }
+
+    /**
+     * Tokens issued before a role change are not honoured; the user has to log in again.
+     * Tokens without a roles claim predate it and are accepted.
+     */
+    private boolean hasCurrentRoles(Claims claims, UserDetails userDetails) {
+        List<String> tokenRoles = jwtUtil.extractRoles(claims);
+        if (tokenRoles == null) {
+            return true;
+        }
+        Set<String> currentRoles = userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toSet());
+        return currentRoles.equals(new HashSet<>(tokenRoles));
+    }
+}
@@ -0,0 +1,42 @@
+package com.katlehouniversity.ecd.security;
+
+import com.katlehouniversity.ecd.entity.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Drops a user's cached authentication whenever the user row is updated or deleted,
+ * so deactivation and role changes are not masked by {@link AuthenticatedUserCache}.
+ *
+ * The JPA callbacks fire at flush, before the change is visible to other transactions, so the
+ * eviction waits until the transaction commits; evicting earlier would let a concurrent request
+ * cache the old row again.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserCacheEvictionListener {
+
+    // Resolved lazily: the cache depends on JPA, which instantiates this listener
+    private final ObjectProvider<AuthenticatedUserCache> authenticatedUserCache;
+
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        String username = user.getUsername();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            authenticatedUserCache.getObject().evict(username);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                authenticatedUserCache.getObject().evict(username);
+            }
+        });
+    }
+}
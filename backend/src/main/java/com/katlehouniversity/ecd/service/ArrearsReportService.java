@@ -0,0 +1,260 @@
+package com.katlehouniversity.ecd.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.katlehouniversity.ecd.dto.ArrearsAgingRowDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.util.function.Consumer;
+
+/**
+ * Arrears aging over a range of months, computed by the database in one statement.
+ *
+ * The months of the range are generated in SQL, every active student is billed for each
+ * month from their enrolment on, and the month's payment is LEFT JOINed through the unique
+ * (child, month, year) index. What is still owed per month is then summed per student into
+ * buckets by the month's age relative to the as-of month (the end of the range, or the current
+ * month if the range runs into the future). Only students who owe something are returned,
+ * largest debt first, and rows are streamed from a cursor to the caller.
+ */
+@Service
+@Slf4j
+public class ArrearsReportService {
+
+    /**
+     * Longest range accepted, in months; the query's month series has exactly this many offsets
+     */
+    public static final int MAX_RANGE_MONTHS = 120;
+
+    private static final int FETCH_SIZE = 500;
+
+    // Periods are months counted from year zero (year * 12 + month - 1), so the month series and
+    // the age of each month are plain integer arithmetic on both PostgreSQL and H2. The series is
+    // the offsets 0-119 of two literal VALUES tables rather than a recursive CTE, and every bind
+    // parameter is cast: H2 evaluates CTEs that use bind parameters before the values are bound,
+    // and silently returned NULL months.
+    private static final String ARREARS_SQL = """
+            SELECT s.id, s.student_number, s.first_name, s.last_name, s.payment_reference, s.monthly_fee,
+                   SUM(CASE WHEN o.age = 0 THEN o.amount ELSE 0 END) AS current_due,
+                   SUM(CASE WHEN o.age = 1 THEN o.amount ELSE 0 END) AS days_30,
+                   SUM(CASE WHEN o.age = 2 THEN o.amount ELSE 0 END) AS days_60,
+                   SUM(CASE WHEN o.age >= 3 THEN o.amount ELSE 0 END) AS days_90_plus,
+                   SUM(o.amount) AS total_owed,
+                   COUNT(CASE WHEN o.amount > 0 THEN 1 END) AS months_owing,
+                   MIN(CASE WHEN o.amount > 0 THEN o.period END) AS oldest_period
+            FROM (
+                SELECT s.id AS child_id, m.period, m.age,
+                       GREATEST(COALESCE(p.expected_amount, s.monthly_fee) - COALESCE(p.amount_paid, 0), 0) AS amount
+                FROM students s
+                CROSS JOIN (
+                    SELECT CAST(:fromPeriod AS INTEGER) + offsets.n AS period,
+                           CAST(:asOfPeriod AS INTEGER) - CAST(:fromPeriod AS INTEGER) - offsets.n AS age
+                    FROM (
+                        SELECT units.n + 10 * tens.n AS n
+                        FROM (VALUES (0), (1), (2), (3), (4), (5), (6), (7), (8), (9)) AS units (n)
+                        CROSS JOIN (VALUES (0), (1), (2), (3), (4), (5), (6), (7), (8), (9), (10), (11)) AS tens (n)
+                    ) offsets
+                    WHERE offsets.n <= CAST(:toPeriod AS INTEGER) - CAST(:fromPeriod AS INTEGER)
+                ) m
+                LEFT JOIN payments p
+                       ON p.child_id = s.id AND p.payment_year = m.period / 12 AND p.payment_month = MOD(m.period, 12) + 1
+                WHERE s.status = 'ACTIVE'
+                  AND (s.enrollment_date IS NULL
+                       OR EXTRACT(YEAR FROM s.enrollment_date) * 12 + EXTRACT(MONTH FROM s.enrollment_date) - 1 <= m.period)
+            ) o
+            JOIN students s ON s.id = o.child_id
+            GROUP BY s.id, s.student_number, s.first_name, s.last_name, s.payment_reference, s.monthly_fee
+            HAVING SUM(o.amount) > 0
+            ORDER BY total_owed DESC, s.id
+            """;
+
+    private static final String[] CSV_HEADERS = {
+            "Student Number", "Name", "Student Reference", "Monthly Fee", "Current", "30 Days", "60 Days",
+            "90+ Days", "Total Owed", "Months Owing", "Oldest Unpaid Month"
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final ExcelExportService excelExportService;
+
+    public ArrearsReportService(DataSource dataSource, PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper, ExcelExportService excelExportService) {
+        // A private template, so the fetch size does not leak into other queries
+        JdbcTemplate cursorTemplate = new JdbcTemplate(dataSource);
+        cursorTemplate.setFetchSize(FETCH_SIZE);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(cursorTemplate);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.excelExportService = excelExportService;
+    }
+
+    /**
+     * Months after the current one are not due yet, so the range is cut off there.
+     */
+    public static YearMonth asOf(YearMonth to) {
+        YearMonth now = YearMonth.now();
+        return to.isAfter(now) ? now : to;
+    }
+
+    /**
+     * Feed every student in arrears over the range to the consumer, largest debt first.
+     * Runs in its own read-only transaction, which PostgreSQL needs to fetch from a cursor.
+     */
+    public void forEachRow(YearMonth from, YearMonth to, Consumer<ArrearsAgingRowDto> consumer) {
+        YearMonth asOf = asOf(to);
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("fromPeriod", period(from))
+                .addValue("toPeriod", period(asOf))
+                .addValue("asOfPeriod", period(asOf));
+
+        log.info("Generating arrears aging report for {} to {}", from, asOf);
+        readOnlyTransaction.executeWithoutResult(status ->
+                jdbcTemplate.query(ARREARS_SQL, parameters, (RowCallbackHandler) resultSet -> {
+                    int oldest = resultSet.getInt("oldest_period");
+                    consumer.accept(ArrearsAgingRowDto.builder()
+                            .childId(resultSet.getLong("id"))
+                            .studentNumber(resultSet.getString("student_number"))
+                            .fullName(resultSet.getString("first_name") + " " + resultSet.getString("last_name"))
+                            .paymentReference(resultSet.getString("payment_reference"))
+                            .monthlyFee(resultSet.getBigDecimal("monthly_fee"))
+                            .current(resultSet.getBigDecimal("current_due"))
+                            .days30(resultSet.getBigDecimal("days_30"))
+                            .days60(resultSet.getBigDecimal("days_60"))
+                            .days90Plus(resultSet.getBigDecimal("days_90_plus"))
+                            .totalOwed(resultSet.getBigDecimal("total_owed"))
+                            .monthsOwing(resultSet.getLong("months_owing"))
+                            .oldestUnpaidPeriod(YearMonth.of(oldest / 12, oldest % 12 + 1).toString())
+                            .build());
+                }));
+    }
+
+    /**
+     * Stream the report as a JSON document: the range, one entry per student, then the totals.
+     */
+    public void writeJson(YearMonth from, YearMonth to, OutputStream outputStream) {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(outputStream)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            json.writeStartObject();
+            json.writeStringField("from", from.toString());
+            json.writeStringField("asOf", asOf(to).toString());
+            json.writeArrayFieldStart("students");
+
+            Totals totals = new Totals();
+            forEachRow(from, to, row -> {
+                totals.add(row);
+                try {
+                    json.writeObject(row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            json.writeEndArray();
+            json.writeObjectFieldStart("totals");
+            json.writeNumberField("students", totals.students);
+            json.writeNumberField("current", totals.current);
+            json.writeNumberField("days30", totals.days30);
+            json.writeNumberField("days60", totals.days60);
+            json.writeNumberField("days90Plus", totals.days90Plus);
+            json.writeNumberField("totalOwed", totals.totalOwed);
+            json.writeEndObject();
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Arrears report JSON export failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Stream the report as CSV, one line per student.
+     */
+    public void writeCsv(YearMonth from, YearMonth to, OutputStream outputStream) {
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            writer.write(String.join(",", CSV_HEADERS));
+            writer.write("\r\n");
+
+            forEachRow(from, to, row -> {
+                try {
+                    writer.write(String.join(",",
+                            csv(row.getStudentNumber()), csv(row.getFullName()), csv(row.getPaymentReference()),
+                            row.getMonthlyFee().toPlainString(), row.getCurrent().toPlainString(),
+                            row.getDays30().toPlainString(), row.getDays60().toPlainString(),
+                            row.getDays90Plus().toPlainString(), row.getTotalOwed().toPlainString(),
+                            Long.toString(row.getMonthsOwing()), row.getOldestUnpaidPeriod()));
+                    writer.write("\r\n");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Arrears report CSV export failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Stream the report as an Excel workbook.
+     */
+    public void writeExcel(YearMonth from, YearMonth to, OutputStream outputStream) {
+        excelExportService.writeArrearsExcel(from, asOf(to), consumer -> forEachRow(from, to, consumer), outputStream);
+    }
+
+    private static int period(YearMonth month) {
+        return month.getYear() * 12 + month.getMonthValue() - 1;
+    }
+
+    /**
+     * Quote a CSV field if it holds a separator, quote or line break. Fields starting with a
+     * formula character are prefixed with a quote so spreadsheets show them as text.
+     */
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (!value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    private static final class Totals {
+        private long students;
+        private BigDecimal current = BigDecimal.ZERO;
+        private BigDecimal days30 = BigDecimal.ZERO;
+        private BigDecimal days60 = BigDecimal.ZERO;
+        private BigDecimal days90Plus = BigDecimal.ZERO;
+        private BigDecimal totalOwed = BigDecimal.ZERO;
+
+        private void add(ArrearsAgingRowDto row) {
+            students++;
+            current = current.add(row.getCurrent());
+            days30 = days30.add(row.getDays30());
+            days60 = days60.add(row.getDays60());
+            days90Plus = days90Plus.add(row.getDays90Plus());
+            totalOwed = totalOwed.add(row.getTotalOwed());
+        }
+    }
+}
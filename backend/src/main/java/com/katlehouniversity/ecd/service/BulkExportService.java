@@ -0,0 +1,118 @@
+package com.katlehouniversity.ecd.service;
+
+import com.katlehouniversity.ecd.repository.PaymentRepository;
+import com.katlehouniversity.ecd.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Raw CSV exports of the transactions and payments tables for the accountants.
+ *
+ * Rows come from repository streams backed by a database cursor and are printed as they arrive,
+ * so memory use is the same for a thousand rows as for millions. Each export runs in one
+ * read-only transaction, which PostgreSQL needs to fetch from a cursor, and gives a consistent
+ * snapshot of the table.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkExportService {
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private static final CSVFormat TRANSACTION_FORMAT = CSVFormat.DEFAULT.builder()
+            .setHeader("id", "bank_reference", "transaction_date", "amount", "type", "status",
+                    "payment_reference", "description", "sender_name", "sender_account",
+                    "manually_matched", "matched_at", "created_at")
+            .build();
+
+    private static final CSVFormat PAYMENT_FORMAT = CSVFormat.DEFAULT.builder()
+            .setHeader("id", "student_number", "student_name", "payment_month", "payment_year",
+                    "amount_paid", "expected_amount", "payment_date", "status", "payment_method",
+                    "transaction_reference", "transaction_id", "matched_automatically", "created_at")
+            .build();
+
+    private final TransactionRepository transactionRepository;
+    private final PaymentRepository paymentRepository;
+
+    /**
+     * Write every transaction dated in the range as CSV. The stream is flushed, not closed.
+     *
+     * @return Number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long writeTransactionsCsv(LocalDate from, LocalDate to, OutputStream outputStream) {
+        log.info("Exporting transactions dated {} to {}", from, to);
+        try (Stream<TransactionRepository.TransactionExportView> rows = transactionRepository.streamForExport(from, to)) {
+            CSVPrinter printer = new CSVPrinter(writer(outputStream), TRANSACTION_FORMAT);
+            long count = 0;
+            Iterator<TransactionRepository.TransactionExportView> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                TransactionRepository.TransactionExportView row = iterator.next();
+                printer.printRecord(row.getId(), row.getBankReference(), row.getTransactionDate(),
+                        plain(row.getAmount()), row.getType(), row.getStatus(), row.getPaymentReference(),
+                        row.getDescription(), row.getSenderName(), row.getSenderAccount(),
+                        row.getManuallyMatched(), row.getMatchedAt(), row.getCreatedAt());
+                count++;
+            }
+            printer.flush();
+            log.info("Exported {} transactions", count);
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Transaction export failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Write every payment dated in the range as CSV, with its student's number and name.
+     * The stream is flushed, not closed.
+     *
+     * @return Number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long writePaymentsCsv(LocalDate from, LocalDate to, OutputStream outputStream) {
+        log.info("Exporting payments dated {} to {}", from, to);
+        try (Stream<PaymentRepository.PaymentExportView> rows = paymentRepository.streamForExport(from, to)) {
+            CSVPrinter printer = new CSVPrinter(writer(outputStream), PAYMENT_FORMAT);
+            long count = 0;
+            Iterator<PaymentRepository.PaymentExportView> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                PaymentRepository.PaymentExportView row = iterator.next();
+                printer.printRecord(row.getId(), row.getStudentNumber(),
+                        row.getFirstName() + " " + row.getLastName(), row.getPaymentMonth(), row.getPaymentYear(),
+                        plain(row.getAmountPaid()), plain(row.getExpectedAmount()), row.getPaymentDate(),
+                        row.getStatus(), row.getPaymentMethod(), row.getTransactionReference(),
+                        row.getTransactionId(), row.getMatchedAutomatically(), row.getCreatedAt());
+                count++;
+            }
+            printer.flush();
+            log.info("Exported {} payments", count);
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Payment export failed: " + e.getMessage(), e);
+        }
+    }
+
+    private static BufferedWriter writer(OutputStream outputStream) {
+        return new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+    }
+
+    private static String plain(BigDecimal amount) {
+        return amount != null ? amount.toPlainString() : null;
+    }
+}
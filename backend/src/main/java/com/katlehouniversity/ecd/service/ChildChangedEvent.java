@@ -0,0 +1,42 @@
+package com.katlehouniversity.ecd.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Published by {@link ChildService} whenever a student is created, updated or withdrawn.
+ * Carries what the change does to the fees expected from active students.
+ */
+@Getter
+@AllArgsConstructor
+public class ChildChangedEvent {
+
+    private final Long childId;
+
+    /**
+     * Change in the monthly fees expected from active students
+     */
+    private final BigDecimal expectedFeesDelta;
+
+    /**
+     * 1 if the student became active, -1 if they stopped being active, otherwise 0
+     */
+    private final int activeDelta;
+
+    /**
+     * A student going from one status and fee to another; a new student was not active before.
+     */
+    public static ChildChangedEvent between(Long childId, boolean activeBefore, BigDecimal feeBefore,
+                                            boolean activeAfter, BigDecimal feeAfter) {
+        BigDecimal expectedBefore = activeBefore && feeBefore != null ? feeBefore : BigDecimal.ZERO;
+        BigDecimal expectedAfter = activeAfter && feeAfter != null ? feeAfter : BigDecimal.ZERO;
+        return new ChildChangedEvent(childId, expectedAfter.subtract(expectedBefore),
+                (activeAfter ? 1 : 0) - (activeBefore ? 1 : 0));
+    }
+
+    public boolean changesTotals() {
+        return expectedFeesDelta.signum() != 0 || activeDelta != 0;
+    }
+}
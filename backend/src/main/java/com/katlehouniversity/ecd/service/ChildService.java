@@ -6,9 +6,11 @@ import com.katlehouniversity.ecd.exception.ResourceNotFoundException;
 import com.katlehouniversity.ecd.repository.ChildRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -19,6 +21,7 @@ import java.util.stream.Collectors;
 public class ChildService {
 
     private final ChildRepository childRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Generate a unique student number in format STU-YYYY-NNN
@@ -116,6 +119,8 @@ public class ChildService {
                 .build();
 
         child = childRepository.save(child);
+        eventPublisher.publishEvent(ChildChangedEvent.between(child.getId(), false, null,
+                isActive(child), child.getMonthlyFee()));
         log.info("Student created successfully with id: {} and student number: {}", child.getId(), child.getStudentNumber());
 
         return toDto(child);
@@ -127,6 +132,8 @@ public class ChildService {
 
         Child child = childRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Student not found with id: " + id));
+        boolean activeBefore = isActive(child);
+        BigDecimal feeBefore = child.getMonthlyFee();
 
         child.setFirstName(dto.getFirstName());
         child.setLastName(dto.getLastName());
@@ -151,6 +158,8 @@ public class ChildService {
         child.setNotes(dto.getNotes());
 
         child = childRepository.save(child);
+        eventPublisher.publishEvent(ChildChangedEvent.between(child.getId(), activeBefore, feeBefore,
+                isActive(child), child.getMonthlyFee()));
         log.info("Student updated successfully: {}", id);
 
         return toDto(child);
@@ -162,9 +171,12 @@ public class ChildService {
 
         Child child = childRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Student not found with id: " + id));
+        boolean activeBefore = isActive(child);
 
         child.setStatus(Child.StudentStatus.WITHDRAWN);
         childRepository.save(child);
+        eventPublisher.publishEvent(ChildChangedEvent.between(child.getId(), activeBefore, child.getMonthlyFee(),
+                false, child.getMonthlyFee()));
 
         log.info("Student withdrawn successfully: {}", id);
     }
@@ -174,6 +186,10 @@ public class ChildService {
         return childRepository.countActiveChildren();
     }
 
+    private static boolean isActive(Child child) {
+        return child.getStatus() == Child.StudentStatus.ACTIVE;
+    }
+
     private ChildDto toDto(Child child) {
         return ChildDto.builder()
                 .id(child.getId())
@@ -1,17 +1,22 @@
 package com.katlehouniversity.ecd.service;
 
+import com.katlehouniversity.ecd.dto.ArrearsAgingRowDto;
 import com.katlehouniversity.ecd.dto.MonthlyReportDto;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.Month;
+import java.time.YearMonth;
 import java.time.format.TextStyle;
 import java.util.List;
 import java.util.Locale;
+import java.util.function.Consumer;
 
 /**
  * Service for generating Excel reports from monthly report data
@@ -21,54 +26,145 @@ import java.util.Locale;
 public class ExcelExportService {
 
     /**
-     * Generate Excel report for monthly payment data
+     * Rows kept in memory per sheet; older rows are flushed to a compressed temp file
+     */
+    private static final int ROW_ACCESS_WINDOW = 100;
+
+    /**
+     * Write the Excel report for monthly payment data to the given stream.
+     * The workbook is streamed (SXSSF), so memory use is bounded by the row window
+     * rather than by the number of students.
      *
-     * @param report Monthly report data
-     * @param month  Month number (1-12)
-     * @param year   Year
-     * @return Excel file as byte array
+     * @param report       Monthly report data
+     * @param month        Month number (1-12)
+     * @param year         Year
+     * @param outputStream Destination, typically the HTTP response body; not closed
      */
-    public byte[] generateMonthlyReportExcel(MonthlyReportDto report, int month, int year) {
+    public void writeMonthlyReportExcel(MonthlyReportDto report, int month, int year, OutputStream outputStream) {
         log.info("Generating Excel report for {}/{}", month, year);
 
-        try (Workbook workbook = new XSSFWorkbook();
-             ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            ReportStyles styles = new ReportStyles(workbook);
 
             // Create summary sheet
-            Sheet summarySheet = workbook.createSheet("Summary");
-            createSummarySheet(summarySheet, report, month, year, workbook);
+            SXSSFSheet summarySheet = workbook.createSheet("Summary");
+            createSummarySheet(summarySheet, report, month, year, styles);
 
             // Create paid students sheet
-            Sheet paidSheet = workbook.createSheet("Paid Students");
-            createPaidStudentsSheet(paidSheet, report.getPaidChildren(), workbook);
+            SXSSFSheet paidSheet = workbook.createSheet("Paid Students");
+            createPaidStudentsSheet(paidSheet, report.getPaidChildren(), styles);
 
             // Create owing students sheet
-            Sheet owingSheet = workbook.createSheet("Owing Students");
-            createOwingStudentsSheet(owingSheet, report.getOwingChildren(), workbook);
+            SXSSFSheet owingSheet = workbook.createSheet("Owing Students");
+            createOwingStudentsSheet(owingSheet, report.getOwingChildren(), styles);
 
             workbook.write(outputStream);
-            byte[] excelBytes = outputStream.toByteArray();
-            log.info("Excel report generated successfully. Size: {} bytes", excelBytes.length);
-            return excelBytes;
+            outputStream.flush();
+            log.info("Excel report for {}/{} written ({} paid, {} owing rows)", month, year,
+                    report.getPaidChildren().size(), report.getOwingChildren().size());
 
         } catch (Exception e) {
             log.error("Failed to generate Excel report", e);
             throw new RuntimeException("Excel generation failed: " + e.getMessage(), e);
+        } finally {
+            workbook.dispose();
+            try {
+                workbook.close();
+            } catch (IOException e) {
+                log.warn("Failed to close Excel workbook", e);
+            }
+        }
+    }
+
+    /**
+     * Write the arrears aging report to the given stream as a single-sheet workbook. Rows are
+     * written as the source produces them, so memory use stays bounded by the row window.
+     *
+     * @param from         First month of the range
+     * @param asOf         Month the arrears are aged against
+     * @param rows         Feeds each student in arrears to the consumer it is given
+     * @param outputStream Destination, typically the HTTP response body; not closed
+     */
+    public void writeArrearsExcel(YearMonth from, YearMonth asOf, Consumer<Consumer<ArrearsAgingRowDto>> rows,
+                                  OutputStream outputStream) {
+        log.info("Generating arrears Excel report for {} to {}", from, asOf);
+
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            ReportStyles styles = new ReportStyles(workbook);
+            SXSSFSheet sheet = workbook.createSheet("Arrears");
+            sheet.trackAllColumnsForAutoSizing();
+
+            Row titleRow = sheet.createRow(0);
+            Cell titleCell = titleRow.createCell(0);
+            titleCell.setCellValue("Arrears Aging - " + from + " to " + asOf);
+            titleCell.setCellStyle(styles.title);
+
+            Row headerRow = sheet.createRow(2);
+            String[] headers = {"Student Number", "Name", "Student Reference", "Monthly Fee", "Current",
+                    "30 Days", "60 Days", "90+ Days", "Total Owed", "Months Owing", "Oldest Unpaid Month"};
+            for (int i = 0; i < headers.length; i++) {
+                Cell cell = headerRow.createCell(i);
+                cell.setCellValue(headers[i]);
+                cell.setCellStyle(styles.header);
+            }
+
+            int[] rowNum = {3};
+            rows.accept(child -> {
+                Row row = sheet.createRow(rowNum[0]++);
+                row.createCell(0).setCellValue(child.getStudentNumber());
+                row.createCell(1).setCellValue(child.getFullName());
+                row.createCell(2).setCellValue(child.getPaymentReference());
+                createCurrencyCell(row, 3, child.getMonthlyFee(), styles.currency);
+                createCurrencyCell(row, 4, child.getCurrent(), styles.currency);
+                createCurrencyCell(row, 5, child.getDays30(), styles.currency);
+                createCurrencyCell(row, 6, child.getDays60(), styles.currency);
+                createCurrencyCell(row, 7, child.getDays90Plus(), styles.warningCurrency);
+                createCurrencyCell(row, 8, child.getTotalOwed(), styles.warningCurrency);
+                row.createCell(9).setCellValue(child.getMonthsOwing());
+                row.createCell(10).setCellValue(child.getOldestUnpaidPeriod());
+            });
+
+            for (int i = 0; i < headers.length; i++) {
+                sheet.autoSizeColumn(i);
+            }
+
+            workbook.write(outputStream);
+            outputStream.flush();
+            log.info("Arrears Excel report written ({} students)", rowNum[0] - 3);
+
+        } catch (Exception e) {
+            log.error("Failed to generate arrears Excel report", e);
+            throw new RuntimeException("Excel generation failed: " + e.getMessage(), e);
+        } finally {
+            workbook.dispose();
+            try {
+                workbook.close();
+            } catch (IOException e) {
+                log.warn("Failed to close Excel workbook", e);
+            }
         }
     }
 
+    private void createCurrencyCell(Row row, int column, BigDecimal value, CellStyle currencyStyle) {
+        Cell cell = row.createCell(column);
+        cell.setCellValue(value != null ? value.doubleValue() : 0.0);
+        cell.setCellStyle(currencyStyle);
+    }
+
     /**
      * Create summary sheet with overall statistics
      */
-    private void createSummarySheet(Sheet sheet, MonthlyReportDto report, int month, int year, Workbook workbook) {
+    private void createSummarySheet(SXSSFSheet sheet, MonthlyReportDto report, int month, int year, ReportStyles styles) {
         String monthName = Month.of(month).getDisplayName(TextStyle.FULL, Locale.ENGLISH);
 
-        // Create styles
-        CellStyle headerStyle = createHeaderStyle(workbook);
-        CellStyle titleStyle = createTitleStyle(workbook);
-        CellStyle labelStyle = createLabelStyle(workbook);
-        CellStyle valueStyle = createValueStyle(workbook);
-        CellStyle currencyStyle = createCurrencyStyle(workbook);
+        CellStyle titleStyle = styles.title;
+        CellStyle labelStyle = styles.label;
+        CellStyle valueStyle = styles.value;
+        CellStyle currencyStyle = styles.currency;
 
         int rowNum = 0;
 
@@ -110,9 +206,6 @@ public class ExcelExportService {
             valueCell.setCellStyle(valueStyle);
         }
 
-        // Auto-size columns
-        sheet.autoSizeColumn(0);
-        sheet.autoSizeColumn(1);
         sheet.setColumnWidth(0, 6000);
         sheet.setColumnWidth(1, 4000);
     }
@@ -120,9 +213,12 @@ public class ExcelExportService {
     /**
      * Create paid students sheet
      */
-    private void createPaidStudentsSheet(Sheet sheet, List<MonthlyReportDto.ChildPaymentStatus> paidChildren, Workbook workbook) {
-        CellStyle headerStyle = createHeaderStyle(workbook);
-        CellStyle currencyStyle = createCurrencyStyle(workbook);
+    private void createPaidStudentsSheet(SXSSFSheet sheet, List<MonthlyReportDto.ChildPaymentStatus> paidChildren, ReportStyles styles) {
+        CellStyle headerStyle = styles.header;
+        CellStyle currencyStyle = styles.currency;
+
+        // Widths are tracked as rows stream past, since flushed rows can no longer be measured
+        sheet.trackAllColumnsForAutoSizing();
 
         // Header row
         Row headerRow = sheet.createRow(0);
@@ -163,10 +259,13 @@ public class ExcelExportService {
     /**
      * Create owing students sheet
      */
-    private void createOwingStudentsSheet(Sheet sheet, List<MonthlyReportDto.ChildPaymentStatus> owingChildren, Workbook workbook) {
-        CellStyle headerStyle = createHeaderStyle(workbook);
-        CellStyle currencyStyle = createCurrencyStyle(workbook);
-        CellStyle warningCurrencyStyle = createWarningCurrencyStyle(workbook);
+    private void createOwingStudentsSheet(SXSSFSheet sheet, List<MonthlyReportDto.ChildPaymentStatus> owingChildren, ReportStyles styles) {
+        CellStyle headerStyle = styles.header;
+        CellStyle currencyStyle = styles.currency;
+        CellStyle warningCurrencyStyle = styles.warningCurrency;
+
+        // Widths are tracked as rows stream past, since flushed rows can no longer be measured
+        sheet.trackAllColumnsForAutoSizing();
 
         // Header row
         Row headerRow = sheet.createRow(0);
@@ -237,10 +336,32 @@ public class ExcelExportService {
         valueCell.setCellStyle(currencyStyle);
     }
 
+    /**
+     * Cell styles shared by all sheets. A workbook holds a limited number of styles,
+     * so each one is created once per workbook rather than once per sheet.
+     */
+    private static final class ReportStyles {
+        private final CellStyle header;
+        private final CellStyle title;
+        private final CellStyle label;
+        private final CellStyle value;
+        private final CellStyle currency;
+        private final CellStyle warningCurrency;
+
+        private ReportStyles(Workbook workbook) {
+            this.header = createHeaderStyle(workbook);
+            this.title = createTitleStyle(workbook);
+            this.label = createLabelStyle(workbook);
+            this.value = createValueStyle(workbook);
+            this.currency = createCurrencyStyle(workbook);
+            this.warningCurrency = createWarningCurrencyStyle(workbook);
+        }
+    }
+
     /**
      * Create header cell style (blue background, white text, bold)
      */
-    private CellStyle createHeaderStyle(Workbook workbook) {
+    private static CellStyle createHeaderStyle(Workbook workbook) {
         CellStyle style = workbook.createCellStyle();
         Font font = workbook.createFont();
         font.setBold(true);
@@ -257,7 +378,7 @@ public class ExcelExportService {
     /**
      * Create title style (large, bold)
      */
-    private CellStyle createTitleStyle(Workbook workbook) {
+    private static CellStyle createTitleStyle(Workbook workbook) {
         CellStyle style = workbook.createCellStyle();
         Font font = workbook.createFont();
         font.setBold(true);
@@ -270,7 +391,7 @@ public class ExcelExportService {
     /**
      * Create label style (bold)
      */
-    private CellStyle createLabelStyle(Workbook workbook) {
+    private static CellStyle createLabelStyle(Workbook workbook) {
         CellStyle style = workbook.createCellStyle();
         Font font = workbook.createFont();
         font.setBold(true);
@@ -281,7 +402,7 @@ public class ExcelExportService {
     /**
      * Create value style (regular)
      */
-    private CellStyle createValueStyle(Workbook workbook) {
+    private static CellStyle createValueStyle(Workbook workbook) {
         CellStyle style = workbook.createCellStyle();
         return style;
     }
@@ -289,7 +410,7 @@ public class ExcelExportService {
     /**
      * Create currency style (currency format)
      */
-    private CellStyle createCurrencyStyle(Workbook workbook) {
+    private static CellStyle createCurrencyStyle(Workbook workbook) {
         CellStyle style = workbook.createCellStyle();
         DataFormat format = workbook.createDataFormat();
         style.setDataFormat(format.getFormat("R #,##0.00"));
@@ -299,7 +420,7 @@ public class ExcelExportService {
     /**
      * Create warning currency style (red text for outstanding amounts)
      */
-    private CellStyle createWarningCurrencyStyle(Workbook workbook) {
+    private static CellStyle createWarningCurrencyStyle(Workbook workbook) {
         CellStyle style = createCurrencyStyle(workbook);
         Font font = workbook.createFont();
         font.setColor(IndexedColors.RED.getIndex());
@@ -0,0 +1,264 @@
+package com.katlehouniversity.ecd.service;
+
+import com.katlehouniversity.ecd.dto.MonthlyCollectionSummaryDto;
+import com.katlehouniversity.ecd.entity.MonthlyCollectionSummary;
+import com.katlehouniversity.ecd.entity.Payment;
+import com.katlehouniversity.ecd.repository.ChildRepository;
+import com.katlehouniversity.ecd.repository.MonthlyCollectionSummaryRepository;
+import com.katlehouniversity.ecd.repository.PaymentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * Maintains {@link MonthlyCollectionSummary} rows.
+ *
+ * Payment writers publish {@link PaymentChangedEvent} and {@link ChildService} publishes
+ * {@link ChildChangedEvent}, each carrying what the change adds to the totals. The changes are
+ * summed per transaction and applied just before it commits with one atomic UPDATE per month,
+ * plus one over all months when fees or statuses changed. A summary therefore never disagrees
+ * with committed payments, concurrent writers of a month only wait for each other's commit, and
+ * no aggregate query runs on the write path. A month's row is calculated from the payments and
+ * students tables once, when it is first read or written, and again only on demand.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MonthlyCollectionSummaryService {
+
+    private final MonthlyCollectionSummaryRepository summaryRepository;
+    private final ChildRepository childRepository;
+    private final PaymentRepository paymentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @EventListener
+    public void onPaymentChanged(PaymentChangedEvent event) {
+        if (!event.changesTotals()) {
+            return;
+        }
+        YearMonth period = YearMonth.of(event.getPaymentYear(), event.getPaymentMonth());
+        addChanges(changes -> changes.addCollected(period, event.getCollectedDelta(), event.getPaidCountDelta()));
+    }
+
+    @EventListener
+    public void onChildChanged(ChildChangedEvent event) {
+        // Names, contacts and the like do not feed the totals
+        if (!event.changesTotals()) {
+            return;
+        }
+
+        addChanges(changes -> {
+            changes.addExpected(event.getExpectedFeesDelta(), event.getActiveDelta());
+            if (event.getActiveDelta() != 0) {
+                // The student's payments join or leave the collected totals of their months
+                BigDecimal sign = BigDecimal.valueOf(event.getActiveDelta());
+                for (Payment payment : paymentRepository.findByChildId(event.getChildId())) {
+                    changes.addCollected(YearMonth.of(payment.getPaymentYear(), payment.getPaymentMonth()),
+                            payment.getAmountPaid().multiply(sign),
+                            payment.isFullyPaid() ? event.getActiveDelta() : 0);
+                }
+            }
+        });
+    }
+
+    /**
+     * Summary for a month, calculated and stored on first access.
+     */
+    public MonthlyCollectionSummaryDto getSummary(Integer month, Integer year) {
+        YearMonth period = YearMonth.of(year, month);
+        Optional<MonthlyCollectionSummary> summary = summaryRepository.findByPaymentYearAndPaymentMonth(year, month);
+        if (summary.isEmpty()) {
+            createSummary(period);
+            summary = summaryRepository.findByPaymentYearAndPaymentMonth(year, month);
+        }
+        return toDto(summary.orElseThrow(() -> new IllegalStateException("Missing collection summary for " + period)));
+    }
+
+    public MonthlyCollectionSummaryDto getCurrentMonthSummary() {
+        YearMonth currentMonth = YearMonth.now();
+        return getSummary(currentMonth.getMonthValue(), currentMonth.getYear());
+    }
+
+    /**
+     * Recalculate one month from the payments and students tables.
+     */
+    public MonthlyCollectionSummaryDto recalculate(Integer month, Integer year) {
+        YearMonth period = YearMonth.of(year, month);
+        return toDto(transactionTemplate.execute(status -> {
+            if (summaryRepository.findByPaymentYearAndPaymentMonth(year, month).isEmpty()) {
+                createSummary(period);
+            }
+
+            // The row lock makes concurrent writers of the month wait, and the aggregates
+            // see everything committed before the lock was granted
+            MonthlyCollectionSummary summary = summaryRepository.findForUpdate(year, month)
+                    .orElseThrow(() -> new IllegalStateException("Missing collection summary for " + period));
+            return summaryRepository.save(calculate(summary, period));
+        }));
+    }
+
+    /**
+     * Recalculate every stored month plus the current one, each in its own transaction.
+     */
+    public List<MonthlyCollectionSummaryDto> recalculateAll() {
+        Set<YearMonth> periods = new TreeSet<>();
+        periods.add(YearMonth.now());
+        for (MonthlyCollectionSummary summary : summaryRepository.findAllByOrderByPaymentYearAscPaymentMonthAsc()) {
+            periods.add(YearMonth.of(summary.getPaymentYear(), summary.getPaymentMonth()));
+        }
+
+        log.info("Recalculating monthly collection summaries for {} months", periods.size());
+        return periods.stream()
+                .map(period -> recalculate(period.getMonthValue(), period.getYear()))
+                .toList();
+    }
+
+    private void addChanges(Consumer<PendingChanges> changes) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            PendingChanges immediate = new PendingChanges();
+            changes.accept(immediate);
+            transactionTemplate.executeWithoutResult(status -> immediate.apply());
+            return;
+        }
+        changes.accept(pendingChanges());
+    }
+
+    private PendingChanges pendingChanges() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingChanges pending) {
+                return pending;
+            }
+        }
+        PendingChanges pending = new PendingChanges();
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        return pending;
+    }
+
+    private void applyCollected(YearMonth period, BigDecimal collected, long paid) {
+        if (summaryRepository.addCollected(period.getYear(), period.getMonthValue(), collected, paid) > 0) {
+            return;
+        }
+
+        // First write to the month: its row is calculated from what is committed, which does not
+        // include this transaction's changes yet, and they are added to it
+        createSummary(period);
+        if (summaryRepository.addCollected(period.getYear(), period.getMonthValue(), collected, paid) == 0) {
+            throw new IllegalStateException("Missing collection summary for " + period);
+        }
+    }
+
+    /**
+     * Calculate the month's row and insert it in its own transaction, so concurrent first
+     * writers cannot fail each other's commit on the unique (year, month) constraint.
+     */
+    private void createSummary(YearMonth period) {
+        TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            requiresNew.executeWithoutResult(status -> summaryRepository.saveAndFlush(calculate(
+                    MonthlyCollectionSummary.builder()
+                            .paymentYear(period.getYear())
+                            .paymentMonth(period.getMonthValue())
+                            .build(),
+                    period)));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Collection summary for {} created concurrently", period);
+        }
+    }
+
+    private MonthlyCollectionSummary calculate(MonthlyCollectionSummary summary, YearMonth period) {
+        ChildRepository.ActiveFeeTotalsView fees = childRepository.getActiveFeeTotals();
+        PaymentRepository.MonthCollectionView collection =
+                paymentRepository.getActiveCollectionForMonth(period.getMonthValue(), period.getYear());
+
+        summary.setTotalExpected(fees.getTotalFees());
+        summary.setActiveChildren(fees.getActiveChildren());
+        summary.setTotalCollected(collection.getTotalCollected());
+        summary.setPaidCount(collection.getPaidCount());
+        summary.setOwingCount(fees.getActiveChildren() - collection.getPaidCount());
+        summary.setRecalculatedAt(LocalDateTime.now());
+        summary.setRevision(summary.getRevision() + 1);
+        return summary;
+    }
+
+    private MonthlyCollectionSummaryDto toDto(MonthlyCollectionSummary summary) {
+        return MonthlyCollectionSummaryDto.builder()
+                .month(summary.getPaymentMonth())
+                .year(summary.getPaymentYear())
+                .period(YearMonth.of(summary.getPaymentYear(), summary.getPaymentMonth()).toString())
+                .totalExpected(summary.getTotalExpected())
+                .totalCollected(summary.getTotalCollected())
+                .totalOutstanding(summary.getTotalOutstanding())
+                .totalChildren(summary.getActiveChildren())
+                .paidCount(summary.getPaidCount())
+                .owingCount(summary.getOwingCount())
+                .recalculatedAt(summary.getRecalculatedAt())
+                .build();
+    }
+
+    /**
+     * Changes to the totals made by the current transaction, applied once just before commit.
+     * Kept as a synchronization rather than a bound resource so transactions suspended by
+     * REQUIRES_NEW keep their own changes.
+     */
+    private class PendingChanges implements TransactionSynchronization {
+
+        private final Map<YearMonth, MonthChange> months = new TreeMap<>();
+        private BigDecimal expectedFees = BigDecimal.ZERO;
+        private long activeChildren;
+
+        void addCollected(YearMonth period, BigDecimal collected, long paid) {
+            MonthChange change = months.computeIfAbsent(period, p -> new MonthChange());
+            change.collected = change.collected.add(collected);
+            change.paid += paid;
+        }
+
+        void addExpected(BigDecimal fees, long children) {
+            expectedFees = expectedFees.add(fees);
+            activeChildren += children;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            apply();
+        }
+
+        void apply() {
+            // Ascending order so two transactions never wait on each other's summary rows.
+            // Months first, so a row created here for its first write also gets the fee change.
+            for (Map.Entry<YearMonth, MonthChange> entry : months.entrySet()) {
+                MonthChange change = entry.getValue();
+                if (change.collected.signum() != 0 || change.paid != 0) {
+                    applyCollected(entry.getKey(), change.collected, change.paid);
+                }
+            }
+            if (expectedFees.signum() != 0 || activeChildren != 0) {
+                summaryRepository.addExpected(expectedFees, activeChildren);
+            }
+        }
+    }
+
+    private static class MonthChange {
+        private BigDecimal collected = BigDecimal.ZERO;
+        private long paid;
+    }
+}
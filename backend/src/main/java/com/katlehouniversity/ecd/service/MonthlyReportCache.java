@@ -0,0 +1,116 @@
+package com.katlehouniversity.ecd.service;
+
+import com.katlehouniversity.ecd.dto.MonthlyReportDto;
+import com.katlehouniversity.ecd.repository.MonthlyCollectionSummaryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generated monthly reports, kept until the data behind them changes.
+ *
+ * A cached report is tied to the revision of its month's {@code MonthlyCollectionSummary} row,
+ * which is bumped in the same transaction as every payment or student change that moves the
+ * month's totals, so a change committed by any instance makes the report stale. The revision is
+ * read before the report is generated, so a change committed mid-generation is never hidden.
+ * Committed {@link PaymentChangedEvent}s and {@link ChildChangedEvent}s of this instance also
+ * invalidate at once changes that leave the totals alone, such as a renamed student; the same
+ * changes made by other instances are picked up when the report expires after
+ * reports.cache.ttl-seconds. Each generated report gets its own strong ETag, prefixed with the
+ * startup time so tags issued before a restart never match.
+ */
+@Service
+@Slf4j
+public class MonthlyReportCache {
+
+    private static final long NO_SUMMARY = -1;
+
+    private final ReportService reportService;
+    private final MonthlyCollectionSummaryRepository summaryRepository;
+    private final int maxMonths;
+    private final Duration ttl;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile long childVersion;
+    private final Map<YearMonth, Long> monthVersions = new ConcurrentHashMap<>();
+    private final Map<YearMonth, CachedReport> reports;
+
+    /**
+     * A report with its ETag and the versions it was generated at.
+     */
+    public record CachedReport(MonthlyReportDto report, String eTag, long revision, long localVersion,
+                               LocalDateTime generatedAt) {
+    }
+
+    public MonthlyReportCache(ReportService reportService,
+                              MonthlyCollectionSummaryRepository summaryRepository,
+                              @Value("${reports.cache.max-months:24}") int maxMonths,
+                              @Value("${reports.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.reportService = reportService;
+        this.summaryRepository = summaryRepository;
+        this.maxMonths = maxMonths;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.reports = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<YearMonth, CachedReport> eldest) {
+                return size() > MonthlyReportCache.this.maxMonths;
+            }
+        };
+    }
+
+    /**
+     * The month's report, generated only if the cached one is missing, out of date or expired.
+     */
+    public CachedReport get(Integer month, Integer year) {
+        YearMonth period = YearMonth.of(year, month);
+        long localVersion = versionOf(period);
+        long revision = summaryRepository.findRevision(year, month).orElse(NO_SUMMARY);
+        LocalDateTime now = LocalDateTime.now();
+
+        CachedReport cached;
+        synchronized (reports) {
+            cached = reports.get(period);
+        }
+        if (cached != null && cached.revision() == revision && cached.localVersion() == localVersion
+                && !cached.generatedAt().plus(ttl).isBefore(now)) {
+            return cached;
+        }
+
+        CachedReport generated = new CachedReport(reportService.generateMonthlyReport(month, year),
+                eTagFor(period, sequence.incrementAndGet()), revision, localVersion, now);
+        synchronized (reports) {
+            reports.put(period, generated);
+        }
+        return generated;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPaymentChanged(PaymentChangedEvent event) {
+        monthVersions.put(YearMonth.of(event.getPaymentYear(), event.getPaymentMonth()), sequence.incrementAndGet());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onChildChanged(ChildChangedEvent event) {
+        log.debug("Student {} changed, invalidating cached reports", event.getChildId());
+        childVersion = sequence.incrementAndGet();
+    }
+
+    private long versionOf(YearMonth period) {
+        return Math.max(childVersion, monthVersions.getOrDefault(period, 0L));
+    }
+
+    private String eTagFor(YearMonth period, long generation) {
+        return "\"report-" + period + "-" + epoch + "-" + generation + "\"";
+    }
+}
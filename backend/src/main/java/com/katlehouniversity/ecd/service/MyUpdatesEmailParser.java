@@ -1,6 +1,7 @@
 package com.katlehouniversity.ecd.service;
 
 import com.katlehouniversity.ecd.dto.ParsedEmailNotification;
+import com.katlehouniversity.ecd.util.StatementFieldParser;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
@@ -10,74 +11,47 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.Base64;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
  * Service to parse Standard Bank MyUpdates email notifications.
- * Extracts transaction details using regex patterns.
+ * Extracts transaction details with a single label-driven scan over the email body.
+ *
+ * The scanner reproduces what the original per-field regexes matched:
+ * <ul>
+ *   <li>{@code Date:} dd/MM/yyyy, dd-MM-yyyy or yyyy-MM-dd</li>
+ *   <li>{@code Amount:} / {@code Balance:} (optionally {@code New Balance:}) with an optional R prefix</li>
+ *   <li>{@code Reference:} up to the end of line or the next Date/Amount/Balance label</li>
+ *   <li>{@code Description:} up to the end of line or the next Date/Amount/Reference label</li>
+ *   <li>{@code From:} / {@code Sender:} up to the end of line</li>
+ *   <li>credit/debit keywords as whole words in the body or subject</li>
+ * </ul>
+ * Labels are matched ASCII case-insensitively anywhere in the text, and for each field the
+ * first label whose value is well-formed wins. Word boundaries count only ASCII letters, digits
+ * and underscore as word characters, which is what {@code \b} means from JDK 19 on; on older
+ * JDKs {@code \b} also treated other Unicode letters as word characters.
  */
 @Service
 @Slf4j
 public class MyUpdatesEmailParser {
 
-    // Regex patterns for Standard Bank email format
-    // Matches: "Date: 15/01/2025" or "Date: 2025-01-15" or "Date:15/01/2025"
-    private static final Pattern DATE_PATTERN = Pattern.compile(
-        "Date:\\s*(\\d{2}[/-]\\d{2}[/-]\\d{4}|\\d{4}-\\d{2}-\\d{2})",
-        Pattern.CASE_INSENSITIVE
-    );
-
-    // Matches: "Amount: R 1,500.00" or "Amount: 1500.00" or "Amount:R1,500.00"
-    private static final Pattern AMOUNT_PATTERN = Pattern.compile(
-        "Amount:\\s*R?\\s*([\\d,]+\\.\\d{2})",
-        Pattern.CASE_INSENSITIVE
-    );
-
-    // Matches: "Reference: STU-2025-001 January Fee" (captures everything until newline or specific delimiters)
-    private static final Pattern REFERENCE_PATTERN = Pattern.compile(
-        "Reference:\\s*(.+?)(?=\\n|\\r|$|Date:|Amount:|Balance:)",
-        Pattern.CASE_INSENSITIVE | Pattern.DOTALL
-    );
-
-    // Matches: "Balance: R 45,230.50" or "New Balance: 45230.50"
-    private static final Pattern BALANCE_PATTERN = Pattern.compile(
-        "(?:New )?Balance:\\s*R?\\s*([\\d,]+\\.\\d{2})",
-        Pattern.CASE_INSENSITIVE
-    );
-
-    // Matches: "Description: Payment received" or similar
-    private static final Pattern DESCRIPTION_PATTERN = Pattern.compile(
-        "Description:\\s*(.+?)(?=\\n|\\r|$|Date:|Amount:|Reference:)",
-        Pattern.CASE_INSENSITIVE | Pattern.DOTALL
-    );
-
-    // Matches: "From: John Doe" or "Sender: Jane Smith"
-    private static final Pattern SENDER_NAME_PATTERN = Pattern.compile(
-        "(?:From|Sender):\\s*(.+?)(?=\\n|\\r|$)",
-        Pattern.CASE_INSENSITIVE
-    );
-
-    // Matches transaction type indicators
-    private static final Pattern CREDIT_PATTERN = Pattern.compile(
-        "\\b(credit|deposit|received|payment received)\\b",
-        Pattern.CASE_INSENSITIVE
-    );
-
-    private static final Pattern DEBIT_PATTERN = Pattern.compile(
-        "\\b(debit|withdrawal|payment sent)\\b",
-        Pattern.CASE_INSENSITIVE
-    );
-
-    // Date formatters
-    private static final DateTimeFormatter[] DATE_FORMATTERS = {
-        DateTimeFormatter.ofPattern("dd/MM/yyyy"),
-        DateTimeFormatter.ofPattern("yyyy-MM-dd"),
-        DateTimeFormatter.ofPattern("dd-MM-yyyy")
-    };
+    private static final Pattern STUDENT_NUMBER_PATTERN = Pattern.compile("STU-\\d{4}-\\d{3}");
+
+    private static final String DATE_LABEL = "date:";
+    private static final String AMOUNT_LABEL = "amount:";
+    private static final String REFERENCE_LABEL = "reference:";
+    private static final String BALANCE_LABEL = "balance:";
+    private static final String DESCRIPTION_LABEL = "description:";
+    private static final String FROM_LABEL = "from:";
+    private static final String SENDER_LABEL = "sender:";
+
+    private static final String[] REFERENCE_TERMINATORS = {DATE_LABEL, AMOUNT_LABEL, BALANCE_LABEL};
+    private static final String[] DESCRIPTION_TERMINATORS = {DATE_LABEL, AMOUNT_LABEL, REFERENCE_LABEL};
+
+    private static final String[] CREDIT_KEYWORDS = {"credit", "deposit", "received"};
+    private static final String[] DEBIT_KEYWORDS = {"debit", "withdrawal", "payment sent"};
 
     /**
      * Parse Standard Bank MyUpdates email notification
@@ -100,8 +74,10 @@ public class MyUpdatesEmailParser {
         }
 
         try {
+            EmailFields fields = scan(emailBody);
+
             // Extract transaction date
-            LocalDateTime transactionDate = extractDate(emailBody);
+            LocalDateTime transactionDate = fields.transactionDate;
             if (transactionDate != null) {
                 notification.setTransactionDate(transactionDate);
             } else {
@@ -109,7 +85,7 @@ public class MyUpdatesEmailParser {
             }
 
             // Extract amount
-            BigDecimal amount = extractAmount(emailBody);
+            BigDecimal amount = fields.amount;
             if (amount != null) {
                 notification.setAmount(amount);
             } else {
@@ -117,23 +93,21 @@ public class MyUpdatesEmailParser {
             }
 
             // Extract reference
-            String reference = extractReference(emailBody);
-            if (reference != null && !reference.trim().isEmpty()) {
-                notification.setReference(reference.trim());
+            String reference = fields.reference;
+            if (reference != null && !reference.isEmpty()) {
+                notification.setReference(reference);
             } else {
                 log.warn("Could not extract reference from email");
             }
 
             // Extract balance
-            BigDecimal balance = extractBalance(emailBody);
-            if (balance != null) {
-                notification.setBalance(balance);
+            if (fields.balance != null) {
+                notification.setBalance(fields.balance);
             }
 
             // Extract description
-            String description = extractDescription(emailBody);
-            if (description != null && !description.trim().isEmpty()) {
-                notification.setDescription(description.trim());
+            if (fields.description != null && !fields.description.isEmpty()) {
+                notification.setDescription(fields.description);
             } else {
                 // Fallback: use subject or first 100 chars of body
                 notification.setDescription(
@@ -142,14 +116,14 @@ public class MyUpdatesEmailParser {
             }
 
             // Extract sender name (optional)
-            String senderName = extractSenderName(emailBody);
-            if (senderName != null) {
-                notification.setSenderName(senderName.trim());
+            if (fields.senderName != null) {
+                notification.setSenderName(fields.senderName);
             }
 
             // Detect transaction type
-            String transactionType = detectTransactionType(emailBody, emailSubject);
-            notification.setTransactionType(transactionType);
+            boolean credit = fields.creditKeyword || (emailSubject != null && containsWord(emailSubject, CREDIT_KEYWORDS));
+            boolean debit = fields.debitKeyword || (emailSubject != null && containsWord(emailSubject, DEBIT_KEYWORDS));
+            notification.setTransactionType(!credit && debit ? "DEBIT" : "CREDIT"); // Default to credit for payment reconciliation
 
             // Validate required fields
             boolean isValid = validateNotification(notification);
@@ -171,84 +145,341 @@ public class MyUpdatesEmailParser {
         return notification;
     }
 
-    private LocalDateTime extractDate(String text) {
-        Matcher matcher = DATE_PATTERN.matcher(text);
-        if (matcher.find()) {
-            String dateStr = matcher.group(1);
-            for (DateTimeFormatter formatter : DATE_FORMATTERS) {
-                try {
-                    LocalDate date = LocalDate.parse(dateStr, formatter);
-                    return date.atStartOfDay(); // Default to midnight
-                } catch (DateTimeParseException ignored) {
-                    // Try next formatter
+    /**
+     * Walk the body once, trying every label and keyword at each position.
+     * Stops early once every field and a credit keyword have been found.
+     */
+    private EmailFields scan(String text) {
+        EmailFields fields = new EmailFields();
+        int length = text.length();
+
+        for (int i = 0; i < length && !fields.isComplete(); i++) {
+            char c = toLowerAscii(text.charAt(i));
+
+            switch (c) {
+                case 'd' -> {
+                    if (!fields.dateFound && regionMatches(text, i, DATE_LABEL)) {
+                        int valueStart = matchDateValue(text, i + DATE_LABEL.length());
+                        if (valueStart >= 0) {
+                            fields.transactionDate = toDate(text, valueStart);
+                            fields.dateFound = true;
+                        }
+                    }
+                    if (!fields.descriptionFound && regionMatches(text, i, DESCRIPTION_LABEL)) {
+                        int[] bounds = matchLabelledText(text, i + DESCRIPTION_LABEL.length(), DESCRIPTION_TERMINATORS);
+                        if (bounds != null) {
+                            fields.description = trimmedSubstring(text, bounds[0], bounds[1]);
+                            fields.descriptionFound = true;
+                        }
+                    }
+                }
+                case 'a' -> {
+                    if (fields.amount == null && regionMatches(text, i, AMOUNT_LABEL)) {
+                        fields.amount = parseMoneyValue(text, i + AMOUNT_LABEL.length());
+                    }
+                }
+                case 'b' -> {
+                    if (fields.balance == null && regionMatches(text, i, BALANCE_LABEL)) {
+                        fields.balance = parseMoneyValue(text, i + BALANCE_LABEL.length());
+                    }
+                }
+                case 'r' -> {
+                    if (!fields.referenceFound && regionMatches(text, i, REFERENCE_LABEL)) {
+                        int[] bounds = matchLabelledText(text, i + REFERENCE_LABEL.length(), REFERENCE_TERMINATORS);
+                        if (bounds != null) {
+                            fields.reference = trimmedSubstring(text, bounds[0], bounds[1]);
+                            fields.referenceFound = true;
+                        }
+                    }
+                }
+                case 'f', 's' -> {
+                    if (!fields.senderFound) {
+                        String label = c == 'f' ? FROM_LABEL : SENDER_LABEL;
+                        if (regionMatches(text, i, label)) {
+                            int[] bounds = matchLineText(text, i + label.length());
+                            if (bounds != null) {
+                                fields.senderName = trimmedSubstring(text, bounds[0], bounds[1]);
+                                fields.senderFound = true;
+                            }
+                        }
+                    }
+                }
+                default -> {
+                }
+            }
+
+            if (!fields.creditKeyword && isWordStart(text, i)) {
+                if (matchesWordAt(text, i, CREDIT_KEYWORDS)) {
+                    fields.creditKeyword = true;
+                } else if (!fields.debitKeyword && matchesWordAt(text, i, DEBIT_KEYWORDS)) {
+                    fields.debitKeyword = true;
                 }
             }
         }
-        return null;
+
+        return fields;
     }
 
-    private BigDecimal extractAmount(String text) {
-        Matcher matcher = AMOUNT_PATTERN.matcher(text);
-        if (matcher.find()) {
-            String amountStr = matcher.group(1);
-            return parseCurrency(amountStr);
+    /**
+     * Date value after a label: optional whitespace, then dd/MM/yyyy, dd-MM-yyyy or yyyy-MM-dd
+     * (either separator is accepted in the first shape).
+     *
+     * @return start of the date, or -1 if no date follows the label
+     */
+    private int matchDateValue(String text, int pos) {
+        int p = skipWhitespace(text, pos);
+        if (p + 10 > text.length()) {
+            return -1;
         }
-        return null;
+
+        boolean dayFirst = isDigits(text, p, 2) && isDateSeparator(text.charAt(p + 2)) && isDigits(text, p + 3, 2)
+                && isDateSeparator(text.charAt(p + 5)) && isDigits(text, p + 6, 4);
+        boolean yearFirst = isDigits(text, p, 4) && text.charAt(p + 4) == '-' && isDigits(text, p + 5, 2)
+                && text.charAt(p + 7) == '-' && isDigits(text, p + 8, 2);
+        return dayFirst || yearFirst ? p : -1;
     }
 
-    private String extractReference(String text) {
-        Matcher matcher = REFERENCE_PATTERN.matcher(text);
-        if (matcher.find()) {
-            return matcher.group(1).trim();
+    /**
+     * Resolve a matched date. Mixed separators or an impossible month/day give null, as the
+     * formatters did; a day past the month end (up to 31) is clamped like the SMART resolver.
+     */
+    private LocalDateTime toDate(String text, int p) {
+        int day;
+        int month;
+        int year;
+        if (isDigits(text, p, 2) && isDateSeparator(text.charAt(p + 2))) {
+            if (text.charAt(p + 2) != text.charAt(p + 5)) {
+                return null;
+            }
+            day = digitsValue(text, p, 2);
+            month = digitsValue(text, p + 3, 2);
+            year = digitsValue(text, p + 6, 4);
+        } else {
+            year = digitsValue(text, p, 4);
+            month = digitsValue(text, p + 5, 2);
+            day = digitsValue(text, p + 8, 2);
         }
-        return null;
+
+        LocalDate date = StatementFieldParser.resolveDate(year, month, day);
+        return date != null ? date.atStartOfDay() : null; // Default to midnight
     }
 
-    private BigDecimal extractBalance(String text) {
-        Matcher matcher = BALANCE_PATTERN.matcher(text);
-        if (matcher.find()) {
-            String balanceStr = matcher.group(1);
-            return parseCurrency(balanceStr);
+    /**
+     * Money value after a label: optional whitespace, optional R, optional whitespace,
+     * then digits and thousands commas followed by exactly two decimals.
+     */
+    private BigDecimal parseMoneyValue(String text, int pos) {
+        int length = text.length();
+        int p = skipWhitespace(text, pos);
+        if (p < length && toLowerAscii(text.charAt(p)) == 'r') {
+            p = skipWhitespace(text, p + 1);
         }
-        return null;
+
+        int start = p;
+        while (p < length && (isDigit(text.charAt(p)) || text.charAt(p) == ',')) {
+            p++;
+        }
+
+        if (p == start || p + 3 > length || text.charAt(p) != '.'
+                || !isDigit(text.charAt(p + 1)) || !isDigit(text.charAt(p + 2))) {
+            return null;
+        }
+        return StatementFieldParser.parseAmount(text, start, p + 3);
     }
 
-    private String extractDescription(String text) {
-        Matcher matcher = DESCRIPTION_PATTERN.matcher(text);
-        if (matcher.find()) {
-            return matcher.group(1).trim();
+    /**
+     * Free text after a label, spanning lines if the label is followed by blank lines, and ending
+     * at the next line break, the end of the text or one of the terminator labels.
+     *
+     * @return [start, end) of the value, or null if nothing follows the label
+     */
+    private int[] matchLabelledText(String text, int pos, String[] terminators) {
+        int length = text.length();
+        int start = skipWhitespace(text, pos);
+        if (start == length) {
+            // Only whitespace left: the value degenerates to its last character
+            return pos < length ? new int[]{length - 1, length} : null;
         }
-        return null;
+
+        int end = start + 1;
+        while (end < length && !isValueEnd(text, end)) {
+            if (startsWithAny(text, end, terminators)) {
+                break;
+            }
+            end++;
+        }
+        return new int[]{start, end};
     }
 
-    private String extractSenderName(String text) {
-        Matcher matcher = SENDER_NAME_PATTERN.matcher(text);
-        if (matcher.find()) {
-            return matcher.group(1).trim();
+    /**
+     * Single-line text after a label. Leading whitespace (including line breaks) is skipped;
+     * if the rest of the line cannot be consumed the skipped whitespace is retried from the back,
+     * like a greedy {@code \s*} backing off.
+     *
+     * @return [start, end) of the value, or null if no value could be matched
+     */
+    private int[] matchLineText(String text, int pos) {
+        int start = skipWhitespace(text, pos);
+        for (int s = start; s >= pos; s--) {
+            int end = matchLineFrom(text, s);
+            if (end >= 0) {
+                return new int[]{s, end};
+            }
         }
         return null;
     }
 
-    private String detectTransactionType(String emailBody, String emailSubject) {
-        String combinedText = (emailBody + " " + (emailSubject != null ? emailSubject : "")).toLowerCase();
+    private int matchLineFrom(String text, int start) {
+        int length = text.length();
+        if (start >= length || isLineTerminator(text.charAt(start))) {
+            return -1;
+        }
+        for (int end = start + 1; ; end++) {
+            if (end == length || isValueEnd(text, end)) {
+                return end;
+            }
+            if (isLineTerminator(text.charAt(end))) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * True at a line feed, a carriage return, or a final line terminator.
+     */
+    private boolean isValueEnd(String text, int pos) {
+        char c = text.charAt(pos);
+        return c == '\n' || c == '\r' || (pos == text.length() - 1 && isLineTerminator(c));
+    }
+
+    private boolean containsWord(String text, String[] keywords) {
+        for (int i = 0; i < text.length(); i++) {
+            if (isWordStart(text, i) && matchesWordAt(text, i, keywords)) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-        if (CREDIT_PATTERN.matcher(combinedText).find()) {
-            return "CREDIT";
-        } else if (DEBIT_PATTERN.matcher(combinedText).find()) {
-            return "DEBIT";
+    private boolean matchesWordAt(String text, int pos, String[] keywords) {
+        for (String keyword : keywords) {
+            int end = pos + keyword.length();
+            if (regionMatches(text, pos, keyword) && (end == text.length() || !isWordChar(text.charAt(end)))) {
+                return true;
+            }
         }
+        return false;
+    }
 
-        return "CREDIT"; // Default to credit for payment reconciliation
+    private boolean isWordStart(String text, int pos) {
+        return isWordChar(text.charAt(pos)) && (pos == 0 || !isWordChar(text.charAt(pos - 1)));
     }
 
-    private BigDecimal parseCurrency(String amountStr) {
-        try {
-            // Remove commas and spaces
-            String cleaned = amountStr.replace(",", "").replace(" ", "").trim();
-            return new BigDecimal(cleaned);
-        } catch (NumberFormatException e) {
-            log.error("Failed to parse currency: {}", amountStr, e);
-            return null;
+    private boolean startsWithAny(String text, int pos, String[] labels) {
+        for (String label : labels) {
+            if (regionMatches(text, pos, label)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * ASCII case-insensitive comparison against a lower-case literal
+     */
+    private boolean regionMatches(String text, int pos, String lowerLiteral) {
+        if (pos + lowerLiteral.length() > text.length()) {
+            return false;
+        }
+        for (int k = 0; k < lowerLiteral.length(); k++) {
+            if (toLowerAscii(text.charAt(pos + k)) != lowerLiteral.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String trimmedSubstring(String text, int start, int end) {
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return text.substring(start, end);
+    }
+
+    private int skipWhitespace(String text, int pos) {
+        while (pos < text.length() && isRegexWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private boolean isDigits(String text, int pos, int count) {
+        for (int k = 0; k < count; k++) {
+            if (!isDigit(text.charAt(pos + k))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int digitsValue(String text, int pos, int count) {
+        int value = 0;
+        for (int k = 0; k < count; k++) {
+            value = value * 10 + (text.charAt(pos + k) - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDateSeparator(char c) {
+        return c == '/' || c == '-';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * ASCII word character, whatever the running JDK's {@code \b} would say
+     */
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || isDigit(c) || c == '_';
+    }
+
+    private static boolean isRegexWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    private static char toLowerAscii(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    /**
+     * Fields found by {@link #scan(String)}; null when a field is absent
+     */
+    private static final class EmailFields {
+        private LocalDateTime transactionDate;
+        private boolean dateFound;
+        private BigDecimal amount;
+        private String reference;
+        private boolean referenceFound;
+        private BigDecimal balance;
+        private String description;
+        private boolean descriptionFound;
+        private String senderName;
+        private boolean senderFound;
+        private boolean creditKeyword;
+        private boolean debitKeyword;
+
+        private boolean isComplete() {
+            return dateFound && amount != null && referenceFound && balance != null
+                    && descriptionFound && senderFound && creditKeyword;
         }
     }
 
@@ -306,8 +537,7 @@ public class MyUpdatesEmailParser {
         }
 
         // Pattern for student number: STU-YYYY-NNN
-        Pattern studentNumberPattern = Pattern.compile("STU-\\d{4}-\\d{3}");
-        Matcher matcher = studentNumberPattern.matcher(reference);
+        Matcher matcher = STUDENT_NUMBER_PATTERN.matcher(reference);
 
         if (matcher.find()) {
             return matcher.group();
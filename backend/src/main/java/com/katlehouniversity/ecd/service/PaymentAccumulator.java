@@ -0,0 +1,172 @@
+package com.katlehouniversity.ecd.service;
+
+import com.katlehouniversity.ecd.entity.Payment;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Adds a bank credit to a student's monthly payment in a single upsert statement.
+ *
+ * The row for (child, month, year) is created if missing, otherwise its amount is incremented
+ * and its status recomputed by the database, so concurrent credits for the same month neither
+ * lose an update nor fail on the unique (child_id, payment_month, payment_year) constraint, and
+ * no lock is held beyond the statement itself. PostgreSQL uses INSERT ... ON CONFLICT; other
+ * databases (H2 in development) lock the existing row, if any, and use a standard MERGE.
+ *
+ * The result says whether the month was fully paid before and after the credit, which is
+ * what the monthly collection summary needs to count it.
+ *
+ * The statement bypasses the persistence context: the credited transaction must already be
+ * flushed, and the returned payment is a reference that is only loaded if it is read.
+ */
+@Component
+@Slf4j
+public class PaymentAccumulator {
+
+    private static final String INSERT_COLUMNS =
+            "id, child_id, transaction_id, payment_month, payment_year, amount_paid, expected_amount, " +
+            "payment_date, status, payment_method, transaction_reference, matched_automatically, created_at";
+
+    private static final String SELECT_KEY_SQL =
+            " FROM payments WHERE child_id = ? AND payment_month = ? AND payment_year = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final String upsertSql;
+    private final boolean returnsRow;
+
+    /**
+     * A credit towards one month's fees.
+     */
+    public record Credit(long childId, int month, int year, BigDecimal amount, BigDecimal expectedAmount,
+                         LocalDate paymentDate, Long transactionId, String transactionReference,
+                         boolean matchedAutomatically) {
+    }
+
+    /**
+     * The credited payment, and whether it settled the month before and after the credit.
+     */
+    public record Credited(Payment payment, boolean settledBefore, boolean settledAfter) {
+    }
+
+    public PaymentAccumulator(JdbcTemplate jdbcTemplate, EntityManager entityManager,
+                              EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        String nextId = dialect.getSequenceSupport().getSelectSequenceNextValString("payments_seq");
+        this.returnsRow = dialect instanceof PostgreSQLDialect;
+        this.upsertSql = returnsRow ? postgresUpsert(nextId) : mergeUpsert(nextId);
+    }
+
+    /**
+     * Credits the month and returns its payment row.
+     */
+    public Credited accumulate(Credit credit) {
+        String insertStatus = Payment.resolveStatus(credit.amount(), credit.expectedAmount(),
+                Payment.PaymentStatus.PENDING).name();
+        Object[] args = {
+                credit.childId(), credit.transactionId(), credit.month(), credit.year(), credit.amount(),
+                credit.expectedAmount(), credit.paymentDate(), insertStatus, Payment.PaymentMethod.BANK_TRANSFER.name(),
+                credit.transactionReference(), credit.matchedAutomatically(), Timestamp.valueOf(LocalDateTime.now())
+        };
+
+        Credited credited = returnsRow ? upsert(credit, args) : merge(credit, args);
+        log.info("Credited {} to payment {} for {}/{}",
+                credit.amount(), credited.payment().getId(), credit.month(), credit.year());
+        return credited;
+    }
+
+    private Credited upsert(Credit credit, Object[] args) {
+        return jdbcTemplate.queryForObject(upsertSql, (resultSet, rowNum) -> {
+            BigDecimal amountAfter = resultSet.getBigDecimal("amount_paid");
+            BigDecimal expected = resultSet.getBigDecimal("expected_amount");
+            boolean settledBefore = !resultSet.getBoolean("inserted")
+                    && Payment.isFullyPaid(amountAfter.subtract(credit.amount()), expected);
+            return credited(resultSet.getLong("id"), settledBefore, Payment.isFullyPaid(amountAfter, expected));
+        }, args);
+    }
+
+    private Credited merge(Credit credit, Object[] args) {
+        try {
+            return mergeOnce(credit, args);
+        } catch (DuplicateKeyException e) {
+            // A concurrent first credit inserted the row after our lookup; it exists and locks now
+            return mergeOnce(credit, args);
+        }
+    }
+
+    private Credited mergeOnce(Credit credit, Object[] args) {
+        List<BigDecimal> before = jdbcTemplate.queryForList("SELECT amount_paid" + SELECT_KEY_SQL + " FOR UPDATE",
+                BigDecimal.class, credit.childId(), credit.month(), credit.year());
+        jdbcTemplate.update(upsertSql, args);
+        return jdbcTemplate.queryForObject("SELECT id, amount_paid, expected_amount" + SELECT_KEY_SQL,
+                (resultSet, rowNum) -> {
+                    BigDecimal expected = resultSet.getBigDecimal("expected_amount");
+                    boolean settledBefore = !before.isEmpty() && Payment.isFullyPaid(before.get(0), expected);
+                    return credited(resultSet.getLong("id"), settledBefore,
+                            Payment.isFullyPaid(resultSet.getBigDecimal("amount_paid"), expected));
+                },
+                credit.childId(), credit.month(), credit.year());
+    }
+
+    private Credited credited(long paymentId, boolean settledBefore, boolean settledAfter) {
+        return new Credited(entityManager.getReference(Payment.class, paymentId), settledBefore, settledAfter);
+    }
+
+    /**
+     * Mirrors Payment.resolveStatus for the stored row "t" after adding the incoming credit.
+     */
+    private static String statusAfterCredit(String credit) {
+        String amountAfter = "t.amount_paid + " + credit + ".amount_paid";
+        return "CASE WHEN t.expected_amount IS NOT NULL AND " + amountAfter + " >= t.expected_amount THEN 'PAID' " +
+               "WHEN " + amountAfter + " > 0 THEN 'PARTIAL' ELSE t.status END";
+    }
+
+    // xmax is only 0 on a row version this statement inserted, so it tells inserts from updates
+    private static String postgresUpsert(String nextId) {
+        return "INSERT INTO payments AS t (" + INSERT_COLUMNS + ") " +
+               "VALUES (" + nextId + ", ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+               "ON CONFLICT (child_id, payment_month, payment_year) DO UPDATE SET " +
+               "amount_paid = t.amount_paid + EXCLUDED.amount_paid, " +
+               "status = " + statusAfterCredit("EXCLUDED") + ", " +
+               "transaction_id = EXCLUDED.transaction_id, " +
+               "transaction_reference = EXCLUDED.transaction_reference, " +
+               "matched_automatically = EXCLUDED.matched_automatically " +
+               "RETURNING t.id, t.amount_paid, t.expected_amount, (t.xmax = 0) AS inserted";
+    }
+
+    private static String mergeUpsert(String nextId) {
+        return "MERGE INTO payments t USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS INTEGER), " +
+               "CAST(? AS INTEGER), CAST(? AS DECIMAL(10, 2)), CAST(? AS DECIMAL(10, 2)), CAST(? AS DATE), " +
+               "CAST(? AS VARCHAR(20)), CAST(? AS VARCHAR(20)), CAST(? AS VARCHAR(100)), CAST(? AS BOOLEAN), " +
+               "CAST(? AS TIMESTAMP))) AS s(child_id, transaction_id, payment_month, payment_year, amount_paid, " +
+               "expected_amount, payment_date, status, payment_method, transaction_reference, " +
+               "matched_automatically, created_at) " +
+               "ON t.child_id = s.child_id AND t.payment_month = s.payment_month AND t.payment_year = s.payment_year " +
+               "WHEN MATCHED THEN UPDATE SET " +
+               "amount_paid = t.amount_paid + s.amount_paid, " +
+               "status = " + statusAfterCredit("s") + ", " +
+               "transaction_id = s.transaction_id, " +
+               "transaction_reference = s.transaction_reference, " +
+               "matched_automatically = s.matched_automatically " +
+               "WHEN NOT MATCHED THEN INSERT (" + INSERT_COLUMNS + ") " +
+               "VALUES (" + nextId + ", s.child_id, s.transaction_id, s.payment_month, s.payment_year, " +
+               "s.amount_paid, s.expected_amount, s.payment_date, s.status, s.payment_method, " +
+               "s.transaction_reference, s.matched_automatically, s.created_at)";
+    }
+}
@@ -0,0 +1,50 @@
+package com.katlehouniversity.ecd.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Published whenever a payment for the given month is created or its amounts change.
+ * Carries what the change adds to the month's collection totals, which only count payments
+ * of active students.
+ */
+@Getter
+@AllArgsConstructor
+public class PaymentChangedEvent {
+
+    private final Integer paymentMonth;
+    private final Integer paymentYear;
+
+    /**
+     * Amount added to the month's collected total
+     */
+    private final BigDecimal collectedDelta;
+
+    /**
+     * Change in the number of the month's payments that are fully paid
+     */
+    private final long paidCountDelta;
+
+    /**
+     * A change to one student's payment for the month.
+     *
+     * @param activeStudent  Whether the student is active; other students' payments are not in the totals
+     * @param collectedDelta Amount added to the payment
+     * @param settledBefore  Whether the payment was fully paid before the change (false for a new payment)
+     * @param settledAfter   Whether it is fully paid after the change
+     */
+    public static PaymentChangedEvent forPayment(int month, int year, boolean activeStudent,
+                                                 BigDecimal collectedDelta, boolean settledBefore,
+                                                 boolean settledAfter) {
+        if (!activeStudent) {
+            return new PaymentChangedEvent(month, year, BigDecimal.ZERO, 0);
+        }
+        return new PaymentChangedEvent(month, year, collectedDelta, (settledAfter ? 1 : 0) - (settledBefore ? 1 : 0));
+    }
+
+    public boolean changesTotals() {
+        return collectedDelta.signum() != 0 || paidCountDelta != 0;
+    }
+}
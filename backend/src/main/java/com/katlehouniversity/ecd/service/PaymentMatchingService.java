@@ -8,10 +8,15 @@ import com.katlehouniversity.ecd.repository.PaymentRepository;
 import com.katlehouniversity.ecd.repository.TransactionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDate;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.List;
@@ -22,27 +27,91 @@ import java.util.Optional;
 @Slf4j
 public class PaymentMatchingService {
 
+    private static final String MARK_TRANSACTION_MATCHED_SQL =
+            "UPDATE transactions SET status = ?, matched_at = ?, matching_notes = ? WHERE id = ?";
+
     private final TransactionRepository transactionRepository;
     private final ChildRepository childRepository;
     private final PaymentRepository paymentRepository;
-
+    private final StudentReferenceCache studentReferenceCache;
+    private final PaymentAccumulator paymentAccumulator;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${payment.matching.batch-size:1000}")
+    private int matchingBatchSize;
+
+    /**
+     * Match every unmatched transaction that carries a payment reference.
+     *
+     * Works in keyset pages: references resolve through the in-memory {@link StudentReferenceCache},
+     * each credit is added to its month's payment by {@link PaymentAccumulator}, which also keeps
+     * the payment's status, and the page's transaction status updates go out as one JDBC batch.
+     */
     @Transactional
     public void matchAllUnmatchedTransactions() {
         log.info("Starting automatic payment matching...");
 
-        List<Transaction> unmatchedTransactions = transactionRepository.findUnmatchedWithReference();
-        log.info("Found {} unmatched transactions with payment references", unmatchedTransactions.size());
-
+        long lastId = 0;
+        int scannedCount = 0;
         int matchedCount = 0;
-        for (Transaction transaction : unmatchedTransactions) {
-            if (matchTransaction(transaction)) {
-                matchedCount++;
+
+        List<TransactionRepository.UnmatchedReferenceView> page;
+        do {
+            page = transactionRepository.findUnmatchedWithReferenceAfter(lastId, PageRequest.of(0, matchingBatchSize));
+            if (page.isEmpty()) {
+                break;
             }
-        }
 
+            matchedCount += matchPage(page);
+            scannedCount += page.size();
+            lastId = page.get(page.size() - 1).getId();
+        } while (page.size() == matchingBatchSize);
+
+        log.info("Found {} unmatched transactions with payment references", scannedCount);
         log.info("Matched {} transactions successfully", matchedCount);
     }
 
+    private int matchPage(List<TransactionRepository.UnmatchedReferenceView> page) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> transactionUpdates = new ArrayList<>();
+
+        for (TransactionRepository.UnmatchedReferenceView transaction : page) {
+            Optional<StudentReferenceCache.StudentReference> childOpt =
+                    studentReferenceCache.findByPaymentReference(transaction.getPaymentReference());
+            if (childOpt.isEmpty()) {
+                continue;
+            }
+            StudentReferenceCache.StudentReference child = childOpt.get();
+
+            // Add the credit to the month's payment, as statement uploads and webhooks do
+            YearMonth transactionMonth = YearMonth.from(transaction.getTransactionDate());
+            PaymentAccumulator.Credited credited = paymentAccumulator.accumulate(new PaymentAccumulator.Credit(
+                    child.id(),
+                    transactionMonth.getMonthValue(),
+                    transactionMonth.getYear(),
+                    transaction.getAmount(),
+                    child.monthlyFee(),
+                    transaction.getTransactionDate(),
+                    transaction.getId(),
+                    transaction.getBankReference(),
+                    true));
+            eventPublisher.publishEvent(PaymentChangedEvent.forPayment(transactionMonth.getMonthValue(),
+                    transactionMonth.getYear(), child.active(), transaction.getAmount(),
+                    credited.settledBefore(), credited.settledAfter()));
+
+            transactionUpdates.add(new Object[]{
+                    Transaction.TransactionStatus.MATCHED.name(),
+                    now,
+                    "Automatically matched to " + child.fullName(),
+                    transaction.getId()
+            });
+        }
+
+        jdbcTemplate.batchUpdate(MARK_TRANSACTION_MATCHED_SQL, transactionUpdates);
+        return transactionUpdates.size();
+    }
+
     @Transactional
     public boolean matchTransaction(Transaction transaction) {
         if (transaction.getPaymentReference() == null || transaction.getPaymentReference().isEmpty()) {
@@ -51,45 +120,50 @@ public class PaymentMatchingService {
         }
 
         // Try to find child by payment reference
-        Optional<Child> childOpt = childRepository.findByPaymentReferenceIgnoreCase(
-                transaction.getPaymentReference().trim());
+        Optional<StudentReferenceCache.StudentReference> childOpt =
+                studentReferenceCache.findByPaymentReference(transaction.getPaymentReference());
 
         if (childOpt.isEmpty()) {
             log.debug("No child found for payment reference: {}", transaction.getPaymentReference());
             return false;
         }
 
-        Child child = childOpt.get();
+        StudentReferenceCache.StudentReference child = childOpt.get();
         log.info("Matched transaction {} to child: {} ({})",
                 transaction.getBankReference(),
-                child.getFullName(),
-                child.getPaymentReference());
+                child.fullName(),
+                child.paymentReference());
 
         // Determine payment month/year from transaction date
         YearMonth transactionMonth = YearMonth.from(transaction.getTransactionDate());
 
         // Create or update payment record
-        Payment payment = paymentRepository.findByChildIdAndPaymentMonthAndPaymentYear(
-                        child.getId(),
-                        transactionMonth.getMonthValue(),
-                        transactionMonth.getYear())
+        Optional<Payment> existing = paymentRepository.findByChildIdAndPaymentMonthAndPaymentYear(
+                child.id(),
+                transactionMonth.getMonthValue(),
+                transactionMonth.getYear());
+        boolean settledBefore = existing.map(Payment::isFullyPaid).orElse(false);
+        Payment payment = existing
                 .orElse(Payment.builder()
-                        .child(child)
+                        .child(childRepository.getReferenceById(child.id()))
                         .paymentMonth(transactionMonth.getMonthValue())
                         .paymentYear(transactionMonth.getYear())
                         .amountPaid(transaction.getAmount())
                         .build());
 
         payment.setTransaction(transaction);
-        payment.setExpectedAmount(child.getMonthlyFee());
+        payment.setExpectedAmount(child.monthlyFee());
         payment.setPaymentDate(transaction.getTransactionDate());
         payment.setTransactionReference(transaction.getBankReference());
         payment.setPaymentMethod(Payment.PaymentMethod.BANK_TRANSFER);
 
         paymentRepository.save(payment);
+        eventPublisher.publishEvent(PaymentChangedEvent.forPayment(payment.getPaymentMonth(), payment.getPaymentYear(),
+                child.active(), existing.isPresent() ? BigDecimal.ZERO : payment.getAmountPaid(),
+                settledBefore, payment.isFullyPaid()));
 
         // Update transaction status
-        transaction.markAsMatched("Automatically matched to " + child.getFullName());
+        transaction.markAsMatched("Automatically matched to " + child.fullName());
         transactionRepository.save(transaction);
 
         return true;
@@ -120,6 +194,8 @@ public class PaymentMatchingService {
                 .build();
 
         payment = paymentRepository.save(payment);
+        eventPublisher.publishEvent(PaymentChangedEvent.forPayment(month, year,
+                child.getStatus() == Child.StudentStatus.ACTIVE, payment.getAmountPaid(), false, payment.isFullyPaid()));
 
         transaction.setManuallyMatched(true);
         transaction.markAsMatched("Manually matched to " + child.getFullName());
@@ -138,4 +214,4 @@ public class PaymentMatchingService {
     public long getUnmatchedTransactionCount() {
         return transactionRepository.countUnmatchedTransactions();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,224 @@
+package com.katlehouniversity.ecd.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.katlehouniversity.ecd.dto.MonthlyReportDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Rendered report files (PDF and Excel) on local disk, so a report whose data has not changed
+ * is never rendered twice.
+ *
+ * Files are content addressed: the name is a SHA-256 of the report data, the artifact type and
+ * {@link #RENDER_VERSION}, so a changed report simply gets a new file and nothing needs to be
+ * invalidated. The directory is bounded by reports.artifacts.max-bytes, evicting the least
+ * recently served files first, and is re-indexed at startup so past months survive a restart.
+ */
+@Service
+@Slf4j
+public class ReportArtifactCache {
+
+    /**
+     * Part of every artifact key. Bump it whenever the PDF or Excel layout changes, so files
+     * rendered with the old layout are no longer served.
+     */
+    private static final int RENDER_VERSION = 1;
+
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final long maxBytes;
+
+    // File name to size, in access order; guarded by itself, as is totalBytes
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    public enum ArtifactType {
+        PDF("pdf"),
+        EXCEL("xlsx");
+
+        private final String extension;
+
+        ArtifactType(String extension) {
+            this.extension = extension;
+        }
+    }
+
+    /**
+     * Writes a rendered artifact to the given stream.
+     */
+    @FunctionalInterface
+    public interface Renderer {
+        void render(OutputStream outputStream) throws IOException;
+    }
+
+    /**
+     * An open cached file. The channel stays readable even if the file is evicted meanwhile;
+     * {@link #transferTo(OutputStream)} closes it.
+     */
+    public record Artifact(FileChannel channel, long size) {
+
+        public void transferTo(OutputStream outputStream) throws IOException {
+            try (FileChannel source = channel) {
+                WritableByteChannel target = Channels.newChannel(outputStream);
+                long position = 0;
+                while (position < size) {
+                    position += source.transferTo(position, size - position, target);
+                }
+            }
+        }
+    }
+
+    public ReportArtifactCache(ObjectMapper objectMapper,
+                               @Value("${reports.artifacts.directory:${java.io.tmpdir}/ecd-report-artifacts}") String directory,
+                               @Value("${reports.artifacts.max-bytes:268435456}") long maxBytes) {
+        this.objectMapper = objectMapper;
+        this.directory = Path.of(directory);
+        this.maxBytes = maxBytes;
+        loadIndex();
+    }
+
+    /**
+     * The cached artifact for this report, rendering and storing it first if there is none.
+     */
+    public Artifact getOrRender(ArtifactType type, MonthlyReportDto report, Renderer renderer) {
+        String fileName = keyOf(type, report) + "." + type.extension;
+        try {
+            Artifact cached = open(fileName);
+            if (cached != null) {
+                log.debug("Serving cached {} artifact {}", type, fileName);
+                return cached;
+            }
+
+            // Rendered under a temporary name, so a concurrent reader never sees a partial file
+            Path temporary = Files.createTempFile(directory, "render-", ".tmp");
+            try {
+                try (OutputStream outputStream = Files.newOutputStream(temporary)) {
+                    renderer.render(outputStream);
+                }
+                Files.move(temporary, directory.resolve(fileName),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+
+            // Opened before it is indexed, so an eviction right away cannot pull it from under us
+            FileChannel channel = FileChannel.open(directory.resolve(fileName), StandardOpenOption.READ);
+            long size = channel.size();
+            add(fileName, size);
+            log.info("Cached {} artifact {} ({} bytes)", type, fileName, size);
+            return new Artifact(channel, size);
+
+        } catch (IOException e) {
+            throw new UncheckedIOException("Report artifact cache failed: " + e.getMessage(), e);
+        }
+    }
+
+    private Artifact open(String fileName) throws IOException {
+        synchronized (index) {
+            Long size = index.get(fileName);
+            if (size == null) {
+                return null;
+            }
+            try {
+                return new Artifact(FileChannel.open(directory.resolve(fileName), StandardOpenOption.READ), size);
+            } catch (NoSuchFileException e) {
+                // Removed behind our back; render it again
+                index.remove(fileName);
+                totalBytes -= size;
+                return null;
+            }
+        }
+    }
+
+    private void add(String fileName, long size) {
+        synchronized (index) {
+            Long previous = index.put(fileName, size);
+            totalBytes += size - (previous != null ? previous : 0);
+
+            // Least recently served first, never the file just added
+            Iterator<Map.Entry<String, Long>> eldest = index.entrySet().iterator();
+            while (totalBytes > maxBytes && index.size() > 1) {
+                Map.Entry<String, Long> evicted = eldest.next();
+                eldest.remove();
+                totalBytes -= evicted.getValue();
+                delete(evicted.getKey());
+            }
+        }
+    }
+
+    private void delete(String fileName) {
+        try {
+            Files.deleteIfExists(directory.resolve(fileName));
+        } catch (IOException e) {
+            log.warn("Could not delete evicted report artifact {}", fileName, e);
+        }
+    }
+
+    private void loadIndex() {
+        try {
+            Files.createDirectories(directory);
+            // Oldest first, so they are evicted first; leftovers of interrupted renders are dropped
+            List<Path> artifacts;
+            try (Stream<Path> listing = Files.list(directory)) {
+                artifacts = listing.filter(Files::isRegularFile)
+                        .sorted(Comparator.comparingLong(ReportArtifactCache::lastModified))
+                        .toList();
+            }
+            for (Path artifact : artifacts) {
+                if (artifact.getFileName().toString().endsWith(".tmp")) {
+                    Files.deleteIfExists(artifact);
+                } else {
+                    add(artifact.getFileName().toString(), Files.size(artifact));
+                }
+            }
+            log.info("Report artifact cache at {} holds {} files ({} bytes)", directory, index.size(), totalBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open report artifact directory " + directory, e);
+        }
+    }
+
+    private String keyOf(ArtifactType type, MonthlyReportDto report) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((type.name() + ":" + RENDER_VERSION + ":").getBytes(StandardCharsets.UTF_8));
+            digest.update(objectMapper.writeValueAsBytes(report));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize report for its artifact key", e);
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -1,7 +1,13 @@
 package com.katlehouniversity.ecd.service;
 
+import com.katlehouniversity.ecd.dto.StatementProcessingStatusDto;
 import com.katlehouniversity.ecd.entity.*;
+import com.katlehouniversity.ecd.exception.ResourceNotFoundException;
 import com.katlehouniversity.ecd.repository.*;
+import com.katlehouniversity.ecd.util.SbsaLineTokenizer;
+import com.katlehouniversity.ecd.util.StatementFieldParser;
+import com.katlehouniversity.ecd.util.StatementFingerprinter;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.csv.CSVFormat;
@@ -10,18 +16,34 @@ import org.apache.commons.csv.CSVRecord;
 import org.apache.pdfbox.Loader;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -32,65 +54,174 @@ public class StatementUploadService {
 
     private final UploadedStatementRepository uploadedStatementRepository;
     private final TransactionRepository transactionRepository;
-    private final ChildRepository childRepository;
-    private final PaymentRepository paymentRepository;
+    private final PaymentAccumulator paymentAccumulator;
+    private final StudentMatchIndex studentMatchIndex;
+    private final StudentReferenceCache studentReferenceCache;
+    private final TransactionIdentityIndex transactionIdentityIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Qualifier("statementProcessingExecutor")
+    private final TaskExecutor statementProcessingExecutor;
+
+    @Qualifier("pdfExtractionPool")
+    private final ForkJoinPool pdfExtractionPool;
+
+    @Value("${statement.upload.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${statement.pdf.parallel-extraction:true}")
+    private boolean parallelPdfExtraction;
+
+    @Value("${statement.pdf.pages-per-range:8}")
+    private int pdfPagesPerRange;
+
+    @Value("${statement.processing.stale-after-seconds:300}")
+    private long staleAfterSeconds;
+
+    // Statements queued or being processed by this instance, whose heartbeats it keeps fresh
+    private final Set<Long> inFlightStatements = ConcurrentHashMap.newKeySet();
 
     private static final Pattern STUDENT_NUMBER_PATTERN = Pattern.compile("STU-\\d{4}-\\d{3}");
-    private static final List<DateTimeFormatter> DATE_FORMATTERS = Arrays.asList(
-            DateTimeFormatter.ofPattern("dd MMM yy"),
-            DateTimeFormatter.ofPattern("d MMM yy"),
-            DateTimeFormatter.ofPattern("yyyy-MM-dd"),
-            DateTimeFormatter.ofPattern("dd/MM/yyyy")
-    );
 
-    @Transactional
-    public UploadedStatement uploadAndProcessStatement(MultipartFile file, User uploadedBy) {
-        log.info("Processing statement upload: {}", file.getOriginalFilename());
+    /**
+     * Accepts an uploaded statement for background processing.
+     * The upload is spooled to a temporary file (the multipart part does not outlive the
+     * request) and a PENDING statement is returned immediately.
+     *
+     * @throws TaskRejectedException if the processing queue is full
+     */
+    public UploadedStatement submitStatement(MultipartFile file, User uploadedBy) throws IOException {
+        log.info("Accepting statement upload: {}", file.getOriginalFilename());
 
         UploadedStatement.FileType fileType = determineFileType(file.getOriginalFilename());
 
-        UploadedStatement statement = UploadedStatement.builder()
+        Path spooledFile = Files.createTempFile("statement-", "." + fileType.name().toLowerCase());
+        file.transferTo(spooledFile);
+
+        UploadedStatement statement = uploadedStatementRepository.save(UploadedStatement.builder()
                 .fileName(file.getOriginalFilename())
                 .fileType(fileType)
                 .totalTransactions(0)
                 .uploadedBy(uploadedBy)
-                .status(UploadedStatement.ProcessingStatus.PROCESSING)
-                .build();
-
-        statement = uploadedStatementRepository.save(statement);
+                .status(UploadedStatement.ProcessingStatus.PENDING)
+                .heartbeatAt(LocalDateTime.now())
+                .build());
 
+        Long statementId = statement.getId();
+        inFlightStatements.add(statementId);
         try {
-            List<Transaction> transactions;
-            if (fileType == UploadedStatement.FileType.CSV) {
-                transactions = parseCSVStatement(file, statement);
-            } else if (fileType == UploadedStatement.FileType.PDF) {
-                transactions = parsePDFStatement(file, statement);
-            } else {
-                transactions = parseMarkdownStatement(file, statement);
-            }
+            statementProcessingExecutor.execute(() -> processStatement(statementId, spooledFile));
+        } catch (TaskRejectedException e) {
+            log.warn("Statement processing queue is full, rejecting upload {}", statementId);
+            inFlightStatements.remove(statementId);
+            Files.deleteIfExists(spooledFile);
+            statement.markAsFailed("Rejected: statement processing queue is full");
+            uploadedStatementRepository.save(statement);
+            throw e;
+        }
+
+        return statement;
+    }
 
-            log.info("Parsed {} transactions from file", transactions.size());
+    /**
+     * Parses, persists and matches a statement as a stream of fixed-size chunks.
+     * Each chunk commits in its own transaction, so memory stays flat regardless of
+     * file size and a failure partway through keeps the chunks that already committed.
+     * Runs on the statement processing pool and removes the spooled file when done.
+     */
+    void processStatement(Long statementId, Path file) {
+        try {
+            processInChunks(statementId, file);
+        } finally {
+            inFlightStatements.remove(statementId);
+        }
+    }
 
-            // Save all transactions
-            transactions = transactionRepository.saveAll(transactions);
+    private void processInChunks(Long statementId, Path file) {
+        UploadedStatement statement = transactionTemplate.execute(status -> {
+            UploadedStatement pending = findStatement(statementId);
+            pending.markAsProcessing();
+            return uploadedStatementRepository.save(pending);
+        });
+        log.info("Processing statement {}: {}", statementId, statement.getFileName());
 
-            // Match transactions to students
-            int matchedCount = matchTransactionsToStudents(transactions);
+        ChunkedTransactionWriter writer = new ChunkedTransactionWriter(statementId);
+        String errorMessage = null;
 
-            statement.setTotalTransactions(transactions.size());
-            statement.setMatchedCount(matchedCount);
-            statement.setUnmatchedCount(transactions.size() - matchedCount);
-            statement.markAsCompleted();
+        try {
+            if (statement.getFileType() == UploadedStatement.FileType.CSV) {
+                parseCSVStatement(file, statement, writer);
+            } else if (statement.getFileType() == UploadedStatement.FileType.PDF) {
+                parsePDFStatement(file, statement, writer);
+            } else {
+                parseMarkdownStatement(file, statement, writer);
+            }
+            writer.flush();
 
-            log.info("Statement processing completed. Matched: {}, Unmatched: {}",
-                    matchedCount, statement.getUnmatchedCount());
+            log.info("Statement processing completed. Parsed: {}, Matched: {}, Unmatched: {}, Already imported: {}",
+                    writer.getTotalCount(), writer.getMatchedCount(),
+                    writer.getTotalCount() - writer.getMatchedCount(), writer.getDuplicateCount());
 
         } catch (Exception e) {
-            log.error("Error processing statement: {}", e.getMessage(), e);
-            statement.markAsFailed(e.getMessage());
+            log.error("Error processing statement after {} committed transactions: {}",
+                    writer.getTotalCount(), e.getMessage(), e);
+            errorMessage = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete spooled statement file {}", file, e);
+            }
+        }
+
+        String failure = errorMessage;
+        transactionTemplate.executeWithoutResult(status -> {
+            UploadedStatement processed = findStatement(statementId);
+            if (failure == null) {
+                processed.markAsCompleted();
+            } else {
+                processed.markAsFailed(failure);
+            }
+            uploadedStatementRepository.save(processed);
+        });
+    }
+
+    /**
+     * Keep the heartbeat of every statement this instance has queued or is processing fresh,
+     * so other instances can tell them apart from statements whose instance stopped.
+     */
+    @Scheduled(fixedDelayString = "${statement.processing.heartbeat-interval-ms:30000}")
+    @Transactional
+    public void refreshHeartbeats() {
+        if (!inFlightStatements.isEmpty()) {
+            uploadedStatementRepository.refreshHeartbeats(List.copyOf(inFlightStatements), LocalDateTime.now());
         }
+    }
 
-        return uploadedStatementRepository.save(statement);
+    /**
+     * Statements still PENDING or PROCESSING with a stale heartbeat lost their spooled file and
+     * worker when their instance stopped, so they can never finish. Checked at startup and then
+     * periodically, since the instance that stopped may not be the one coming back; statements
+     * of instances that are still running keep a fresh heartbeat and are left alone.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${statement.processing.stale-check-interval-ms:60000}",
+            initialDelayString = "${statement.processing.stale-check-interval-ms:60000}")
+    @Transactional
+    public void failInterruptedStatements() {
+        LocalDateTime now = LocalDateTime.now();
+        int interrupted = uploadedStatementRepository.failStale(
+                List.of(UploadedStatement.ProcessingStatus.PENDING, UploadedStatement.ProcessingStatus.PROCESSING),
+                now.minusSeconds(staleAfterSeconds),
+                UploadedStatement.ProcessingStatus.FAILED,
+                "Processing interrupted: the instance handling the statement stopped",
+                now);
+
+        if (interrupted > 0) {
+            log.warn("Marked {} interrupted statements as failed", interrupted);
+        }
     }
 
     private UploadedStatement.FileType determineFileType(String filename) {
@@ -104,11 +235,10 @@ public class StatementUploadService {
         throw new IllegalArgumentException("Unsupported file type. Only CSV, MD, and PDF files are allowed.");
     }
 
-    private List<Transaction> parseCSVStatement(MultipartFile file, UploadedStatement statement) throws Exception {
-        List<Transaction> transactions = new ArrayList<>();
-
+    private void parseCSVStatement(Path file, UploadedStatement statement,
+                                   Consumer<Transaction> sink) throws Exception {
         try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+                new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8))) {
 
             // Check if this is an SBSA formatted statement
             String firstLine = reader.readLine();
@@ -117,37 +247,38 @@ public class StatementUploadService {
             if (firstLine != null && firstLine.contains("Customer Care:")) {
                 // SBSA format - reopen stream and use custom parser
                 try (BufferedReader sbsaReader = new BufferedReader(
-                        new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
-                    return parseSBSAStatement(sbsaReader, statement);
+                        new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8))) {
+                    parseSBSAStatement(sbsaReader, statement, sink);
+                    return;
                 }
             }
 
             // Standard CSV format with headers
             try (BufferedReader standardReader = new BufferedReader(
-                    new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8));
+                    new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8));
                  CSVParser csvParser = new CSVParser(standardReader, CSVFormat.DEFAULT
                         .withFirstRecordAsHeader()
                         .withIgnoreHeaderCase()
                         .withTrim())) {
 
+                StatementFieldParser fields = new StatementFieldParser();
                 for (CSVRecord record : csvParser) {
+                    Transaction transaction = null;
                     try {
-                        Transaction transaction = parseCSVRecord(record, statement);
-                        if (transaction != null) {
-                            transactions.add(transaction);
-                        }
+                        transaction = parseCSVRecord(record, statement, fields);
                     } catch (Exception e) {
                         log.warn("Error parsing CSV record {}: {}", record.getRecordNumber(), e.getMessage());
                     }
+                    if (transaction != null) {
+                        sink.accept(transaction);
+                    }
                 }
             }
         }
-
-        return transactions;
     }
 
-    private List<Transaction> parseSBSAStatement(BufferedReader reader, UploadedStatement statement) throws Exception {
-        List<Transaction> transactions = new ArrayList<>();
+    private void parseSBSAStatement(BufferedReader reader, UploadedStatement statement,
+                                    Consumer<Transaction> sink) throws Exception {
         String line;
         boolean inTransactionSection = false;
 
@@ -174,142 +305,144 @@ public class StatementUploadService {
                 continue;
             }
 
+            Transaction transaction = null;
             try {
-                Transaction transaction = parseSBSALine(cleanLine, statement);
-                if (transaction != null) {
-                    transactions.add(transaction);
-                }
+                transaction = parseSBSALine(cleanLine, statement);
             } catch (Exception e) {
                 log.warn("Error parsing SBSA line: {}", cleanLine, e);
             }
+            if (transaction != null) {
+                sink.accept(transaction);
+            }
         }
-
-        return transactions;
     }
 
     private Transaction parseSBSALine(String line, UploadedStatement statement) {
         // Format: "23 May 25 CAPITEC KELEBOGILE XABA 700.00 4,918.02" (newline) "CREDIT TRANSFER"
         // Or just: "23 May 25 CAPITEC KELEBOGILE XABA 700.00 4,918.02"
-
-        // Remove newlines and extra whitespace
-        line = line.replace("\n", " ").replaceAll("\\s+", " ").trim();
-
-        // Pattern: Date (dd MMM yy) + Description + Amount + Balance
-        String[] parts = line.split("\\s+");
-        if (parts.length < 5) {
-            return null;
+        SbsaLineTokenizer.SbsaLine parsed = SbsaLineTokenizer.tokenize(line);
+        if (parsed == null) {
+            return null; // Not a transaction line, or a debit
         }
 
-        try {
-            // Extract date (first 3 parts: "23 May 25")
-            String dateStr = parts[0] + " " + parts[1] + " " + parts[2];
-            LocalDate transactionDate = parseDate(dateStr);
-            if (transactionDate == null) {
-                return null;
-            }
+        return Transaction.builder()
+                .amount(parsed.amount())
+                .transactionDate(parsed.date())
+                .description(parsed.description())
+                .paymentReference(extractPaymentReference(parsed.description()))
+                .status(Transaction.TransactionStatus.UNMATCHED)
+                .type(Transaction.TransactionType.CREDIT)
+                .uploadedStatement(statement)
+                .rawData(parsed.normalizedLine())
+                .statementBalance(parsed.balance())
+                .build();
+    }
 
-            // Find amounts (looking for numbers with commas and decimals)
-            BigDecimal amount = null;
-            BigDecimal balance = null;
-            int amountIndex = -1;
-            int balanceIndex = -1;
-
-            for (int i = parts.length - 1; i >= 3; i--) {
-                String cleanPart = parts[i].replaceAll(",", "");
-                try {
-                    BigDecimal num = new BigDecimal(cleanPart);
-                    if (balance == null) {
-                        balance = num;
-                        balanceIndex = i;
-                    } else if (amount == null) {
-                        amount = num;
-                        amountIndex = i;
-                        break;
-                    }
-                } catch (NumberFormatException ignored) {
-                }
-            }
+    /**
+     * Extracts transactions from a PDF statement a page range at a time. Large documents have
+     * their ranges extracted and parsed concurrently on the PDF extraction pool, each from its
+     * own copy of the document (PDDocument is not thread-safe); results are handed to the sink
+     * in page order, with at most two ranges per pool thread in flight.
+     */
+    private void parsePDFStatement(Path file, UploadedStatement statement,
+                                   Consumer<Transaction> sink) throws Exception {
+        int parsedCount = 0;
+        boolean inTransactionSection = false;
 
-            if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
-                return null; // Skip debits or zero amounts
-            }
+        int pageCount;
+        try (PDDocument document = Loader.loadPDF(file.toFile())) {
+            pageCount = document.getNumberOfPages();
 
-            // Description is everything between date and amount
-            StringBuilder description = new StringBuilder();
-            for (int i = 3; i < amountIndex; i++) {
-                if (i > 3) description.append(" ");
-                description.append(parts[i]);
+            if (!parallelPdfExtraction || pageCount <= pdfPagesPerRange) {
+                // Extract one page at a time so only a single page of text is held in memory
+                for (int page = 1; page <= pageCount; page++) {
+                    PdfPageRange range = parsePDFPages(document, page, page, statement);
+                    parsedCount += range.drainTo(sink, inTransactionSection);
+                    inTransactionSection |= range.sawHeader();
+                }
+                log.info("Parsed {} transactions from PDF", parsedCount);
+                return;
             }
-
-            return Transaction.builder()
-                    .bankReference(generateBankReference(transactionDate, amount, description.toString()))
-                    .amount(amount)
-                    .transactionDate(transactionDate)
-                    .description(description.toString())
-                    .paymentReference(extractPaymentReference(description.toString()))
-                    .status(Transaction.TransactionStatus.UNMATCHED)
-                    .type(Transaction.TransactionType.CREDIT)
-                    .uploadedStatement(statement)
-                    .rawData(line)
-                    .build();
-
-        } catch (Exception e) {
-            log.warn("Error parsing SBSA transaction: {}", line, e);
-            return null;
         }
-    }
 
-    private List<Transaction> parsePDFStatement(MultipartFile file, UploadedStatement statement) throws Exception {
-        List<Transaction> transactions = new ArrayList<>();
+        Deque<ForkJoinTask<PdfPageRange>> inFlight = new ArrayDeque<>();
+        int maxInFlight = pdfExtractionPool.getParallelism() * 2;
+        int nextPage = 1;
 
-        try (PDDocument document = Loader.loadPDF(file.getBytes())) {
-            PDFTextStripper stripper = new PDFTextStripper();
-            String text = stripper.getText(document);
+        try {
+            while (nextPage <= pageCount || !inFlight.isEmpty()) {
+                while (nextPage <= pageCount && inFlight.size() < maxInFlight) {
+                    int startPage = nextPage;
+                    int endPage = Math.min(pageCount, startPage + pdfPagesPerRange - 1);
+                    inFlight.add(pdfExtractionPool.submit(() -> {
+                        try (PDDocument document = Loader.loadPDF(file.toFile())) {
+                            return parsePDFPages(document, startPage, endPage, statement);
+                        }
+                    }));
+                    nextPage = endPage + 1;
+                }
 
-            // Parse the extracted text line by line
-            String[] lines = text.split("\n");
-            boolean inTransactionSection = false;
+                PdfPageRange range = inFlight.remove().join();
+                parsedCount += range.drainTo(sink, inTransactionSection);
+                inTransactionSection |= range.sawHeader();
+            }
+        } finally {
+            // Only non-empty if the sink or an extraction failed
+            inFlight.forEach(task -> task.cancel(true));
+        }
 
-            for (String line : lines) {
-                // Skip until we find "Date Description" or similar header
-                if (line.contains("Date Description") || line.contains("Date") && line.contains("Description")) {
-                    inTransactionSection = true;
-                    continue;
-                }
+        log.info("Parsed {} transactions from {}-page PDF in ranges of {} pages",
+                parsedCount, pageCount, pdfPagesPerRange);
+    }
 
-                if (!inTransactionSection) {
-                    continue;
-                }
+    /**
+     * Extracts and parses pages {@code startPage}..{@code endPage} (1-based, inclusive).
+     * Whether the transaction section has started depends on earlier pages, so lines before
+     * the first header in the range are parsed too and kept apart for the caller to decide.
+     */
+    private PdfPageRange parsePDFPages(PDDocument document, int startPage, int endPage,
+                                       UploadedStatement statement) throws IOException {
+        PDFTextStripper stripper = new PDFTextStripper();
+        stripper.setStartPage(startPage);
+        stripper.setEndPage(endPage);
+        String text = stripper.getText(document);
+
+        List<Transaction> beforeHeader = new ArrayList<>();
+        List<Transaction> afterHeader = new ArrayList<>();
+        boolean sawHeader = false;
+
+        // Parse the extracted text line by line
+        for (String line : text.split("\n")) {
+            // The transaction section starts at "Date Description" or a similar header
+            if (line.contains("Date Description") || line.contains("Date") && line.contains("Description")) {
+                sawHeader = true;
+                continue;
+            }
 
-                // Skip empty lines and page headers
-                if (line.trim().isEmpty() || line.contains("Date Description") ||
-                    line.contains("STATEMENT") || line.contains("Transaction details") ||
-                    line.contains("Customer Care")) {
-                    continue;
-                }
+            // Skip empty lines and page headers
+            if (line.trim().isEmpty() || line.contains("STATEMENT") ||
+                line.contains("Transaction details") || line.contains("Customer Care")) {
+                continue;
+            }
 
-                // Parse transaction line - format: "23 May 25 CAPITEC KELEBOGILE XABA 700.00 4,918.02"
-                String cleanLine = line.trim();
-                if (cleanLine.isEmpty()) {
-                    continue;
-                }
+            // Parse transaction line - format: "23 May 25 CAPITEC KELEBOGILE XABA 700.00 4,918.02"
+            String cleanLine = line.trim();
 
-                try {
-                    Transaction transaction = parseSBSALine(cleanLine, statement);
-                    if (transaction != null) {
-                        transactions.add(transaction);
-                    }
-                } catch (Exception e) {
-                    log.warn("Error parsing PDF line: {}", cleanLine, e);
-                }
+            Transaction transaction = null;
+            try {
+                transaction = parseSBSALine(cleanLine, statement);
+            } catch (Exception e) {
+                log.warn("Error parsing PDF line: {}", cleanLine, e);
+            }
+            if (transaction != null) {
+                (sawHeader ? afterHeader : beforeHeader).add(transaction);
             }
         }
 
-        log.info("Parsed {} transactions from PDF", transactions.size());
-        return transactions;
+        return new PdfPageRange(beforeHeader, afterHeader, sawHeader);
     }
 
-    private Transaction parseCSVRecord(CSVRecord record, UploadedStatement statement) {
+    private Transaction parseCSVRecord(CSVRecord record, UploadedStatement statement, StatementFieldParser fields) {
         // Try to extract date, description, and amount from CSV
         String dateStr = getCSVValue(record, "Date", "date", "Transaction Date");
         String description = getCSVValue(record, "Description", "description", "Narrative", "Details");
@@ -320,20 +453,19 @@ public class StatementUploadService {
             return null;
         }
 
-        LocalDate transactionDate = parseDate(dateStr);
+        LocalDate transactionDate = fields.date(dateStr);
         if (transactionDate == null) {
             return null;
         }
 
-        BigDecimal amount = parseAmount(amountStr);
+        BigDecimal amount = StatementFieldParser.parseAmount(amountStr);
         if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
             return null; // Skip debits or zero amounts
         }
 
-        BigDecimal balance = balanceStr != null ? parseAmount(balanceStr) : null;
+        BigDecimal balance = balanceStr != null ? StatementFieldParser.parseAmount(balanceStr) : null;
 
         return Transaction.builder()
-                .bankReference(generateBankReference(transactionDate, amount, description))
                 .amount(amount)
                 .transactionDate(transactionDate)
                 .description(description)
@@ -342,33 +474,32 @@ public class StatementUploadService {
                 .type(Transaction.TransactionType.CREDIT)
                 .uploadedStatement(statement)
                 .rawData(record.toString())
+                .statementBalance(balance)
                 .build();
     }
 
-    private List<Transaction> parseMarkdownStatement(MultipartFile file, UploadedStatement statement) throws Exception {
+    private void parseMarkdownStatement(Path file, UploadedStatement statement,
+                                        Consumer<Transaction> sink) throws Exception {
         // Simplified markdown parser for extracted bank statements
-        List<Transaction> transactions = new ArrayList<>();
-
         try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+                new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8))) {
 
+            StatementFieldParser fields = new StatementFieldParser();
             String line;
             while ((line = reader.readLine()) != null) {
                 // Look for lines that appear to be transactions
                 // Format: "23 May 25 CAPITEC KELEBOGILE XABA 700.00 4,918.02"
                 if (line.trim().matches("^\\d{1,2} \\w{3} \\d{2}.*\\d+\\.\\d{2}.*")) {
-                    Transaction transaction = parseMarkdownLine(line, statement);
+                    Transaction transaction = parseMarkdownLine(line, statement, fields);
                     if (transaction != null) {
-                        transactions.add(transaction);
+                        sink.accept(transaction);
                     }
                 }
             }
         }
-
-        return transactions;
     }
 
-    private Transaction parseMarkdownLine(String line, UploadedStatement statement) {
+    private Transaction parseMarkdownLine(String line, UploadedStatement statement, StatementFieldParser fields) {
         // Parse markdown transaction line
         String[] parts = line.trim().split("\\s+");
         if (parts.length < 4) {
@@ -378,7 +509,7 @@ public class StatementUploadService {
         try {
             // Extract date (first 3 parts: "23 May 25")
             String dateStr = parts[0] + " " + parts[1] + " " + parts[2];
-            LocalDate transactionDate = parseDate(dateStr);
+            LocalDate transactionDate = fields.date(dateStr);
             if (transactionDate == null) {
                 return null;
             }
@@ -388,17 +519,12 @@ public class StatementUploadService {
             String description = "";
 
             for (int i = 3; i < parts.length; i++) {
-                String cleanPart = parts[i].replace(",", "");
-                try {
-                    BigDecimal num = new BigDecimal(cleanPart);
-                    if (amount == null && num.compareTo(BigDecimal.ZERO) > 0) {
-                        amount = num;
-                        // Description is everything before the amount
-                        description = String.join(" ", Arrays.copyOfRange(parts, 3, i));
-                        break;
-                    }
-                } catch (NumberFormatException ignored) {
-                    // Not a number, continue
+                BigDecimal num = StatementFieldParser.parseDecimal(parts[i], 0, parts[i].length());
+                if (num != null && num.compareTo(BigDecimal.ZERO) > 0) {
+                    amount = num;
+                    // Description is everything before the amount
+                    description = String.join(" ", Arrays.copyOfRange(parts, 3, i));
+                    break;
                 }
             }
 
@@ -407,7 +533,6 @@ public class StatementUploadService {
             }
 
             return Transaction.builder()
-                    .bankReference(generateBankReference(transactionDate, amount, description))
                     .amount(amount)
                     .transactionDate(transactionDate)
                     .description(description)
@@ -425,6 +550,8 @@ public class StatementUploadService {
     }
 
     private int matchTransactionsToStudents(List<Transaction> transactions) {
+        // Payment upserts refer to the transaction rows directly, so insert the chunk first
+        entityManager.flush();
         int matchedCount = 0;
 
         for (Transaction transaction : transactions) {
@@ -438,52 +565,57 @@ public class StatementUploadService {
     }
 
     private boolean attemptAutoMatch(Transaction transaction) {
-        // Try to find student number in description
-        Matcher matcher = STUDENT_NUMBER_PATTERN.matcher(transaction.getDescription());
-        if (matcher.find()) {
-            String studentNumber = matcher.group();
-            Optional<Child> studentOpt = childRepository.findByStudentNumber(studentNumber);
-
-            if (studentOpt.isPresent()) {
-                createPaymentRecord(transaction, studentOpt.get(), true);
-                transaction.markAsMatched("Auto-matched by student number: " + studentNumber);
-                transactionRepository.save(transaction);
-                return true;
-            }
+        Optional<StudentMatchIndex.StudentMatch> match = studentMatchIndex.findBestMatch(transaction.getDescription());
+        if (match.isEmpty()) {
+            return false;
+        }
+
+        StudentMatchIndex.StudentMatch studentMatch = match.get();
+        Optional<StudentReferenceCache.StudentReference> studentOpt =
+                studentReferenceCache.findById(studentMatch.getChildId());
+        if (studentOpt.isEmpty()) {
+            return false;
         }
 
-        // Fallback: try fuzzy matching by student name
-        List<Child> allStudents = childRepository.findByActiveTrue();
-        for (Child student : allStudents) {
-            String fullName = student.getFullName();
-            if (transaction.getDescription().toUpperCase().contains(fullName.toUpperCase())) {
+        StudentReferenceCache.StudentReference student = studentOpt.get();
+        switch (studentMatch.getMatchType()) {
+            case STUDENT_NUMBER -> {
+                createPaymentRecord(transaction, student, true);
+                transaction.markAsMatched("Auto-matched by student number: " + studentMatch.getMatchedText());
+            }
+            case PAYMENT_REFERENCE -> {
+                createPaymentRecord(transaction, student, true);
+                transaction.markAsMatched("Auto-matched by payment reference: " + studentMatch.getMatchedText());
+            }
+            case FULL_NAME -> {
                 createPaymentRecord(transaction, student, false);
-                transaction.markAsMatched("Auto-matched by name: " + fullName);
-                transactionRepository.save(transaction);
-                return true;
+                transaction.markAsMatched("Auto-matched by name: " + student.fullName());
             }
         }
-
-        return false;
+        transactionRepository.save(transaction);
+        return true;
     }
 
-    private void createPaymentRecord(Transaction transaction, Child student, boolean autoMatched) {
-        Payment payment = Payment.builder()
-                .child(student)
-                .transaction(transaction)
-                .paymentMonth(transaction.getTransactionDate().getMonthValue())
-                .paymentYear(transaction.getTransactionDate().getYear())
-                .amountPaid(transaction.getAmount())
-                .expectedAmount(student.getMonthlyFee())
-                .paymentDate(transaction.getTransactionDate())
-                .paymentMethod(Payment.PaymentMethod.BANK_TRANSFER)
-                .transactionReference(transaction.getBankReference())
-                .matchedAutomatically(autoMatched)
-                .build();
-
-        paymentRepository.save(payment);
-        log.info("Created payment record for student {} - Amount: {}",
-                student.getStudentNumber(), transaction.getAmount());
+    private void createPaymentRecord(Transaction transaction, StudentReferenceCache.StudentReference student,
+                                     boolean autoMatched) {
+        // Upsert into the month's payment, so a second credit in the month adds to it
+        // instead of failing the chunk on the (child, month, year) unique constraint
+        PaymentAccumulator.Credited credited = paymentAccumulator.accumulate(new PaymentAccumulator.Credit(
+                student.id(),
+                transaction.getTransactionDate().getMonthValue(),
+                transaction.getTransactionDate().getYear(),
+                transaction.getAmount(),
+                student.monthlyFee(),
+                transaction.getTransactionDate(),
+                transaction.getId(),
+                transaction.getBankReference(),
+                autoMatched));
+
+        eventPublisher.publishEvent(PaymentChangedEvent.forPayment(transaction.getTransactionDate().getMonthValue(),
+                transaction.getTransactionDate().getYear(), student.active(), transaction.getAmount(),
+                credited.settledBefore(), credited.settledAfter()));
+        log.info("Credited payment record for student {} - Amount: {}",
+                student.studentNumber(), transaction.getAmount());
     }
 
     private String getCSVValue(CSVRecord record, String... possibleHeaders) {
@@ -498,30 +630,6 @@ public class StatementUploadService {
         return null;
     }
 
-    private LocalDate parseDate(String dateStr) {
-        for (DateTimeFormatter formatter : DATE_FORMATTERS) {
-            try {
-                LocalDate date = LocalDate.parse(dateStr, formatter);
-                // Handle 2-digit years
-                if (date.getYear() < 100) {
-                    date = date.plusYears(2000);
-                }
-                return date;
-            } catch (DateTimeParseException ignored) {
-            }
-        }
-        return null;
-    }
-
-    private BigDecimal parseAmount(String amountStr) {
-        try {
-            String cleaned = amountStr.replaceAll("[^0-9.]", "");
-            return new BigDecimal(cleaned);
-        } catch (NumberFormatException e) {
-            return null;
-        }
-    }
-
     private String extractPaymentReference(String description) {
         Matcher matcher = STUDENT_NUMBER_PATTERN.matcher(description);
         if (matcher.find()) {
@@ -530,15 +638,6 @@ public class StatementUploadService {
         return description.length() > 50 ? description.substring(0, 50) : description;
     }
 
-    private String generateBankReference(LocalDate date, BigDecimal amount, String description) {
-        // Use UUID to ensure uniqueness even for duplicate transactions
-        String uuid = java.util.UUID.randomUUID().toString().substring(0, 8);
-        return String.format("%s-%s-%s",
-                date.toString(),
-                amount.toString().replace(".", ""),
-                uuid);
-    }
-
     @Transactional(readOnly = true)
     public List<UploadedStatement> getAllStatements() {
         return uploadedStatementRepository.findByOrderByUploadDateDesc();
@@ -546,7 +645,161 @@ public class StatementUploadService {
 
     @Transactional(readOnly = true)
     public UploadedStatement getStatementById(Long id) {
+        return findStatement(id);
+    }
+
+    @Transactional(readOnly = true)
+    public StatementProcessingStatusDto getStatementStatus(Long id) {
+        UploadedStatement statement = findStatement(id);
+
+        long elapsedMillis = 0;
+        if (statement.getProcessingStartedAt() != null) {
+            LocalDateTime end = statement.getProcessedDate() != null ? statement.getProcessedDate() : LocalDateTime.now();
+            elapsedMillis = Math.max(0, Duration.between(statement.getProcessingStartedAt(), end).toMillis());
+        }
+
+        int rowsParsed = statement.getTotalTransactions() != null ? statement.getTotalTransactions() : 0;
+        double throughput = elapsedMillis > 0 ? rowsParsed * 1000.0 / elapsedMillis : 0.0;
+
+        return StatementProcessingStatusDto.builder()
+                .id(statement.getId())
+                .fileName(statement.getFileName())
+                .fileType(statement.getFileType().name())
+                .status(statement.getStatus().name())
+                .rowsParsed(rowsParsed)
+                .rowsMatched(statement.getMatchedCount())
+                .rowsUnmatched(statement.getUnmatchedCount())
+                .rowsAlreadyImported(statement.getDuplicateCount())
+                .throughputRowsPerSecond(Math.round(throughput * 100.0) / 100.0)
+                .elapsedMillis(elapsedMillis)
+                .uploadDate(statement.getUploadDate())
+                .processingStartedAt(statement.getProcessingStartedAt())
+                .processedDate(statement.getProcessedDate())
+                .errorMessage(statement.getErrorMessage())
+                .build();
+    }
+
+    private UploadedStatement findStatement(Long id) {
         return uploadedStatementRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Statement not found with id: " + id));
+                .orElseThrow(() -> new ResourceNotFoundException("Statement not found with id: " + id));
+    }
+
+    /**
+     * Buffers parsed transactions and writes them in chunks of {@code chunkSize}.
+     * Each line gets its deterministic bank reference and its identity key as it arrives, in
+     * document order. Every chunk is resolved against {@link TransactionIdentityIndex} first: lines
+     * an earlier upload already imported are dropped, and lines a webhook or API sync already
+     * recorded are linked to that transaction instead of inserted again. The rest is persisted,
+     * matched and counted in its own transaction, after which the persistence context is cleared
+     * so entities from earlier chunks can be collected.
+     */
+    private class ChunkedTransactionWriter implements Consumer<Transaction> {
+
+        private final Long statementId;
+        private final StatementFingerprinter fingerprinter = new StatementFingerprinter();
+        private final List<Transaction> buffer = new ArrayList<>();
+        private int totalCount;
+        private int matchedCount;
+        private int duplicateCount;
+
+        ChunkedTransactionWriter(Long statementId) {
+            this.statementId = statementId;
+        }
+
+        @Override
+        public void accept(Transaction transaction) {
+            transaction.setBankReference(fingerprinter.bankReference(transaction.getTransactionDate(),
+                    transaction.getAmount(), transaction.getDescription(), transaction.getStatementBalance()));
+            transactionIdentityIndex.assignIdentity(transaction, transaction.getStatementBalance());
+            buffer.add(transaction);
+            if (buffer.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (buffer.isEmpty()) {
+                return;
+            }
+
+            try {
+                ChunkCounts chunk = transactionTemplate.execute(status -> {
+                    TransactionIdentityIndex.Resolution known = transactionIdentityIndex.resolve(buffer);
+                    UploadedStatement statement = entityManager.getReference(UploadedStatement.class, statementId);
+
+                    List<Transaction> fresh = new ArrayList<>(buffer.size());
+                    int linked = 0;
+                    for (Transaction transaction : buffer) {
+                        if (known.isSameReference(transaction)) {
+                            continue;
+                        }
+                        Optional<Transaction> existing = known.existingFor(transaction);
+                        if (existing.isEmpty()) {
+                            fresh.add(transaction);
+                        } else if (existing.get().getUploadedStatement() == null) {
+                            // First statement to carry a credit already recorded from a webhook or API sync
+                            existing.get().setUploadedStatement(statement);
+                            linked++;
+                        }
+                    }
+                    int alreadyImported = buffer.size() - fresh.size();
+
+                    List<Transaction> saved = transactionRepository.saveAll(fresh);
+                    int matched = matchTransactionsToStudents(saved);
+                    uploadedStatementRepository.incrementCounts(statementId, saved.size(), matched, alreadyImported);
+                    entityManager.flush();
+                    // Detach the chunk's entities while the persistence context is still this
+                    // transaction's, so it never holds more than one chunk
+                    entityManager.clear();
+                    return new ChunkCounts(saved.size(), matched, alreadyImported, linked);
+                });
+
+                totalCount += chunk.saved();
+                matchedCount += chunk.matched();
+                duplicateCount += chunk.alreadyImported();
+                log.debug("Committed chunk of {} transactions ({} already imported, {} linked to existing) " +
+                        "for statement {} ({} so far)",
+                        chunk.saved(), chunk.alreadyImported(), chunk.linked(), statementId, totalCount);
+            } finally {
+                buffer.clear();
+            }
+        }
+
+        int getTotalCount() {
+            return totalCount;
+        }
+
+        int getMatchedCount() {
+            return matchedCount;
+        }
+
+        int getDuplicateCount() {
+            return duplicateCount;
+        }
+    }
+
+    private record ChunkCounts(int saved, int matched, int alreadyImported, int linked) {
+    }
+
+    /**
+     * Transactions parsed from a run of PDF pages, split at the first transaction header
+     * in the run.
+     */
+    private record PdfPageRange(List<Transaction> beforeHeader, List<Transaction> afterHeader,
+                                boolean sawHeader) {
+
+        /**
+         * Passes the range's transactions to the sink in page order; those before the header
+         * only if an earlier range already entered the transaction section.
+         */
+        int drainTo(Consumer<Transaction> sink, boolean inTransactionSection) {
+            int count = 0;
+            if (inTransactionSection) {
+                beforeHeader.forEach(sink);
+                count += beforeHeader.size();
+            }
+            afterHeader.forEach(sink);
+            return count + afterHeader.size();
+        }
     }
 }
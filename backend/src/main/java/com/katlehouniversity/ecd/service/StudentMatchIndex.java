@@ -0,0 +1,131 @@
+package com.katlehouniversity.ecd.service;
+
+import com.katlehouniversity.ecd.util.AhoCorasickAutomaton;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * In-memory index of student identifiers used to match free-text bank descriptions.
+ *
+ * Student numbers, payment references and (for active students) full names are compiled into
+ * a single Aho-Corasick automaton, so every candidate in a description is found in one pass
+ * instead of querying and scanning all students per transaction. The automaton is compiled
+ * by {@link StudentReferenceCache} from the same student snapshot as its exact lookups and
+ * published with them, so both always agree on the directory and it is loaded only once.
+ */
+@Service
+@RequiredArgsConstructor
+public class StudentMatchIndex {
+
+    private final StudentReferenceCache studentReferenceCache;
+
+    /**
+     * How a description matched a student, in priority order: an explicit student number
+     * beats a payment reference, which beats a name mention.
+     */
+    public enum MatchType {
+        STUDENT_NUMBER,
+        PAYMENT_REFERENCE,
+        FULL_NAME
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class StudentMatch {
+        private final Long childId;
+        private final MatchType matchType;
+        private final String matchedText;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static class Candidate {
+        private final Long childId;
+        private final MatchType matchType;
+        private final String keyword;
+    }
+
+    /**
+     * Find the best student match in the given text.
+     * Candidates are ranked by match type, then by earliest position, then by longest keyword.
+     */
+    public Optional<StudentMatch> findBestMatch(String text) {
+        if (text == null || text.isBlank()) {
+            return Optional.empty();
+        }
+
+        AhoCorasickAutomaton<Candidate> current = studentReferenceCache.matchAutomaton();
+
+        String normalized = AhoCorasickAutomaton.normalize(text);
+        AhoCorasickAutomaton.Match<Candidate> best = null;
+
+        for (AhoCorasickAutomaton.Match<Candidate> match : current.findAll(normalized)) {
+            if (match.getPayload().getMatchType() == MatchType.PAYMENT_REFERENCE
+                    && !isWholeToken(normalized, match.getStart(), match.getEnd())) {
+                continue;
+            }
+            if (best == null || ranksHigher(match, best)) {
+                best = match;
+            }
+        }
+
+        if (best == null) {
+            return Optional.empty();
+        }
+        Candidate candidate = best.getPayload();
+        return Optional.of(new StudentMatch(candidate.getChildId(), candidate.getMatchType(), candidate.getKeyword()));
+    }
+
+    /**
+     * Compile the automaton for a student snapshot.
+     */
+    static AhoCorasickAutomaton<Candidate> compile(StudentReferenceCache.StudentReference[] students) {
+        AhoCorasickAutomaton.Builder<Candidate> builder = AhoCorasickAutomaton.builder();
+
+        for (StudentReferenceCache.StudentReference student : students) {
+            addKeyword(builder, student.id(), MatchType.STUDENT_NUMBER, student.studentNumber());
+            addKeyword(builder, student.id(), MatchType.PAYMENT_REFERENCE, student.paymentReference());
+
+            // Name matching stays restricted to active students, as before
+            if (student.active()) {
+                addKeyword(builder, student.id(), MatchType.FULL_NAME, student.fullName());
+            }
+        }
+
+        return builder.build();
+    }
+
+    private static void addKeyword(AhoCorasickAutomaton.Builder<Candidate> builder, Long childId,
+                                   MatchType matchType, String keyword) {
+        if (keyword == null || keyword.isBlank()) {
+            return;
+        }
+        String normalized = AhoCorasickAutomaton.normalize(keyword.trim());
+        builder.add(normalized, new Candidate(childId, matchType, keyword.trim()));
+    }
+
+    private boolean ranksHigher(AhoCorasickAutomaton.Match<Candidate> candidate,
+                                AhoCorasickAutomaton.Match<Candidate> current) {
+        int byType = candidate.getPayload().getMatchType().compareTo(current.getPayload().getMatchType());
+        if (byType != 0) {
+            return byType < 0;
+        }
+        if (candidate.getStart() != current.getStart()) {
+            return candidate.getStart() < current.getStart();
+        }
+        return candidate.getEnd() > current.getEnd();
+    }
+
+    /**
+     * Payment references are short codes, so they only count when not embedded in a longer word.
+     */
+    private boolean isWholeToken(String text, int start, int end) {
+        boolean leftBoundary = start == 0 || !Character.isLetterOrDigit(text.charAt(start - 1));
+        boolean rightBoundary = end == text.length() || !Character.isLetterOrDigit(text.charAt(end));
+        return leftBoundary && rightBoundary;
+    }
+}
@@ -0,0 +1,166 @@
+package com.katlehouniversity.ecd.service;
+
+import com.katlehouniversity.ecd.entity.Child;
+import com.katlehouniversity.ecd.repository.ChildRepository;
+import com.katlehouniversity.ecd.util.AhoCorasickAutomaton;
+import com.katlehouniversity.ecd.util.ReferenceIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * In-memory directory of students by id, student number and payment reference, so payment
+ * matching resolves a reference without a database read per transaction.
+ *
+ * Lookups are exact (trimmed, case-insensitive) and go through {@link ReferenceIndex} tables and
+ * a sorted id array, none of which box or copy the key. The same load also compiles the
+ * free-text automaton of {@link StudentMatchIndex}, so the students table is read once per
+ * change. Everything is one immutable snapshot swapped atomically, rebuilt at startup and after
+ * every committed change made through {@link ChildService}. Hits and misses are counted under
+ * the {@code student.reference.lookups} meter, tagged by lookup type and result.
+ */
+@Service
+@Slf4j
+public class StudentReferenceCache {
+
+    private final ChildRepository childRepository;
+
+    private volatile Snapshot snapshot;
+
+    private final Counter studentNumberHits;
+    private final Counter studentNumberMisses;
+    private final Counter paymentReferenceHits;
+    private final Counter paymentReferenceMisses;
+    private final Counter idHits;
+    private final Counter idMisses;
+
+    /**
+     * What matching needs to know about a student, without loading the entity.
+     */
+    public record StudentReference(long id, String studentNumber, String paymentReference,
+                                   String fullName, BigDecimal monthlyFee, boolean active) {
+    }
+
+    public StudentReferenceCache(ChildRepository childRepository, MeterRegistry meterRegistry) {
+        this.childRepository = childRepository;
+        this.studentNumberHits = lookupCounter(meterRegistry, "student_number", "hit");
+        this.studentNumberMisses = lookupCounter(meterRegistry, "student_number", "miss");
+        this.paymentReferenceHits = lookupCounter(meterRegistry, "payment_reference", "hit");
+        this.paymentReferenceMisses = lookupCounter(meterRegistry, "payment_reference", "miss");
+        this.idHits = lookupCounter(meterRegistry, "id", "hit");
+        this.idMisses = lookupCounter(meterRegistry, "id", "miss");
+        Gauge.builder("student.reference.cache.size", this, cache -> {
+                    Snapshot current = cache.snapshot;
+                    return current != null ? current.students.length : 0;
+                })
+                .description("Students held in the reference cache")
+                .register(meterRegistry);
+    }
+
+    public Optional<StudentReference> findByStudentNumber(String studentNumber) {
+        Snapshot current = current();
+        return record(current, current.byStudentNumber.get(studentNumber), studentNumberHits, studentNumberMisses);
+    }
+
+    public Optional<StudentReference> findByPaymentReference(String paymentReference) {
+        Snapshot current = current();
+        return record(current, current.byPaymentReference.get(paymentReference),
+                paymentReferenceHits, paymentReferenceMisses);
+    }
+
+    public Optional<StudentReference> findById(long childId) {
+        Snapshot current = current();
+        int index = Arrays.binarySearch(current.ids, childId);
+        return record(current, index >= 0 ? index : ReferenceIndex.NOT_FOUND, idHits, idMisses);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onChildChanged(ChildChangedEvent event) {
+        log.debug("Student {} changed, rebuilding reference cache", event.getChildId());
+        rebuild();
+    }
+
+    /**
+     * Reload the directory from the database, compile the match automaton from it and publish
+     * both atomically.
+     */
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        List<ChildRepository.StudentReferenceView> views = childRepository.findAllReferenceViews();
+
+        StudentReference[] students = new StudentReference[views.size()];
+        long[] ids = new long[views.size()];
+        ReferenceIndex.Builder byStudentNumber = ReferenceIndex.builder(views.size());
+        ReferenceIndex.Builder byPaymentReference = ReferenceIndex.builder(views.size());
+
+        // Views arrive ordered by id, so ids stays sorted for binary search
+        for (int i = 0; i < students.length; i++) {
+            ChildRepository.StudentReferenceView view = views.get(i);
+            students[i] = new StudentReference(view.getId(), view.getStudentNumber(), view.getPaymentReference(),
+                    view.getFirstName() + " " + view.getLastName(), view.getMonthlyFee(),
+                    view.getStatus() == Child.StudentStatus.ACTIVE);
+            ids[i] = view.getId();
+            byStudentNumber.put(view.getStudentNumber(), i);
+            byPaymentReference.put(view.getPaymentReference(), i);
+        }
+
+        snapshot = new Snapshot(students, ids, byStudentNumber.build(), byPaymentReference.build(),
+                StudentMatchIndex.compile(students));
+        log.info("Student reference cache rebuilt with {} students", students.length);
+    }
+
+    /**
+     * Free-text match automaton of the current snapshot, for {@link StudentMatchIndex}.
+     */
+    AhoCorasickAutomaton<StudentMatchIndex.Candidate> matchAutomaton() {
+        return current().matchAutomaton;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            rebuild();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    private Optional<StudentReference> record(Snapshot current, int index, Counter hits, Counter misses) {
+        if (index == ReferenceIndex.NOT_FOUND) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(current.students[index]);
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String type, String result) {
+        return Counter.builder("student.reference.lookups")
+                .description("Student reference cache lookups")
+                .tag("type", type)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record Snapshot(StudentReference[] students, long[] ids,
+                            ReferenceIndex byStudentNumber, ReferenceIndex byPaymentReference,
+                            AhoCorasickAutomaton<StudentMatchIndex.Candidate> matchAutomaton) {
+    }
+}
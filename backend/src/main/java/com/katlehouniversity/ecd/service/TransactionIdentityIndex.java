@@ -0,0 +1,132 @@
+package com.katlehouniversity.ecd.service;
+
+import com.katlehouniversity.ecd.entity.Transaction;
+import com.katlehouniversity.ecd.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Canonical identity of a bank credit, shared by every channel that creates transactions:
+ * statement uploads, MyUpdates webhook notifications and the Standard Bank API sync.
+ *
+ * The same credit arrives with a different description and bank reference on each channel,
+ * so the identity key is built only from what every channel reports identically: the
+ * transaction date, the amount, and the account balance after the credit. The balance is what
+ * tells two equal payments on the same day apart, so a transaction whose source reports no
+ * balance gets no identity key and is only deduplicated within its own channel.
+ *
+ * Lookups are batched: a whole chunk of candidates costs two indexed IN queries, one on
+ * bank reference and one on identity key.
+ */
+@Service
+@RequiredArgsConstructor
+public class TransactionIdentityIndex {
+
+    private final TransactionRepository transactionRepository;
+
+    /**
+     * Reads {@code 2025-05-23|70000|491802}: the date, then the amount and balance in cents.
+     *
+     * @return the key, or null if the balance is unknown
+     */
+    public static String identityKey(LocalDate date, BigDecimal amount, BigDecimal balance) {
+        if (date == null || amount == null || balance == null) {
+            return null;
+        }
+        return date + "|" + cents(amount) + "|" + cents(balance);
+    }
+
+    /**
+     * Stamps the transaction with its identity key, given the balance its source reported.
+     */
+    public void assignIdentity(Transaction transaction, BigDecimal balance) {
+        transaction.setIdentityKey(identityKey(transaction.getTransactionDate(), transaction.getAmount(), balance));
+    }
+
+    /**
+     * Finds the stored transaction for the same bank credit, if any channel already recorded it.
+     */
+    public Optional<Transaction> findExisting(Transaction candidate) {
+        if (candidate.getIdentityKey() == null) {
+            return Optional.empty();
+        }
+        return transactionRepository.findByIdentityKeyIn(List.of(candidate.getIdentityKey())).stream()
+                .min(Comparator.comparing(Transaction::getId));
+    }
+
+    /**
+     * Resolves a batch of candidates against the stored transactions.
+     */
+    public Resolution resolve(Collection<Transaction> candidates) {
+        List<String> bankReferences = new ArrayList<>(candidates.size());
+        Set<String> identityKeys = new HashSet<>();
+        for (Transaction candidate : candidates) {
+            if (candidate.getBankReference() != null) {
+                bankReferences.add(candidate.getBankReference());
+            }
+            if (candidate.getIdentityKey() != null) {
+                identityKeys.add(candidate.getIdentityKey());
+            }
+        }
+
+        Set<String> existingReferences = bankReferences.isEmpty()
+                ? Set.of()
+                : transactionRepository.findExistingBankReferences(bankReferences);
+
+        Map<String, Transaction> byIdentityKey = new HashMap<>();
+        if (!identityKeys.isEmpty()) {
+            for (Transaction existing : transactionRepository.findByIdentityKeyIn(identityKeys)) {
+                // Keep the earliest record of the credit as the canonical one
+                byIdentityKey.merge(existing.getIdentityKey(), existing,
+                        (first, second) -> first.getId() < second.getId() ? first : second);
+            }
+        }
+
+        return new Resolution(existingReferences, byIdentityKey);
+    }
+
+    private static long cents(BigDecimal value) {
+        return value.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Which candidates of a batch are already stored, and under which transaction.
+     */
+    public static class Resolution {
+
+        private final Set<String> existingBankReferences;
+        private final Map<String, Transaction> byIdentityKey;
+
+        Resolution(Set<String> existingBankReferences, Map<String, Transaction> byIdentityKey) {
+            this.existingBankReferences = existingBankReferences;
+            this.byIdentityKey = byIdentityKey;
+        }
+
+        /**
+         * True if this exact line was stored before by its own channel (same bank reference).
+         */
+        public boolean isSameReference(Transaction candidate) {
+            return candidate.getBankReference() != null
+                    && existingBankReferences.contains(candidate.getBankReference());
+        }
+
+        /**
+         * The stored transaction with the same identity, typically recorded by another channel.
+         */
+        public Optional<Transaction> existingFor(Transaction candidate) {
+            if (candidate.getIdentityKey() == null) {
+                return Optional.empty();
+            }
+            return Optional.ofNullable(byIdentityKey.get(candidate.getIdentityKey()));
+        }
+
+        public boolean isKnown(Transaction candidate) {
+            return isSameReference(candidate) || existingFor(candidate).isPresent();
+        }
+    }
+}
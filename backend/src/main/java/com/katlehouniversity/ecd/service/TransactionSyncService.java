@@ -9,6 +9,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
@@ -19,6 +20,7 @@ public class TransactionSyncService {
     private final StandardBankApiClient standardBankApiClient;
     private final TransactionRepository transactionRepository;
     private final PaymentMatchingService paymentMatchingService;
+    private final TransactionIdentityIndex transactionIdentityIndex;
 
     @Transactional
     public void syncTransactions(LocalDate startDate, LocalDate endDate) {
@@ -29,16 +31,17 @@ public class TransactionSyncService {
             List<Transaction> transactions = standardBankApiClient.fetchTransactions(startDate, endDate);
             log.info("Fetched {} transactions from API", transactions.size());
 
-            // Save new transactions (skip duplicates)
-            int savedCount = 0;
+            // Save new transactions, skipping any already recorded here or by another channel
+            TransactionIdentityIndex.Resolution known = transactionIdentityIndex.resolve(transactions);
+            List<Transaction> fresh = new ArrayList<>(transactions.size());
             for (Transaction transaction : transactions) {
-                if (!transactionRepository.existsByBankReference(transaction.getBankReference())) {
-                    transactionRepository.save(transaction);
-                    savedCount++;
-                } else {
+                if (known.isKnown(transaction)) {
                     log.debug("Skipping duplicate transaction: {}", transaction.getBankReference());
+                } else {
+                    fresh.add(transaction);
                 }
             }
+            int savedCount = transactionRepository.saveAll(fresh).size();
 
             log.info("Saved {} new transactions to database", savedCount);
 
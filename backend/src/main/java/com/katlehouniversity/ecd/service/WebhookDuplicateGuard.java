@@ -0,0 +1,144 @@
+package com.katlehouniversity.ecd.service;
+
+import com.katlehouniversity.ecd.repository.TransactionNotificationRepository;
+import com.katlehouniversity.ecd.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * In-memory front for the notification duplicate check.
+ *
+ * A bounded LRU of hashes known to be stored answers repeat deliveries (forwarders retrying in
+ * bursts) without a query. A Bloom filter of every hash this instance has seen answers the
+ * common "never seen" case without a query too; only a Bloom hit that is not in the LRU goes to
+ * {@code existsByDuplicateCheckHash}. The filter is warmed from the duplicate hash index at
+ * startup (every check goes to the database until then) and has no false negatives for hashes
+ * written here.
+ *
+ * Hashes inserted by another instance are not in this filter, so the unique constraint on the
+ * hash stays the final guard: a new hash enters the filter before its insert is attempted, and
+ * if the insert fails, the queue retry goes to the database and sees the duplicate.
+ */
+@Service
+@Slf4j
+public class WebhookDuplicateGuard {
+
+    private final TransactionNotificationRepository notificationRepository;
+    private final int lruSize;
+
+    private final BloomFilter seen;
+    private final Map<String, Boolean> confirmed;
+
+    // Until the filter holds the stored hashes, a filter miss proves nothing
+    private volatile boolean warmed;
+
+    private final Counter lruHits;
+    private final Counter bloomMisses;
+    private final Counter databaseDuplicates;
+    private final Counter databaseNew;
+
+    public WebhookDuplicateGuard(TransactionNotificationRepository notificationRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${webhook.duplicate-guard.expected-hashes:1000000}") long expectedHashes,
+                                 @Value("${webhook.duplicate-guard.false-positive-rate:0.01}") double falsePositiveRate,
+                                 @Value("${webhook.duplicate-guard.lru-size:10000}") int lruSize) {
+        this.notificationRepository = notificationRepository;
+        this.lruSize = lruSize;
+        this.seen = BloomFilter.create(expectedHashes, falsePositiveRate);
+        this.confirmed = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > WebhookDuplicateGuard.this.lruSize;
+            }
+        };
+        this.lruHits = checkCounter(meterRegistry, "lru_hit");
+        this.bloomMisses = checkCounter(meterRegistry, "bloom_miss");
+        this.databaseDuplicates = checkCounter(meterRegistry, "db_duplicate");
+        this.databaseNew = checkCounter(meterRegistry, "db_new");
+    }
+
+    /**
+     * True if a notification with this hash is already stored.
+     */
+    public boolean isDuplicate(String hash) {
+        if (isConfirmed(hash)) {
+            lruHits.increment();
+            return true;
+        }
+        if (warmed && !seen.mightContain(hash)) {
+            bloomMisses.increment();
+            return false;
+        }
+        if (notificationRepository.existsByDuplicateCheckHash(hash)) {
+            databaseDuplicates.increment();
+            confirm(hash);
+            return true;
+        }
+        databaseNew.increment();
+        return false;
+    }
+
+    /**
+     * Records a hash about to be stored in the current transaction. It joins the filter at once,
+     * so later checks go to the database even if this insert rolls back, and the LRU once committed.
+     */
+    public void recordStored(String hash) {
+        seen.put(hash);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            confirm(hash);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                confirm(hash);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        long count;
+        try (Stream<String> hashes = notificationRepository.streamDuplicateCheckHashes()) {
+            count = hashes.mapToLong(hash -> {
+                seen.put(hash);
+                return 1;
+            }).sum();
+        }
+        warmed = true;
+        log.info("Webhook duplicate guard warmed with {} hashes ({} bits, {} hash functions)",
+                count, seen.bitSize(), seen.hashCount());
+    }
+
+    private boolean isConfirmed(String hash) {
+        synchronized (confirmed) {
+            return confirmed.get(hash) != null;
+        }
+    }
+
+    private void confirm(String hash) {
+        synchronized (confirmed) {
+            confirmed.put(hash, Boolean.TRUE);
+        }
+    }
+
+    private static Counter checkCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("webhook.duplicate.checks")
+                .description("Webhook duplicate checks by how they were answered")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
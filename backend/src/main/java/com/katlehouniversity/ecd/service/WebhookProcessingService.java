@@ -4,25 +4,23 @@ import com.katlehouniversity.ecd.dto.MyUpdatesWebhookPayload;
 import com.katlehouniversity.ecd.dto.ParsedEmailNotification;
 import com.katlehouniversity.ecd.entity.*;
 import com.katlehouniversity.ecd.repository.ChildRepository;
-import com.katlehouniversity.ecd.repository.PaymentRepository;
 import com.katlehouniversity.ecd.repository.TransactionNotificationRepository;
 import com.katlehouniversity.ecd.repository.TransactionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 /**
- * Service for processing webhook notifications asynchronously.
+ * Service for processing webhook notifications taken from the webhook queue.
  * Handles parsing, duplicate detection, and automatic payment matching.
  */
 @Service
@@ -32,95 +30,127 @@ public class WebhookProcessingService {
 
     private final MyUpdatesEmailParser emailParser;
     private final TransactionNotificationRepository notificationRepository;
+    private final WebhookDuplicateGuard duplicateGuard;
     private final TransactionRepository transactionRepository;
     private final ChildRepository childRepository;
-    private final PaymentRepository paymentRepository;
+    private final PaymentAccumulator paymentAccumulator;
+    private final TransactionIdentityIndex transactionIdentityIndex;
+    private final StudentReferenceCache studentReferenceCache;
+    private final WebhookQueueService webhookQueueService;
+    private final WebhookStatsCache statsCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
-     * Process incoming webhook notification asynchronously
+     * Process a queued webhook notification.
+     * Unexpected errors propagate so the queue worker can roll back and retry.
      *
      * @param payload Webhook payload with email details
      */
-    @Async
     @Transactional
-    public void processNotificationAsync(MyUpdatesWebhookPayload payload) {
-        log.info("Processing webhook notification asynchronously: {}", payload.getEmailId());
+    public void processNotification(MyUpdatesWebhookPayload payload) {
+        log.info("Processing webhook notification: {}", payload.getEmailId());
 
-        try {
-            // Parse email body
-            ParsedEmailNotification parsed = emailParser.parseMyUpdatesEmail(
-                payload.getBody(),
-                payload.getSubject()
-            );
-
-            if (!parsed.isValid()) {
-                log.error("Invalid notification format: {}", parsed.getErrorMessage());
-                saveFailedNotification(payload, parsed.getErrorMessage());
-                return;
-            }
+        // Parse email body
+        ParsedEmailNotification parsed = emailParser.parseMyUpdatesEmail(
+            payload.getBody(),
+            payload.getSubject()
+        );
 
-            // Generate duplicate hash
-            String dupHash = emailParser.generateDuplicateHash(
-                parsed.getTransactionDate(),
-                parsed.getAmount(),
-                parsed.getReference()
-            );
-
-            // Check for duplicate
-            if (notificationRepository.existsByDuplicateCheckHash(dupHash)) {
-                log.info("Duplicate notification detected, skipping: {}", dupHash);
-                return; // Idempotent - return success
-            }
+        if (!parsed.isValid()) {
+            log.error("Invalid notification format: {}", parsed.getErrorMessage());
+            saveFailedNotification(payload, parsed.getErrorMessage());
+            return;
+        }
 
-            // Create TransactionNotification entity
-            TransactionNotification notification = TransactionNotification.builder()
-                .receivedAt(LocalDateTime.now())
-                .rawPayload(payload.getBody())
-                .transactionDate(parsed.getTransactionDate())
-                .description(parsed.getDescription())
-                .amount(parsed.getAmount())
-                .balance(parsed.getBalance())
-                .reference(parsed.getReference())
-                .duplicateCheckHash(dupHash)
-                .webhookSource(detectWebhookSource(payload))
-                .emailSubject(payload.getSubject())
-                .emailSender(payload.getSender())
-                .matchStatus(TransactionNotification.MatchStatus.PENDING)
-                .processed(false)
-                .build();
-
-            // Save notification first
-            notification = notificationRepository.save(notification);
-            log.info("Saved notification: {}", notification.getNotificationId());
-
-            // Create Transaction entity (for existing flow compatibility)
-            Transaction transaction = createTransactionFromNotification(notification, parsed);
-            transaction = transactionRepository.save(transaction);
-            log.info("Created transaction: {}", transaction.getId());
+        // Generate duplicate hash
+        String dupHash = emailParser.generateDuplicateHash(
+            parsed.getTransactionDate(),
+            parsed.getAmount(),
+            parsed.getReference()
+        );
 
-            // Link transaction to notification
-            notification.setTransaction(transaction);
+        // Check for duplicate
+        if (duplicateGuard.isDuplicate(dupHash)) {
+            log.info("Duplicate notification detected, skipping: {}", dupHash);
+            return; // Idempotent - return success
+        }
+        duplicateGuard.recordStored(dupHash);
 
-            // Attempt automatic matching
-            boolean matched = attemptAutomaticMatch(notification, transaction, parsed);
+        // Create TransactionNotification entity
+        TransactionNotification notification = TransactionNotification.builder()
+            .receivedAt(LocalDateTime.now())
+            .rawPayload(payload.getBody())
+            .transactionDate(parsed.getTransactionDate())
+            .description(parsed.getDescription())
+            .amount(parsed.getAmount())
+            .balance(parsed.getBalance())
+            .reference(parsed.getReference())
+            .duplicateCheckHash(dupHash)
+            .webhookSource(detectWebhookSource(payload))
+            .emailSubject(payload.getSubject())
+            .emailSender(payload.getSender())
+            .matchStatus(TransactionNotification.MatchStatus.PENDING)
+            .processed(false)
+            .build();
 
-            if (matched) {
-                log.info("Successfully matched notification to student");
-            } else {
-                notification.setMatchStatus(TransactionNotification.MatchStatus.UNMATCHED);
-                log.info("Could not automatically match notification - flagged for manual review");
-            }
+        // Save notification first
+        notification = notificationRepository.save(notification);
+        log.info("Saved notification: {}", notification.getNotificationId());
+
+        // Create Transaction entity (for existing flow compatibility), unless an uploaded
+        // statement or API sync already recorded the same credit
+        Transaction transaction = createTransactionFromNotification(notification, parsed);
+        Optional<Transaction> existing = transactionIdentityIndex.findExisting(transaction);
+        if (existing.isPresent()) {
+            transaction = existing.get();
+            log.info("Notification is for already recorded transaction {}, linking instead of inserting",
+                transaction.getId());
+        } else {
+            // Flushed now, as the payment upsert refers to the row directly
+            transaction = transactionRepository.saveAndFlush(transaction);
+            log.info("Created transaction: {}", transaction.getId());
+        }
 
-            notification.setProcessed(true);
-            notification.setProcessedAt(LocalDateTime.now());
-            notificationRepository.save(notification);
+        // Link transaction to notification
+        notification.setTransaction(transaction);
+
+        // Attempt automatic matching, without paying twice for a credit that is already matched
+        boolean matched;
+        if (transaction.isMatched()) {
+            Payment payment = transaction.getPayments().isEmpty()
+                ? null
+                : transaction.getPayments().get(transaction.getPayments().size() - 1);
+            notification.markAsMatched(payment != null ? payment.getChild() : null, payment);
+            matched = true;
+        } else {
+            matched = attemptAutomaticMatch(notification, transaction, parsed);
+        }
 
-            log.info("Webhook notification processed successfully. Matched: {}", matched);
+        if (matched) {
+            log.info("Successfully matched notification to student");
+        } else {
+            notification.setMatchStatus(TransactionNotification.MatchStatus.UNMATCHED);
+            log.info("Could not automatically match notification - flagged for manual review");
+        }
 
-        } catch (Exception e) {
-            log.error("Error processing webhook notification", e);
-            saveFailedNotification(payload, e.getMessage());
+        notification.setProcessed(true);
+        notification.setProcessedAt(LocalDateTime.now());
+        notificationRepository.save(notification);
+        statsCache.recordStored(notification.getMatchStatus());
+
+        log.info("Webhook notification processed successfully. Matched: {}", matched);
+    }
+
+    /**
+     * Duplicate hash a payload will be stored under, or null if its email cannot be parsed.
+     * Lets batch intake drop duplicates before they are queued.
+     */
+    public String duplicateHashOf(MyUpdatesWebhookPayload payload) {
+        ParsedEmailNotification parsed = emailParser.parseMyUpdatesEmail(payload.getBody(), payload.getSubject());
+        if (!parsed.isValid()) {
+            return null;
         }
+        return emailParser.generateDuplicateHash(parsed.getTransactionDate(), parsed.getAmount(), parsed.getReference());
     }
 
     /**
@@ -141,21 +171,20 @@ public class WebhookProcessingService {
 
         if (studentNumber != null) {
             log.info("Found student number in reference: {}", studentNumber);
-            Optional<Child> childOpt = childRepository.findByStudentNumber(studentNumber);
+            Optional<StudentReferenceCache.StudentReference> studentOpt =
+                studentReferenceCache.findByStudentNumber(studentNumber);
 
-            if (childOpt.isPresent()) {
-                Child child = childOpt.get();
-                log.info("Matched to student: {} ({})", child.getFullName(), studentNumber);
+            if (studentOpt.isPresent()) {
+                StudentReferenceCache.StudentReference student = studentOpt.get();
+                log.info("Matched to student: {} ({})", student.fullName(), studentNumber);
 
-                Payment payment = createPaymentRecord(child, transaction, parsed);
-                payment.setMatchedAutomatically(true);
-                payment = paymentRepository.save(payment);
+                Payment payment = creditMonthlyPayment(student, transaction, parsed);
 
                 // Update notification
-                notification.markAsMatched(child, payment);
+                notification.markAsMatched(childRepository.getReferenceById(student.id()), payment);
 
                 // Update transaction
-                transaction.markAsMatched("Automatically matched to " + child.getFullName() + " via student number");
+                transaction.markAsMatched("Automatically matched to " + student.fullName() + " via student number");
                 transactionRepository.save(transaction);
 
                 return true;
@@ -164,21 +193,18 @@ public class WebhookProcessingService {
 
         // Strategy 2: Try to match by payment reference (legacy)
         if (parsed.getReference() != null) {
-            Optional<Child> childOpt = childRepository.findByPaymentReferenceIgnoreCase(
-                parsed.getReference().trim()
-            );
+            Optional<StudentReferenceCache.StudentReference> studentOpt =
+                studentReferenceCache.findByPaymentReference(parsed.getReference());
 
-            if (childOpt.isPresent()) {
-                Child child = childOpt.get();
+            if (studentOpt.isPresent()) {
+                StudentReferenceCache.StudentReference student = studentOpt.get();
                 log.info("Matched to student via payment reference: {} ({})",
-                    child.getFullName(), child.getPaymentReference());
+                    student.fullName(), student.paymentReference());
 
-                Payment payment = createPaymentRecord(child, transaction, parsed);
-                payment.setMatchedAutomatically(true);
-                payment = paymentRepository.save(payment);
+                Payment payment = creditMonthlyPayment(student, transaction, parsed);
 
-                notification.markAsMatched(child, payment);
-                transaction.markAsMatched("Automatically matched to " + child.getFullName() + " via payment reference");
+                notification.markAsMatched(childRepository.getReferenceById(student.id()), payment);
+                transaction.markAsMatched("Automatically matched to " + student.fullName() + " via payment reference");
                 transactionRepository.save(transaction);
 
                 return true;
@@ -193,43 +219,32 @@ public class WebhookProcessingService {
     }
 
     /**
-     * Create payment record from matched notification
+     * Add the notification's amount to the student's payment for the transaction month, creating
+     * it if needed. A single upsert, so concurrent notifications for the same month cannot lose
+     * an update or collide on the monthly unique constraint.
      */
-    private Payment createPaymentRecord(Child child, Transaction transaction, ParsedEmailNotification parsed) {
+    private Payment creditMonthlyPayment(StudentReferenceCache.StudentReference student, Transaction transaction,
+                                         ParsedEmailNotification parsed) {
         // Determine payment month/year from transaction date
         YearMonth transactionMonth = YearMonth.from(parsed.getTransactionDate());
         int month = transactionMonth.getMonthValue();
         int year = transactionMonth.getYear();
 
-        // Check if payment already exists for this month
-        Optional<Payment> existingPayment = paymentRepository.findByChildIdAndPaymentMonthAndPaymentYear(
-            child.getId(), month, year
-        );
-
-        Payment payment;
-        if (existingPayment.isPresent()) {
-            // Update existing payment (add to amount)
-            payment = existingPayment.get();
-            payment.setAmountPaid(payment.getAmountPaid().add(parsed.getAmount()));
-            log.info("Updated existing payment for {}/{}", month, year);
-        } else {
-            // Create new payment
-            payment = Payment.builder()
-                .child(child)
-                .paymentMonth(month)
-                .paymentYear(year)
-                .amountPaid(parsed.getAmount())
-                .expectedAmount(child.getMonthlyFee())
-                .paymentDate(LocalDate.from(parsed.getTransactionDate()))
-                .paymentMethod(Payment.PaymentMethod.BANK_TRANSFER)
-                .build();
-            log.info("Created new payment for {}/{}", month, year);
-        }
-
-        payment.setTransaction(transaction);
-        payment.setTransactionReference(transaction.getBankReference());
-
-        return payment;
+        PaymentAccumulator.Credited credited = paymentAccumulator.accumulate(new PaymentAccumulator.Credit(
+            student.id(),
+            month,
+            year,
+            parsed.getAmount(),
+            student.monthlyFee(),
+            LocalDate.from(parsed.getTransactionDate()),
+            transaction.getId(),
+            transaction.getBankReference(),
+            true
+        ));
+        eventPublisher.publishEvent(PaymentChangedEvent.forPayment(month, year, student.active(),
+            parsed.getAmount(), credited.settledBefore(), credited.settledAfter()));
+
+        return credited.payment();
     }
 
     /**
@@ -239,7 +254,7 @@ public class WebhookProcessingService {
             TransactionNotification notification,
             ParsedEmailNotification parsed) {
 
-        return Transaction.builder()
+        Transaction transaction = Transaction.builder()
             .bankReference(notification.getDuplicateCheckHash()) // Use hash as unique reference
             .amount(parsed.getAmount())
             .transactionDate(LocalDate.from(parsed.getTransactionDate()))
@@ -250,6 +265,20 @@ public class WebhookProcessingService {
             .type(Transaction.TransactionType.CREDIT)
             .rawData(notification.getRawPayload())
             .build();
+        transactionIdentityIndex.assignIdentity(transaction, parsed.getBalance());
+        return transaction;
+    }
+
+    /**
+     * Record a FAILED notification for a queued webhook the queue has given up on, so it is
+     * listed for review and picked up by {@link #retryFailedNotifications()}.
+     * Errors propagate, so it commits or rolls back together with the queue item.
+     */
+    @Transactional
+    public void recordFailedNotification(MyUpdatesWebhookPayload payload, String errorMsg) {
+        TransactionNotification notification = notificationRepository.save(failedNotification(payload, errorMsg));
+        statsCache.recordStored(notification.getMatchStatus());
+        log.info("Saved failed notification {} for review", notification.getNotificationId());
     }
 
     /**
@@ -257,24 +286,28 @@ public class WebhookProcessingService {
      */
     private void saveFailedNotification(MyUpdatesWebhookPayload payload, String errorMsg) {
         try {
-            TransactionNotification notification = TransactionNotification.builder()
-                .receivedAt(LocalDateTime.now())
-                .rawPayload(payload.getBody())
-                .emailSubject(payload.getSubject())
-                .emailSender(payload.getSender())
-                .matchStatus(TransactionNotification.MatchStatus.FAILED)
-                .processed(false)
-                .errorMessage(errorMsg)
-                .webhookSource(detectWebhookSource(payload))
-                .build();
-
+            TransactionNotification notification = failedNotification(payload, errorMsg);
             notificationRepository.save(notification);
+            statsCache.recordStored(notification.getMatchStatus());
             log.info("Saved failed notification for review");
         } catch (Exception e) {
             log.error("Failed to save failed notification", e);
         }
     }
 
+    private TransactionNotification failedNotification(MyUpdatesWebhookPayload payload, String errorMsg) {
+        return TransactionNotification.builder()
+            .receivedAt(LocalDateTime.now())
+            .rawPayload(payload.getBody())
+            .emailSubject(payload.getSubject())
+            .emailSender(payload.getSender())
+            .matchStatus(TransactionNotification.MatchStatus.FAILED)
+            .processed(false)
+            .errorMessage(errorMsg)
+            .webhookSource(detectWebhookSource(payload))
+            .build();
+    }
+
     /**
      * Detect webhook source from payload
      */
@@ -300,52 +333,19 @@ public class WebhookProcessingService {
     }
 
     /**
-     * Get webhook statistics
+     * Get webhook statistics, from a snapshot refreshed every few seconds
      */
-    @Transactional(readOnly = true)
     public Map<String, Object> getWebhookStats() {
-        Map<String, Object> stats = new HashMap<>();
-
-        // Total notifications
-        long totalNotifications = notificationRepository.count();
-        stats.put("total_notifications", totalNotifications);
-
-        // Matched vs unmatched
-        List<TransactionNotification> matched = notificationRepository.findByMatchStatus(
-            TransactionNotification.MatchStatus.MATCHED
-        );
-        List<TransactionNotification> unmatched = notificationRepository.findByMatchStatus(
-            TransactionNotification.MatchStatus.UNMATCHED
-        );
-        List<TransactionNotification> failed = notificationRepository.findFailedNotifications();
-
-        stats.put("matched_count", matched.size());
-        stats.put("unmatched_count", unmatched.size());
-        stats.put("failed_count", failed.size());
-
-        // Recent notifications (last 24 hours)
-        LocalDateTime yesterday = LocalDateTime.now().minusHours(24);
-        List<TransactionNotification> recent = notificationRepository.findRecentNotifications(yesterday);
-        stats.put("last_24h_count", recent.size());
-
-        // Match rate
-        if (totalNotifications > 0) {
-            double matchRate = (matched.size() * 100.0) / totalNotifications;
-            stats.put("match_rate_percentage", String.format("%.2f", matchRate));
-        } else {
-            stats.put("match_rate_percentage", "0.00");
-        }
-
-        return stats;
+        return statsCache.getStats();
     }
 
     /**
-     * Retry failed notifications
+     * Retry failed notifications by putting them back on the webhook queue
      */
     @Transactional
     public int retryFailedNotifications() {
         List<TransactionNotification> failed = notificationRepository.findFailedNotifications();
-        log.info("Retrying {} failed notifications", failed.size());
+        log.info("Re-queueing {} failed notifications", failed.size());
 
         int successCount = 0;
         for (TransactionNotification notification : failed) {
@@ -358,14 +358,14 @@ public class WebhookProcessingService {
                     .emailId(notification.getNotificationId().toString())
                     .build();
 
-                processNotificationAsync(payload);
+                webhookQueueService.enqueue(payload);
                 successCount++;
             } catch (Exception e) {
                 log.error("Failed to retry notification: {}", notification.getNotificationId(), e);
             }
         }
 
-        log.info("Successfully retried {} notifications", successCount);
+        log.info("Successfully re-queued {} notifications", successCount);
         return successCount;
     }
 }
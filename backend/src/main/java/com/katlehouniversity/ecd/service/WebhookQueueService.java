@@ -0,0 +1,195 @@
+package com.katlehouniversity.ecd.service;
+
+import com.katlehouniversity.ecd.dto.MyUpdatesWebhookPayload;
+import com.katlehouniversity.ecd.entity.WebhookQueueItem;
+import com.katlehouniversity.ecd.repository.WebhookQueueRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Database-backed ingestion queue for MyUpdates webhooks.
+ * Receiving a webhook only persists the payload; {@link com.katlehouniversity.ecd.scheduler.WebhookQueueWorker}
+ * claims and processes items with retry and exponential backoff.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WebhookQueueService {
+
+    private final WebhookQueueRepository queueRepository;
+
+    @Value("${webhook.queue.batch-size:10}")
+    private int batchSize;
+
+    @Value("${webhook.queue.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${webhook.queue.backoff-base-seconds:5}")
+    private long backoffBaseSeconds;
+
+    @Value("${webhook.queue.backoff-max-seconds:600}")
+    private long backoffMaxSeconds;
+
+    @Value("${webhook.queue.max-depth:10000}")
+    private long maxDepth;
+
+    /**
+     * Persist a webhook payload for background processing
+     */
+    @Transactional
+    public WebhookQueueItem enqueue(MyUpdatesWebhookPayload payload) {
+        return queueRepository.save(toItem(payload, LocalDateTime.now()));
+    }
+
+    /**
+     * Persist many webhook payloads in one transaction. Ids come from the pooled sequence,
+     * so the inserts go out as JDBC batches.
+     */
+    @Transactional
+    public List<WebhookQueueItem> enqueueAll(List<MyUpdatesWebhookPayload> payloads) {
+        LocalDateTime now = LocalDateTime.now();
+        List<WebhookQueueItem> items = new ArrayList<>(payloads.size());
+        for (MyUpdatesWebhookPayload payload : payloads) {
+            items.add(toItem(payload, now));
+        }
+        return queueRepository.saveAll(items);
+    }
+
+    /**
+     * Backpressure check: true once the number of waiting items reaches webhook.queue.max-depth
+     */
+    @Transactional(readOnly = true)
+    public boolean isFull() {
+        return !hasCapacityFor(1);
+    }
+
+    /**
+     * Backpressure check for a batch: true if count more items still fit under webhook.queue.max-depth
+     */
+    @Transactional(readOnly = true)
+    public boolean hasCapacityFor(int count) {
+        return queueRepository.countByStatus(WebhookQueueItem.QueueStatus.PENDING) + count <= maxDepth;
+    }
+
+    /**
+     * Claim the next batch of due items for a worker. Rows locked by other workers are skipped.
+     */
+    @Transactional
+    public List<WebhookQueueItem> claimBatch(String workerId) {
+        List<WebhookQueueItem> items = queueRepository.findClaimable(LocalDateTime.now(), PageRequest.of(0, batchSize));
+        for (WebhookQueueItem item : items) {
+            item.markAsClaimed(workerId);
+        }
+        return queueRepository.saveAll(items);
+    }
+
+    @Transactional
+    public void markDone(Long itemId) {
+        queueRepository.findById(itemId).ifPresent(item -> {
+            item.markAsDone();
+            queueRepository.save(item);
+        });
+    }
+
+    /**
+     * Record a failed attempt: schedule a retry with exponential backoff,
+     * or give up once webhook.queue.max-attempts is reached.
+     *
+     * @return true if the item was given up on and is now FAILED
+     */
+    @Transactional
+    public boolean markAttemptFailed(Long itemId, String error) {
+        Optional<WebhookQueueItem> found = queueRepository.findById(itemId);
+        if (found.isEmpty()) {
+            return false;
+        }
+
+        WebhookQueueItem item = found.get();
+        boolean exhausted = item.getAttempts() >= maxAttempts;
+        if (exhausted) {
+            log.error("Webhook queue item {} failed after {} attempts: {}", itemId, item.getAttempts(), error);
+            item.markAsFailed(error);
+        } else {
+            Duration delay = backoffDelay(item.getAttempts());
+            log.warn("Webhook queue item {} failed (attempt {}), retrying in {}s: {}",
+                    itemId, item.getAttempts(), delay.toSeconds(), error);
+            item.scheduleRetry(LocalDateTime.now().plus(delay), error);
+        }
+        queueRepository.save(item);
+        return exhausted;
+    }
+
+    @Transactional
+    public int releaseStaleLocks(Duration lockTimeout) {
+        return queueRepository.releaseStaleLocks(LocalDateTime.now().minus(lockTimeout));
+    }
+
+    @Transactional
+    public int purgeDone(Duration retention) {
+        return queueRepository.deleteDoneBefore(LocalDateTime.now().minus(retention));
+    }
+
+    public MyUpdatesWebhookPayload toPayload(WebhookQueueItem item) {
+        return MyUpdatesWebhookPayload.builder()
+                .emailId(item.getEmailId())
+                .receivedAt(item.getReceivedAt())
+                .sender(item.getSender())
+                .subject(item.getSubject())
+                .body(item.getBody())
+                .recipient(item.getRecipient())
+                .source(item.getSource())
+                .build();
+    }
+
+    /**
+     * Queue depth and lag, for monitoring and backpressure
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getQueueStats() {
+        long pending = queueRepository.countByStatus(WebhookQueueItem.QueueStatus.PENDING);
+        LocalDateTime oldestPending = queueRepository.findOldestPendingEnqueuedAt();
+        long lagSeconds = oldestPending != null
+                ? Math.max(0, Duration.between(oldestPending, LocalDateTime.now()).toSeconds())
+                : 0;
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("depth", pending);
+        stats.put("processing", queueRepository.countByStatus(WebhookQueueItem.QueueStatus.PROCESSING));
+        stats.put("failed", queueRepository.countByStatus(WebhookQueueItem.QueueStatus.FAILED));
+        stats.put("lag_seconds", lagSeconds);
+        stats.put("max_depth", maxDepth);
+        stats.put("accepting", pending < maxDepth);
+        return stats;
+    }
+
+    private WebhookQueueItem toItem(MyUpdatesWebhookPayload payload, LocalDateTime now) {
+        return WebhookQueueItem.builder()
+                .emailId(payload.getEmailId())
+                .receivedAt(payload.getReceivedAt())
+                .sender(payload.getSender())
+                .subject(payload.getSubject())
+                .body(payload.getBody())
+                .recipient(payload.getRecipient())
+                .source(payload.getSource())
+                .enqueuedAt(now)
+                .nextAttemptAt(now)
+                .build();
+    }
+
+    private Duration backoffDelay(int attempts) {
+        long multiplier = 1L << Math.min(Math.max(attempts - 1, 0), 20);
+        return Duration.ofSeconds(Math.min(backoffBaseSeconds * multiplier, backoffMaxSeconds));
+    }
+}
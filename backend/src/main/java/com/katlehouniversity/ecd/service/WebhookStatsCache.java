@@ -0,0 +1,136 @@
+package com.katlehouniversity.ecd.service;
+
+import com.katlehouniversity.ecd.entity.TransactionNotification;
+import com.katlehouniversity.ecd.repository.TransactionNotificationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Webhook notification counts for the monitoring dashboard, served from a snapshot.
+ *
+ * The snapshot comes from one grouped COUNT over match status and received time, and is
+ * reloaded once it is older than webhook.stats.ttl-seconds. In between, every notification
+ * committed by {@link WebhookProcessingService} is added to it, so polling between reloads
+ * sees new notifications without a query. The last 24 hours count only grows between reloads;
+ * notifications leaving the window drop out at the next reload.
+ */
+@Service
+@Slf4j
+public class WebhookStatsCache {
+
+    private static final int STATUS_COUNT = TransactionNotification.MatchStatus.values().length;
+
+    private final TransactionNotificationRepository notificationRepository;
+    private final Duration ttl;
+
+    private volatile Snapshot snapshot;
+
+    public WebhookStatsCache(TransactionNotificationRepository notificationRepository,
+                             @Value("${webhook.stats.ttl-seconds:30}") long ttlSeconds) {
+        this.notificationRepository = notificationRepository;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+    }
+
+    /**
+     * Current stats, reloading the snapshot if it has expired.
+     */
+    public Map<String, Object> getStats() {
+        Snapshot current = snapshot;
+        if (current == null || current.loadedAt.plus(ttl).isBefore(LocalDateTime.now())) {
+            current = reload();
+        }
+        return current.toStats();
+    }
+
+    /**
+     * Counts a notification stored with the given status in the current transaction, once it commits.
+     */
+    public void recordStored(TransactionNotification.MatchStatus status) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            increment(status);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                increment(status);
+            }
+        });
+    }
+
+    private synchronized Snapshot reload() {
+        // Another caller may have reloaded while this one waited
+        Snapshot current = snapshot;
+        LocalDateTime now = LocalDateTime.now();
+        if (current != null && !current.loadedAt.plus(ttl).isBefore(now)) {
+            return current;
+        }
+
+        long[] totals = new long[STATUS_COUNT];
+        long last24h = 0;
+        List<TransactionNotificationRepository.StatusCount> rows =
+                notificationRepository.countByMatchStatus(now.minusHours(24));
+        for (TransactionNotificationRepository.StatusCount row : rows) {
+            if (row.getMatchStatus() == null) {
+                continue;
+            }
+            totals[row.getMatchStatus().ordinal()] = row.getTotal();
+            last24h += row.getReceivedSince() != null ? row.getReceivedSince() : 0;
+        }
+
+        current = new Snapshot(totals, last24h, now);
+        snapshot = current;
+        log.debug("Webhook stats reloaded: {} notifications", current.total());
+        return current;
+    }
+
+    private synchronized void increment(TransactionNotification.MatchStatus status) {
+        Snapshot current = snapshot;
+        if (current == null || status == null) {
+            // Nothing loaded yet; the first read counts this notification
+            return;
+        }
+        long[] totals = current.totals.clone();
+        totals[status.ordinal()]++;
+        snapshot = new Snapshot(totals, current.last24h + 1, current.loadedAt);
+    }
+
+    private record Snapshot(long[] totals, long last24h, LocalDateTime loadedAt) {
+
+        long count(TransactionNotification.MatchStatus status) {
+            return totals[status.ordinal()];
+        }
+
+        long total() {
+            long total = 0;
+            for (long count : totals) {
+                total += count;
+            }
+            return total;
+        }
+
+        Map<String, Object> toStats() {
+            Map<String, Object> stats = new HashMap<>();
+            long total = total();
+            long matched = count(TransactionNotification.MatchStatus.MATCHED);
+
+            stats.put("total_notifications", total);
+            stats.put("matched_count", matched);
+            stats.put("unmatched_count", count(TransactionNotification.MatchStatus.UNMATCHED));
+            stats.put("failed_count", count(TransactionNotification.MatchStatus.FAILED));
+            stats.put("last_24h_count", last24h);
+            stats.put("match_rate_percentage", String.format("%.2f", total > 0 ? matched * 100.0 / total : 0.0));
+            stats.put("as_of", loadedAt);
+            return stats;
+        }
+    }
+}
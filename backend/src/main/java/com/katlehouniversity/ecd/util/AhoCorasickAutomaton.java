@@ -0,0 +1,187 @@
+package com.katlehouniversity.ecd.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.function.Consumer;
+
+/**
+ * Immutable Aho-Corasick automaton for finding many literal keywords in one pass over a text.
+ *
+ * Keywords are added through a {@link Builder}; once built the automaton is read-only and safe
+ * to share between threads. Matching is case-sensitive, so callers normalize keywords and text
+ * the same way (see {@link #normalize(String)}).
+ *
+ * @param <T> payload attached to each keyword
+ */
+public final class AhoCorasickAutomaton<T> {
+
+    private static final int ROOT = 0;
+
+    // Per-state goto transitions, failure links and the keywords that end at the state
+    // (including those inherited through the failure chain).
+    private final List<Map<Character, Integer>> transitions;
+    private final int[] failure;
+    private final List<List<Hit<T>>> outputs;
+
+    private AhoCorasickAutomaton(List<Map<Character, Integer>> transitions, int[] failure,
+                                 List<List<Hit<T>>> outputs) {
+        this.transitions = transitions;
+        this.failure = failure;
+        this.outputs = outputs;
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Upper-cases the text so keywords and input compare case-insensitively.
+     */
+    public static String normalize(String text) {
+        return text == null ? "" : text.toUpperCase();
+    }
+
+    /**
+     * Reports every keyword occurrence in the text, in order of end position.
+     */
+    public void scan(String text, Consumer<Match<T>> sink) {
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+
+            Integer next;
+            while ((next = transitions.get(state).get(c)) == null && state != ROOT) {
+                state = failure[state];
+            }
+            state = next != null ? next : ROOT;
+
+            for (Hit<T> hit : outputs.get(state)) {
+                sink.accept(new Match<>(i - hit.length + 1, i + 1, hit.payload));
+            }
+        }
+    }
+
+    public List<Match<T>> findAll(String text) {
+        List<Match<T>> matches = new ArrayList<>();
+        scan(text, matches::add);
+        return matches;
+    }
+
+    public boolean isEmpty() {
+        return transitions.size() == 1;
+    }
+
+    /**
+     * A keyword occurrence: {@code text.substring(start, end)} equals the keyword.
+     */
+    public static final class Match<T> {
+        private final int start;
+        private final int end;
+        private final T payload;
+
+        Match(int start, int end, T payload) {
+            this.start = start;
+            this.end = end;
+            this.payload = payload;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+    }
+
+    private static final class Hit<T> {
+        private final int length;
+        private final T payload;
+
+        Hit(int length, T payload) {
+            this.length = length;
+            this.payload = payload;
+        }
+    }
+
+    public static final class Builder<T> {
+
+        private final List<Map<Character, Integer>> transitions = new ArrayList<>();
+        private final List<List<Hit<T>>> outputs = new ArrayList<>();
+
+        private Builder() {
+            newState();
+        }
+
+        /**
+         * Adds a keyword; blank keywords are ignored. The same keyword may be added
+         * several times with different payloads.
+         */
+        public Builder<T> add(String keyword, T payload) {
+            if (keyword == null || keyword.isBlank()) {
+                return this;
+            }
+
+            int state = ROOT;
+            for (int i = 0; i < keyword.length(); i++) {
+                char c = keyword.charAt(i);
+                Integer next = transitions.get(state).get(c);
+                if (next == null) {
+                    next = newState();
+                    transitions.get(state).put(c, next);
+                }
+                state = next;
+            }
+            outputs.get(state).add(new Hit<>(keyword.length(), payload));
+            return this;
+        }
+
+        public AhoCorasickAutomaton<T> build() {
+            int[] failure = new int[transitions.size()];
+            Arrays.fill(failure, ROOT);
+
+            // Breadth-first so a state's failure target is always finalized before the state itself
+            Queue<Integer> queue = new ArrayDeque<>(transitions.get(ROOT).values());
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                for (Map.Entry<Character, Integer> edge : transitions.get(state).entrySet()) {
+                    char c = edge.getKey();
+                    int child = edge.getValue();
+
+                    int fallback = failure[state];
+                    while (fallback != ROOT && !transitions.get(fallback).containsKey(c)) {
+                        fallback = failure[fallback];
+                    }
+                    Integer target = transitions.get(fallback).get(c);
+                    failure[child] = target != null && target != child ? target : ROOT;
+
+                    outputs.get(child).addAll(outputs.get(failure[child]));
+                    queue.add(child);
+                }
+            }
+
+            List<Map<Character, Integer>> frozenTransitions = new ArrayList<>(transitions.size());
+            List<List<Hit<T>>> frozenOutputs = new ArrayList<>(outputs.size());
+            for (int i = 0; i < transitions.size(); i++) {
+                frozenTransitions.add(Map.copyOf(transitions.get(i)));
+                frozenOutputs.add(List.copyOf(outputs.get(i)));
+            }
+            return new AhoCorasickAutomaton<>(frozenTransitions, failure, frozenOutputs);
+        }
+
+        private int newState() {
+            transitions.add(new HashMap<>());
+            outputs.add(new ArrayList<>());
+            return transitions.size() - 1;
+        }
+    }
+}
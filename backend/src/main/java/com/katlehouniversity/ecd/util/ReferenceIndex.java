@@ -0,0 +1,145 @@
+package com.katlehouniversity.ecd.util;
+
+import java.util.Arrays;
+
+/**
+ * Immutable, open-addressing hash table from short reference codes to int values.
+ *
+ * Keys compare after trimming surrounding whitespace and ignoring case, and a lookup hashes and
+ * compares the caller's text in place: no trimmed or upper-cased copy is made, nothing is boxed,
+ * and a miss allocates nothing. The first key added wins when two keys normalize the same way.
+ * Once built the table is read-only and safe to share between threads.
+ */
+public final class ReferenceIndex {
+
+    public static final int NOT_FOUND = -1;
+
+    private static final ReferenceIndex EMPTY = new ReferenceIndex(new String[1], new int[1], 0);
+
+    // Slot arrays sized to a power of two at most half full; a null key marks an empty slot
+    private final String[] keys;
+    private final int[] values;
+    private final int mask;
+    private final int size;
+
+    private ReferenceIndex(String[] keys, int[] values, int size) {
+        this.keys = keys;
+        this.values = values;
+        this.mask = keys.length - 1;
+        this.size = size;
+    }
+
+    public static ReferenceIndex empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder(int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+    /**
+     * Value stored for the reference, or {@link #NOT_FOUND}.
+     */
+    public int get(CharSequence reference) {
+        if (reference == null) {
+            return NOT_FOUND;
+        }
+        int start = 0;
+        int end = reference.length();
+        while (start < end && Character.isWhitespace(reference.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(reference.charAt(end - 1))) {
+            end--;
+        }
+        if (start == end) {
+            return NOT_FOUND;
+        }
+
+        for (int slot = hash(reference, start, end) & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+            if (matches(keys[slot], reference, start, end)) {
+                return values[slot];
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static int hash(CharSequence text, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + Character.toUpperCase(text.charAt(i));
+        }
+        // Spread the high bits down, as the slot index only uses the low ones
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean matches(String key, CharSequence text, int start, int end) {
+        if (key.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) != Character.toUpperCase(text.charAt(start + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static final class Builder {
+
+        private final String[] keys;
+        private final int[] values;
+        private final int mask;
+        private int size;
+
+        private Builder(int expectedSize) {
+            int capacity = Integer.highestOneBit(Math.max(2, expectedSize) * 2 - 1) << 1;
+            this.keys = new String[capacity];
+            this.values = new int[capacity];
+            this.mask = capacity - 1;
+        }
+
+        /**
+         * Adds a reference; blank references are ignored.
+         *
+         * @throws IllegalStateException if more references are added than the expected size
+         */
+        public Builder put(String reference, int value) {
+            if (reference == null || reference.isBlank()) {
+                return this;
+            }
+            String key = normalize(reference);
+            int slot = hash(key, 0, key.length()) & mask;
+            while (keys[slot] != null) {
+                if (keys[slot].equals(key)) {
+                    return this;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (size == keys.length / 2) {
+                throw new IllegalStateException("ReferenceIndex is over its expected size");
+            }
+            keys[slot] = key;
+            values[slot] = value;
+            size++;
+            return this;
+        }
+
+        public ReferenceIndex build() {
+            return new ReferenceIndex(Arrays.copyOf(keys, keys.length), Arrays.copyOf(values, values.length), size);
+        }
+
+        private static String normalize(String reference) {
+            String trimmed = reference.strip();
+            StringBuilder upper = new StringBuilder(trimmed.length());
+            for (int i = 0; i < trimmed.length(); i++) {
+                upper.append(Character.toUpperCase(trimmed.charAt(i)));
+            }
+            return upper.toString();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.katlehouniversity.ecd.util;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Single-pass tokenizer for Standard Bank (SBSA) statement lines such as
+ * {@code "23 May 25 CAPITEC KELEBOGILE XABA 700.00 4,918.02"}.
+ *
+ * Tokens are whitespace-delimited spans of the input, located by index rather than copied out.
+ * The date is read from the first three tokens. Amount and balance are the last two numeric
+ * tokens after the date, and the description is everything in between. Dates and numbers are
+ * parsed in place by {@link StatementFieldParser}, so rejected tokens cost no exceptions or
+ * allocations. The only objects created are the returned values.
+ *
+ * Lines are accepted, and values produced, exactly as the earlier
+ * {@code split}/{@code replaceAll}/{@code new BigDecimal} parser did. That includes its quirks:
+ * a day past the end of the month is clamped ("31 Apr 25" is 30 April), commas are ignored
+ * anywhere in a number, and exponents are allowed. Stateless and thread-safe.
+ */
+public final class SbsaLineTokenizer {
+
+    private SbsaLineTokenizer() {
+    }
+
+    /**
+     * A credit line taken apart into its fields.
+     *
+     * @param description    tokens between the date and the amount, single-spaced (may be empty)
+     * @param normalizedLine the whole line trimmed, with every whitespace run collapsed to one space
+     */
+    public record SbsaLine(LocalDate date, String description, BigDecimal amount, BigDecimal balance,
+                           String normalizedLine) {
+    }
+
+    /**
+     * Tokenizes one statement line.
+     *
+     * @return the parsed line, or null if it has no valid date, no amount and balance, or a
+     * non-positive amount (debits)
+     */
+    public static SbsaLine tokenize(CharSequence line) {
+        // Trim as String.trim does: anything up to and including ' ' at either end
+        int from = 0;
+        int to = line.length();
+        while (from < to && line.charAt(from) <= ' ') {
+            from++;
+        }
+        while (to > from && line.charAt(to - 1) <= ' ') {
+            to--;
+        }
+
+        // Date: day, month and two-digit year tokens
+        int dayEnd = tokenEnd(line, from, to);
+        int monthStart = skipWhitespace(line, dayEnd, to);
+        int monthEnd = tokenEnd(line, monthStart, to);
+        int yearStart = skipWhitespace(line, monthEnd, to);
+        int yearEnd = tokenEnd(line, yearStart, to);
+
+        LocalDate date = StatementFieldParser.parseDayMonthYear(
+                line, from, dayEnd, monthStart, monthEnd, yearStart, yearEnd);
+        if (date == null) {
+            return null;
+        }
+
+        // Walk back from the end: the last numeric token is the balance, the one before the amount
+        int descriptionStart = skipWhitespace(line, yearEnd, to);
+        BigDecimal balance = null;
+        BigDecimal amount = null;
+        int amountStart = -1;
+
+        int end = to;
+        while (end > descriptionStart) {
+            int start = end;
+            while (start > descriptionStart && !isWhitespace(line.charAt(start - 1))) {
+                start--;
+            }
+            BigDecimal number = StatementFieldParser.parseDecimal(line, start, end);
+            if (number != null) {
+                if (balance == null) {
+                    balance = number;
+                } else {
+                    amount = number;
+                    amountStart = start;
+                    break;
+                }
+            }
+            end = start;
+            while (end > descriptionStart && isWhitespace(line.charAt(end - 1))) {
+                end--;
+            }
+        }
+
+        if (amount == null || amount.signum() <= 0) {
+            return null; // Debits and zero amounts
+        }
+
+        int descriptionEnd = amountStart;
+        while (descriptionEnd > descriptionStart && isWhitespace(line.charAt(descriptionEnd - 1))) {
+            descriptionEnd--;
+        }
+
+        return new SbsaLine(
+                date,
+                collapseWhitespace(line, descriptionStart, descriptionEnd),
+                amount,
+                balance,
+                collapseWhitespace(line, from, to));
+    }
+
+    /**
+     * Whitespace as the regex {@code \s} defines it: space, tab, newline, vertical tab, form feed
+     * and carriage return.
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || (c >= '\t' && c <= '\r');
+    }
+
+    private static int skipWhitespace(CharSequence s, int i, int to) {
+        while (i < to && isWhitespace(s.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int tokenEnd(CharSequence s, int i, int to) {
+        while (i < to && !isWhitespace(s.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static String collapseWhitespace(CharSequence s, int start, int end) {
+        StringBuilder out = new StringBuilder(end - start);
+        boolean inWhitespace = false;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (isWhitespace(c)) {
+                inWhitespace = true;
+            } else {
+                if (inWhitespace) {
+                    out.append(' ');
+                    inWhitespace = false;
+                }
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,432 @@
+package com.katlehouniversity.ecd.util;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Exception-free parsing of the dates and money amounts in bank statements and notifications.
+ *
+ * Input is first classified by shape (where the digits, separators and month name sit) and then
+ * converted directly: dates into {@link LocalDate}, amounts into long cents. BigDecimal is only
+ * involved for values cents cannot hold (more than two decimals, exponents, 17+ digits), and
+ * only after the text has been validated. Anything that is not a date or an amount gives null,
+ * or {@link #NOT_AN_AMOUNT}, instead of an exception.
+ *
+ * The static methods are thread-safe. An instance adds a memo of the date strings it has already
+ * parsed, for use over a single statement, where the same few dates repeat line after line.
+ * Instances are not thread-safe.
+ */
+public final class StatementFieldParser {
+
+    /**
+     * Returned by {@link #parseCents} for text that is not an amount, or not one cents can hold
+     */
+    public static final long NOT_AN_AMOUNT = Long.MIN_VALUE;
+
+    // Short month names as a "MMM" date pattern parses them (default locale)
+    private static final String[] MONTH_NAMES = new String[12];
+
+    static {
+        DateTimeFormatter monthFormat = DateTimeFormatter.ofPattern("MMM");
+        for (Month month : Month.values()) {
+            MONTH_NAMES[month.ordinal()] = monthFormat.format(month);
+        }
+    }
+
+    // Widest day a "d" pattern reads, leading zeros included
+    private static final int MAX_DAY_DIGITS = 19;
+
+    // Nonzero exponent digits BigDecimal accepts
+    private static final int MAX_EXPONENT_DIGITS = 10;
+
+    // Any number of this many digits fits in a long
+    private static final int MAX_LONG_DIGITS = 18;
+
+    // Distinct date strings remembered per statement; a year of daily lines needs 366
+    private static final int DATE_MEMO_CAPACITY = 1024;
+
+    // Memo entry for text that is not a date
+    private static final LocalDate NOT_A_DATE = LocalDate.MIN;
+
+    private final Map<String, LocalDate> dateMemo = new HashMap<>();
+
+    // Statements are in date order, so most lines repeat the previous line's date
+    private String lastDateText;
+    private LocalDate lastDate;
+
+    /**
+     * {@link #parseDate(CharSequence)} with a memo of the strings this instance has seen.
+     */
+    public LocalDate date(String text) {
+        if (text.equals(lastDateText)) {
+            return lastDate;
+        }
+
+        LocalDate date = dateMemo.get(text);
+        if (date == null) {
+            date = parseDate(text);
+            if (dateMemo.size() < DATE_MEMO_CAPACITY) {
+                dateMemo.put(text, date != null ? date : NOT_A_DATE);
+            }
+        } else if (date == NOT_A_DATE) {
+            date = null;
+        }
+
+        lastDateText = text;
+        lastDate = date;
+        return date;
+    }
+
+    /**
+     * Parses a statement date in one of the shapes statements use:
+     * <ul>
+     *   <li>{@code 23 May 25} or {@code 5 May 25}: day, short month name and two-digit year (20xx)</li>
+     *   <li>{@code 2025-05-23}</li>
+     *   <li>{@code 23/05/2025}</li>
+     * </ul>
+     * Resolved as the equivalent DateTimeFormatter patterns did. A day past the end of the month
+     * is clamped to the last day. A year below 100 in the numeric shapes is taken as 20xx.
+     *
+     * @return the date, or null if the text has none of these shapes or is not a valid date
+     */
+    public static LocalDate parseDate(CharSequence text) {
+        int length = text.length();
+
+        // Numeric shapes are exactly ten characters with separators in fixed places
+        if (length == 10) {
+            int year;
+            int month;
+            int day;
+            if (text.charAt(4) == '-' && text.charAt(7) == '-') {
+                year = digits(text, 0, 4);
+                month = digits(text, 5, 7);
+                day = digits(text, 8, 10);
+            } else if (text.charAt(2) == '/' && text.charAt(5) == '/') {
+                day = digits(text, 0, 2);
+                month = digits(text, 3, 5);
+                year = digits(text, 6, 10);
+            } else {
+                year = -1;
+                month = -1;
+                day = -1;
+            }
+            if (year >= 0 && month >= 0 && day >= 0) {
+                if (year < 100) {
+                    year += 2000; // Two-digit years written as four
+                }
+                return resolveDate(year, month, day);
+            }
+        }
+
+        // Otherwise: day, one space, month name, one space, two-digit year
+        int dayEnd = 0;
+        while (dayEnd < length && text.charAt(dayEnd) != ' ') {
+            dayEnd++;
+        }
+        int monthEnd = dayEnd + 1;
+        while (monthEnd < length && text.charAt(monthEnd) != ' ') {
+            monthEnd++;
+        }
+        if (monthEnd + 3 != length) {
+            return null;
+        }
+        return parseDayMonthYear(text, 0, dayEnd, dayEnd + 1, monthEnd, monthEnd + 1, length);
+    }
+
+    /**
+     * Parses a "d MMM yy" date whose three parts are already located in the text.
+     *
+     * @return the date in 2000-2099, or null if a part is malformed or the date is invalid
+     */
+    public static LocalDate parseDayMonthYear(CharSequence text, int dayStart, int dayEnd,
+                                              int monthStart, int monthEnd, int yearStart, int yearEnd) {
+        int dayLength = dayEnd - dayStart;
+        if (dayLength < 1 || dayLength > MAX_DAY_DIGITS || yearEnd - yearStart != 2) {
+            return null;
+        }
+
+        int day = 0;
+        for (int i = dayStart; i < dayEnd; i++) {
+            int digit = asciiDigit(text.charAt(i));
+            if (digit < 0) {
+                return null;
+            }
+            day = Math.min(day * 10 + digit, 100); // Anything past 31 is rejected by resolveDate
+        }
+
+        int month = parseMonthName(text, monthStart, monthEnd);
+        int year = digits(text, yearStart, yearEnd);
+        if (month < 0 || year < 0) {
+            return null;
+        }
+        return resolveDate(2000 + year, month, day);
+    }
+
+    /**
+     * Builds a date as DateTimeFormatter's SMART resolver does: month 1-12 and day 1-31, with a day
+     * past the end of the month clamped to its last day.
+     *
+     * @return the date, or null if a field is out of range
+     */
+    public static LocalDate resolveDate(int year, int month, int day) {
+        if (year < 1 || year > 9999 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return null;
+        }
+        YearMonth yearMonth = YearMonth.of(year, month);
+        return yearMonth.atDay(Math.min(day, yearMonth.lengthOfMonth()));
+    }
+
+    /**
+     * Parses an amount leniently, as statement exports write them ("R 1,500.00", "1500", "700.5"):
+     * ASCII digits and at most one decimal point are read, and currency symbols, thousands
+     * separators, spaces and signs are ignored.
+     *
+     * @return the amount in cents, or {@link #NOT_AN_AMOUNT} if there are no digits, more than one
+     * point, more than two decimals or too many digits for a long
+     */
+    public static long parseCents(CharSequence text, int start, int end) {
+        long unscaled = 0;
+        int digits = 0;
+        int decimals = -1; // -1 until the point is seen
+
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                unscaled = unscaled * 10 + (c - '0');
+                digits++;
+                if (decimals >= 0) {
+                    decimals++;
+                }
+                if (digits > MAX_LONG_DIGITS) {
+                    return NOT_AN_AMOUNT;
+                }
+            } else if (c == '.') {
+                if (decimals >= 0) {
+                    return NOT_AN_AMOUNT;
+                }
+                decimals = 0;
+            }
+        }
+
+        if (digits == 0 || decimals > 2 || (decimals < 0 ? digits : digits - decimals) > MAX_LONG_DIGITS - 2) {
+            return NOT_AN_AMOUNT;
+        }
+        for (int scale = Math.max(decimals, 0); scale < 2; scale++) {
+            unscaled *= 10;
+        }
+        return unscaled;
+    }
+
+    /**
+     * {@link #parseAmount(CharSequence, int, int)} over the whole text.
+     */
+    public static BigDecimal parseAmount(CharSequence text) {
+        return parseAmount(text, 0, text.length());
+    }
+
+    /**
+     * Parses an amount with the leniency of {@link #parseCents}. Amounts with up to two decimals
+     * come back with scale 2; longer ones keep every digit.
+     *
+     * @return the amount, or null if the text has no digits or more than one point
+     */
+    public static BigDecimal parseAmount(CharSequence text, int start, int end) {
+        long cents = parseCents(text, start, end);
+        if (cents != NOT_AN_AMOUNT) {
+            return centsToAmount(cents);
+        }
+
+        // Rare: more decimals or digits than cents hold. Keep what the fast path read.
+        char[] kept = new char[end - start];
+        int length = 0;
+        boolean hasDigits = false;
+        boolean hasPoint = false;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                kept[length++] = c;
+                hasDigits = true;
+            } else if (c == '.') {
+                if (hasPoint) {
+                    return null;
+                }
+                kept[length++] = c;
+                hasPoint = true;
+            }
+        }
+        return hasDigits ? new BigDecimal(kept, 0, length) : null;
+    }
+
+    public static BigDecimal centsToAmount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * Parses a number token exactly as {@code new BigDecimal(token.replace(",", ""))} would,
+     * including signs and exponents, without throwing for tokens that are not numbers.
+     *
+     * @return the number, or null if the token is not one
+     */
+    public static BigDecimal parseDecimal(CharSequence text, int start, int end) {
+        int i = skipCommas(text, start, end);
+        boolean negative = false;
+        if (i < end && (text.charAt(i) == '+' || text.charAt(i) == '-')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+
+        boolean hasDigits = false;
+        boolean hasPoint = false;
+        boolean asciiOnly = true;
+        long fractionDigits = 0;
+        long unscaled = 0;
+        int digits = 0;
+
+        for (; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == ',') {
+                continue;
+            }
+            if (Character.isDigit(c)) {
+                hasDigits = true;
+                if (hasPoint) {
+                    fractionDigits++;
+                }
+                if (c >= '0' && c <= '9' && digits < MAX_LONG_DIGITS) {
+                    unscaled = unscaled * 10 + (c - '0');
+                    digits++;
+                } else {
+                    asciiOnly = false; // Too long or non-ASCII digits: let BigDecimal build it
+                }
+            } else if (c == '.' && !hasPoint) {
+                hasPoint = true;
+            } else if (c == 'e' || c == 'E') {
+                return hasDigits && isExponent(text, i + 1, end, fractionDigits)
+                        ? exponentDecimal(text, start, end)
+                        : null;
+            } else {
+                return null;
+            }
+        }
+
+        if (!hasDigits) {
+            return null;
+        }
+        if (asciiOnly) {
+            return BigDecimal.valueOf(negative ? -unscaled : unscaled, (int) fractionDigits);
+        }
+        return toDecimal(text, start, end);
+    }
+
+    /**
+     * Whether the characters after an 'e' form an exponent that keeps the scale within int range.
+     */
+    private static boolean isExponent(CharSequence text, int start, int end, long fractionDigits) {
+        int i = skipCommas(text, start, end);
+        boolean negative = false;
+        if (i < end && (text.charAt(i) == '+' || text.charAt(i) == '-')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+
+        boolean hasDigits = false;
+        int significantDigits = 0;
+        long exponent = 0;
+
+        for (; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == ',') {
+                continue;
+            }
+            int digit = Character.digit(c, 10);
+            if (digit < 0) {
+                return false;
+            }
+            hasDigits = true;
+            if (significantDigits > 0 || digit != 0) {
+                if (++significantDigits > MAX_EXPONENT_DIGITS) {
+                    return false;
+                }
+                exponent = exponent * 10 + digit;
+            }
+        }
+
+        long scale = fractionDigits - (negative ? -exponent : exponent);
+        return hasDigits && scale == (int) scale;
+    }
+
+    /**
+     * Exponent bounds BigDecimal enforces differ between JDK releases (JDK 17 rejects an exponent
+     * beyond int range even when the scale fits), so whatever the running BigDecimal refuses is
+     * not a number here either, exactly as for a caught {@code new BigDecimal(token)}.
+     */
+    private static BigDecimal exponentDecimal(CharSequence text, int start, int end) {
+        try {
+            return toDecimal(text, start, end);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static BigDecimal toDecimal(CharSequence text, int start, int end) {
+        char[] chars = new char[end - start];
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c != ',') {
+                chars[length++] = c;
+            }
+        }
+        return new BigDecimal(chars, 0, length);
+    }
+
+    private static int skipCommas(CharSequence text, int i, int end) {
+        while (i < end && text.charAt(i) == ',') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int parseMonthName(CharSequence text, int start, int end) {
+        for (int m = 0; m < MONTH_NAMES.length; m++) {
+            String name = MONTH_NAMES[m];
+            if (name.length() == end - start && regionMatches(text, start, name)) {
+                return m + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean regionMatches(CharSequence text, int start, String literal) {
+        for (int i = 0; i < literal.length(); i++) {
+            if (text.charAt(start + i) != literal.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Value of a run of ASCII digits, or -1 if any character is not one
+     */
+    private static int digits(CharSequence text, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = asciiDigit(text.charAt(i));
+            if (digit < 0) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int asciiDigit(char c) {
+        return c >= '0' && c <= '9' ? c - '0' : -1;
+    }
+}
@@ -0,0 +1,103 @@
+package com.katlehouniversity.ecd.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Deterministic bank references for statement lines, so that uploading the same statement
+ * twice, or two statements that overlap, produces the same reference for the same line.
+ *
+ * A reference reads {@code 2025-05-23-70000-<24 hex digits>}: the transaction date, the amount
+ * in cents, and a SHA-256 prefix of the line's content (date, amount, description uppercased
+ * with whitespace collapsed, and balance when the format prints one). Identical lines within
+ * one statement, such as two equal payments from one parent on the same day, are told apart by
+ * their occurrence index, appended as {@code -1}, {@code -2} and so on from the second one.
+ *
+ * An instance counts occurrences over one statement and must see its lines in document order.
+ * Instances are not thread-safe.
+ */
+public final class StatementFingerprinter {
+
+    // 96 bits of the digest: collisions are negligible well past a lifetime of statements
+    private static final int HASH_BYTES = 12;
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final MessageDigest sha256;
+
+    // Lines seen so far, keyed by the first 64 bits of their content hash
+    private final Map<Long, Integer> occurrences = new HashMap<>();
+
+    public StatementFingerprinter() {
+        try {
+            this.sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Returns the reference for the next line of the statement.
+     *
+     * @param balance the balance printed on the line, or null if the format has none
+     */
+    public String bankReference(LocalDate date, BigDecimal amount, String description, BigDecimal balance) {
+        String content = date + "|" + canonical(amount) + "|" + normalizeDescription(description)
+                + "|" + (balance != null ? canonical(balance) : "-");
+        byte[] hash = sha256.digest(content.getBytes(StandardCharsets.UTF_8));
+
+        int occurrence = occurrences.merge(ByteBuffer.wrap(hash).getLong(), 1, Integer::sum) - 1;
+
+        StringBuilder reference = new StringBuilder(64)
+                .append(date)
+                .append('-')
+                .append(amount.setScale(2, RoundingMode.HALF_UP).unscaledValue())
+                .append('-')
+                .append(HEX.formatHex(hash, 0, HASH_BYTES));
+        if (occurrence > 0) {
+            reference.append('-').append(occurrence);
+        }
+        return reference.toString();
+    }
+
+    /**
+     * Uppercases the description and collapses whitespace, so reformatting the same statement
+     * (an export with different spacing or case) does not change its references.
+     */
+    static String normalizeDescription(String description) {
+        if (description == null) {
+            return "";
+        }
+        StringBuilder out = new StringBuilder(description.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < description.length(); i++) {
+            char c = description.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = out.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    out.append(' ');
+                    pendingSpace = false;
+                }
+                out.append(c);
+            }
+        }
+        return out.toString().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * The same value always hashes the same way: 700, 700.0 and 700.00 are one amount.
+     */
+    private static String canonical(BigDecimal value) {
+        return value.signum() == 0 ? "0" : value.stripTrailingZeros().toPlainString();
+    }
+}
@@ -0,0 +1,96 @@
+package com.katlehouniversity.ecd.benchmark;
+
+import com.katlehouniversity.ecd.util.SbsaLineTokenizer.SbsaLine;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The split/replaceAll SBSA line parser as it was before {@link com.katlehouniversity.ecd.util.SbsaLineTokenizer},
+ * kept as the baseline for {@link SbsaLineTokenizerBenchmark} and the equivalence tests.
+ * Returns the same fields the tokenizer does instead of a Transaction.
+ */
+public class LegacySbsaLineParser {
+
+    private static final List<DateTimeFormatter> DATE_FORMATTERS = Arrays.asList(
+            DateTimeFormatter.ofPattern("dd MMM yy"),
+            DateTimeFormatter.ofPattern("d MMM yy"),
+            DateTimeFormatter.ofPattern("yyyy-MM-dd"),
+            DateTimeFormatter.ofPattern("dd/MM/yyyy")
+    );
+
+    public SbsaLine parseSBSALine(String line) {
+        // Remove newlines and extra whitespace
+        line = line.replace("\n", " ").replaceAll("\\s+", " ").trim();
+
+        // Pattern: Date (dd MMM yy) + Description + Amount + Balance
+        String[] parts = line.split("\\s+");
+        if (parts.length < 5) {
+            return null;
+        }
+
+        try {
+            // Extract date (first 3 parts: "23 May 25")
+            String dateStr = parts[0] + " " + parts[1] + " " + parts[2];
+            LocalDate transactionDate = parseDate(dateStr);
+            if (transactionDate == null) {
+                return null;
+            }
+
+            // Find amounts (looking for numbers with commas and decimals)
+            BigDecimal amount = null;
+            BigDecimal balance = null;
+            int amountIndex = -1;
+
+            for (int i = parts.length - 1; i >= 3; i--) {
+                String cleanPart = parts[i].replaceAll(",", "");
+                try {
+                    BigDecimal num = new BigDecimal(cleanPart);
+                    if (balance == null) {
+                        balance = num;
+                    } else if (amount == null) {
+                        amount = num;
+                        amountIndex = i;
+                        break;
+                    }
+                } catch (NumberFormatException ignored) {
+                }
+            }
+
+            if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+                return null; // Skip debits or zero amounts
+            }
+
+            // Description is everything between date and amount
+            StringBuilder description = new StringBuilder();
+            for (int i = 3; i < amountIndex; i++) {
+                if (i > 3) description.append(" ");
+                description.append(parts[i]);
+            }
+
+            return new SbsaLine(transactionDate, description.toString(), amount, balance, line);
+
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private LocalDate parseDate(String dateStr) {
+        for (DateTimeFormatter formatter : DATE_FORMATTERS) {
+            try {
+                LocalDate date = LocalDate.parse(dateStr, formatter);
+                // Handle 2-digit years
+                if (date.getYear() < 100) {
+                    date = date.plusYears(2000);
+                }
+                return date;
+            } catch (DateTimeParseException ignored) {
+            }
+        }
+        return null;
+    }
+}
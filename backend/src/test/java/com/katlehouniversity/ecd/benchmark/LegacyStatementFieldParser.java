@@ -0,0 +1,47 @@
+package com.katlehouniversity.ecd.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * StatementUploadService's formatter-list date parsing and replaceAll amount parsing as they were
+ * before {@link com.katlehouniversity.ecd.util.StatementFieldParser}, kept as the baseline for
+ * {@link StatementFieldParserBenchmark} and the equivalence tests.
+ */
+public class LegacyStatementFieldParser {
+
+    private static final List<DateTimeFormatter> DATE_FORMATTERS = Arrays.asList(
+            DateTimeFormatter.ofPattern("dd MMM yy"),
+            DateTimeFormatter.ofPattern("d MMM yy"),
+            DateTimeFormatter.ofPattern("yyyy-MM-dd"),
+            DateTimeFormatter.ofPattern("dd/MM/yyyy")
+    );
+
+    public LocalDate parseDate(String dateStr) {
+        for (DateTimeFormatter formatter : DATE_FORMATTERS) {
+            try {
+                LocalDate date = LocalDate.parse(dateStr, formatter);
+                // Handle 2-digit years
+                if (date.getYear() < 100) {
+                    date = date.plusYears(2000);
+                }
+                return date;
+            } catch (DateTimeParseException ignored) {
+            }
+        }
+        return null;
+    }
+
+    public BigDecimal parseAmount(String amountStr) {
+        try {
+            String cleaned = amountStr.replaceAll("[^0-9.]", "");
+            return new BigDecimal(cleaned);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.katlehouniversity.ecd.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.katlehouniversity.ecd.service.MyUpdatesEmailParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the single-pass MyUpdates scanner with the previous regex-per-field parser.
+ * Each invocation parses every sample in {@link MyUpdatesEmailSamples}.
+ *
+ * Run with: see "Benchmarks" in the project README.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MyUpdatesEmailParserBenchmark {
+
+    private MyUpdatesEmailParser scanner;
+    private LegacyMyUpdatesEmailParser legacy;
+
+    @Setup
+    public void setUp() {
+        // Parse logging would dominate the measurement
+        ((Logger) LoggerFactory.getLogger(MyUpdatesEmailParser.class)).setLevel(Level.OFF);
+        ((Logger) LoggerFactory.getLogger(LegacyMyUpdatesEmailParser.class)).setLevel(Level.OFF);
+
+        scanner = new MyUpdatesEmailParser();
+        legacy = new LegacyMyUpdatesEmailParser();
+    }
+
+    @Benchmark
+    public void singlePassScanner(Blackhole blackhole) {
+        for (String body : MyUpdatesEmailSamples.BODIES) {
+            blackhole.consume(scanner.parseMyUpdatesEmail(body, MyUpdatesEmailSamples.SUBJECT));
+        }
+    }
+
+    @Benchmark
+    public void legacyRegexParser(Blackhole blackhole) {
+        for (String body : MyUpdatesEmailSamples.BODIES) {
+            blackhole.consume(legacy.parseMyUpdatesEmail(body, MyUpdatesEmailSamples.SUBJECT));
+        }
+    }
+
+    @Benchmark
+    public void extractStudentNumber(Blackhole blackhole) {
+        blackhole.consume(scanner.extractStudentNumber("STU-2025-014 feb"));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MyUpdatesEmailParserBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
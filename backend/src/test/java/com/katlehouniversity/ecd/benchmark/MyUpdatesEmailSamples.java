@@ -0,0 +1,57 @@
+package com.katlehouniversity.ecd.benchmark;
+
+/**
+ * Representative MyUpdates email bodies shared by the parser benchmark and tests.
+ */
+public final class MyUpdatesEmailSamples {
+
+    public static final String SUBJECT = "Standard Bank MyUpdates: Transaction Notification";
+
+    public static final String[] BODIES = {
+        // Plain forwarded notification
+        "You have received a payment\n"
+            + "Date: 15/01/2025\n"
+            + "Amount: R 1,500.00\n"
+            + "Reference: STU-2025-001 January Fee\n"
+            + "Balance: R 45,230.50\n",
+
+        // Gmail Apps Script forward with headers, description and sender
+        "---------- Forwarded message ---------\r\n"
+            + "From: Standard Bank <noreply@standardbank.co.za>\r\n"
+            + "Date: Wed, 15 Jan 2025 at 14:30\r\n"
+            + "Subject: MyUpdates\r\n"
+            + "\r\n"
+            + "Dear Client\r\n"
+            + "\r\n"
+            + "Payment received into your account ending 1234.\r\n"
+            + "Description: IB PAYMENT FROM T MOKOENA\r\n"
+            + "Date: 2025-01-15\r\n"
+            + "Amount: R2,450.00\r\n"
+            + "Reference: STU-2025-014 feb\r\n"
+            + "New Balance: R 102,004.75\r\n"
+            + "\r\n"
+            + "Standard Bank will never ask you for your PIN or password. If you did not make this "
+            + "transaction please call 0860 123 000 immediately.\r\n"
+            + "Standard Bank is a licensed financial services provider in terms of the Financial "
+            + "Advisory and Intermediary Services Act and a registered credit provider in terms of "
+            + "the National Credit Act, registration number NCRCP15.\r\n",
+
+        // Single-line Zapier payload, labels run together
+        "MyUpdates: Deposit Date:03-02-2025 Amount:R850.00 Reference:KXABA FEES MARCH Balance:R12,000.10 "
+            + "Description: Cash deposit Sender: Kelebogile Xaba",
+
+        // HTML-ish body with the transaction table near the end
+        "<html><body><p>Good day,</p><p>This is an automated message from Standard Bank. Please do not "
+            + "reply to this email. For queries contact your branch or visit www.standardbank.co.za.</p>"
+            + "<p>Your account has been debited.</p>\n"
+            + "Description: DEBIT ORDER INSURANCE\n"
+            + "Date: 28/02/2025\n"
+            + "Amount: R 350.00\n"
+            + "Reference: POLICY 99812\n"
+            + "Balance: R 9,120.00\n"
+            + "</body></html>",
+    };
+
+    private MyUpdatesEmailSamples() {
+    }
+}
@@ -0,0 +1,53 @@
+package com.katlehouniversity.ecd.benchmark;
+
+import com.katlehouniversity.ecd.util.SbsaLineTokenizer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the single-pass SBSA line tokenizer with the previous split/replaceAll parser.
+ * Each invocation parses every line in {@link SbsaStatementSamples}; run with {@code -prof gc}
+ * to compare allocation per line as well.
+ *
+ * Run with: see "Benchmarks" in the project README.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SbsaLineTokenizerBenchmark {
+
+    private LegacySbsaLineParser legacy;
+
+    @Setup
+    public void setUp() {
+        legacy = new LegacySbsaLineParser();
+    }
+
+    @Benchmark
+    public void singlePassTokenizer(Blackhole blackhole) {
+        for (String line : SbsaStatementSamples.LINES) {
+            blackhole.consume(SbsaLineTokenizer.tokenize(line));
+        }
+    }
+
+    @Benchmark
+    public void legacySplitParser(Blackhole blackhole) {
+        for (String line : SbsaStatementSamples.LINES) {
+            blackhole.consume(legacy.parseSBSALine(line));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SbsaLineTokenizerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
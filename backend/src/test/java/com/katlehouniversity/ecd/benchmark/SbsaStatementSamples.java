@@ -0,0 +1,37 @@
+package com.katlehouniversity.ecd.benchmark;
+
+/**
+ * Lines as they come out of an SBSA statement (CSV export or PDF text), shared by the
+ * tokenizer benchmark and tests. Mostly credits, with the header, debit, fee and
+ * continuation lines a real statement interleaves.
+ */
+public final class SbsaStatementSamples {
+
+    public static final String[] LINES = {
+        "Customer Care: 0860 123 000 Website: www.standardbank.co.za",
+        "Date Description Payments Deposits Balance",
+        "23 May 25 CAPITEC KELEBOGILE XABA 700.00 4,918.02",
+        "CREDIT TRANSFER",
+        "23 May 25 MAGTAPE CREDIT STU-2026-002 MOKOENA 900.00 5,818.02",
+        "24 May 25 IB PAYMENT TO ESKOM PREPAID -350.00 5,468.02",
+        "26 May 25 FEE: IMMEDIATE PAYMENT ## -9.50 5,458.52",
+        "\"27 May 25 ABSA BANK STU-2026-014 NKOSI JUNE FEE 1,250.00 6,708.52\nCREDIT TRANSFER\"",
+        "1 Jun 25 FNB OB PMT  STU-2026-021   DLAMINI 850.00 7,558.52",
+        "02 Jun 25 CASH DEPOSIT BRANCH 0417 2,000.00 9,558.52",
+        "03 Jun 25 MONTHLY MANAGEMENT FEE -75.00 9,483.52",
+        "05 Jun 25 TYME BANK STU-2026-007 700.00 10,183.52",
+        "05 Jun 25 CAPITEC M MOLEFE 2 CHILDREN 1,400.00 11,583.52",
+        "Transaction details continued",
+        "06 Jun 25 DEBIT ORDER SANLAM 0012345 -1,120.00 10,463.52",
+        "09 Jun 25 NEDBANK SEND IMALI 300.00 10,763.52",
+        "09 Jun 25 CAPITEC P MASEKO 0.00 10,763.52",
+        "10 Jun 25 CAPITEC THANDI VAN WYK 700.00 11,463.52 ",
+        "   11 Jun 25 INTEREST CAPITALISED 4.18 11,467.70",
+        "30 Jun 25 CAPITEC T MOKOENA JULY 900.00 12,367.70",
+        "31 Jun 25 CLOSING BALANCE 12,367.70",
+        "VAT Summary Total VAT charged 11.66",
+    };
+
+    private SbsaStatementSamples() {
+    }
+}
@@ -0,0 +1,88 @@
+package com.katlehouniversity.ecd.benchmark;
+
+import com.katlehouniversity.ecd.util.StatementFieldParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares shape-first date and amount parsing with the previous formatter-list and
+ * replaceAll/BigDecimal parsing, over the date and amount columns of a 1,000-row statement in
+ * date order. The memoized variant uses one parser instance per statement, as ingestion does.
+ *
+ * Run with: see "Benchmarks" in the project README.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatementFieldParserBenchmark {
+
+    private static final String[] AMOUNTS = {
+        "700.00", "R 1,500.00", "900", "4,918.02", "R2,450.75", "350.5", "12,367.70", "1 250.00",
+        "0.00", "-75.00", "850.00", "10,183.52", "R 700", "2,000.00",
+    };
+
+    private static final int ROWS = 1_000;
+
+    @Param({"yyyy-MM-dd", "d MMM yy"})
+    public String dateShape;
+
+    private LegacyStatementFieldParser legacy;
+    private String[] dates;
+    private String[] amounts;
+
+    @Setup
+    public void setUp() {
+        legacy = new LegacyStatementFieldParser();
+
+        // A statement's worth of rows in date order, about three per day
+        DateTimeFormatter format = DateTimeFormatter.ofPattern(dateShape);
+        LocalDate first = LocalDate.of(2025, 1, 1);
+        dates = new String[ROWS];
+        amounts = new String[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            dates[i] = first.plusDays(i / 3).format(format);
+            amounts[i] = AMOUNTS[i % AMOUNTS.length];
+        }
+    }
+
+    @Benchmark
+    public void shapeFirstParser(Blackhole blackhole) {
+        for (int i = 0; i < ROWS; i++) {
+            blackhole.consume(StatementFieldParser.parseDate(dates[i]));
+            blackhole.consume(StatementFieldParser.parseAmount(amounts[i]));
+        }
+    }
+
+    @Benchmark
+    public void shapeFirstParserMemoized(Blackhole blackhole) {
+        StatementFieldParser fields = new StatementFieldParser();
+        for (int i = 0; i < ROWS; i++) {
+            blackhole.consume(fields.date(dates[i]));
+            blackhole.consume(StatementFieldParser.parseAmount(amounts[i]));
+        }
+    }
+
+    @Benchmark
+    public void legacyFormatterParser(Blackhole blackhole) {
+        for (int i = 0; i < ROWS; i++) {
+            blackhole.consume(legacy.parseDate(dates[i]));
+            blackhole.consume(legacy.parseAmount(amounts[i]));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(StatementFieldParserBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,156 @@
+package com.katlehouniversity.ecd.benchmark;
+
+import ch.qos.logback.classic.Logger;
+import jakarta.persistence.*;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows per second for a 100k-transaction statement import, with IDENTITY ids (one INSERT
+ * round trip per row, as before) against pooled sequence ids with JDBC batching (as now).
+ *
+ * Rows are written the way StatementUploadService writes them: in chunks of 500, each chunk
+ * in its own transaction and cleared from the session afterwards. Both variants use the same
+ * Hibernate settings as application.yml against in-memory H2, so the gap on PostgreSQL, where
+ * every round trip crosses the network, is larger.
+ *
+ * Run with: see "Benchmarks" in the project README.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(StatementImportBenchmark.ROWS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class StatementImportBenchmark {
+
+    static final int ROWS = 100_000;
+    private static final int CHUNK_SIZE = 500;
+
+    @Param({"IDENTITY", "SEQUENCE"})
+    public String idGeneration;
+
+    private SessionFactory sessionFactory;
+    private Class<? extends ImportRow> rowType;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(ch.qos.logback.classic.Level.WARN);
+
+        rowType = "IDENTITY".equals(idGeneration) ? IdentityImportRow.class : SequenceImportRow.class;
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(rowType)
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:import_" + idGeneration + ";DB_CLOSE_DELAY=-1")
+                .setProperty("hibernate.connection.username", "sa")
+                .setProperty("hibernate.connection.password", "")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .setProperty("hibernate.jdbc.batch_size", "50")
+                .setProperty("hibernate.order_inserts", "true")
+                .setProperty("hibernate.order_updates", "true")
+                .buildSessionFactory();
+    }
+
+    @Setup(Level.Invocation)
+    public void emptyTable() {
+        sessionFactory.inTransaction(session ->
+                session.createMutationQuery("DELETE FROM " + rowType.getSimpleName()).executeUpdate());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public void importStatement() throws ReflectiveOperationException {
+        LocalDate statementStart = LocalDate.of(2025, 1, 1);
+
+        for (int chunkStart = 0; chunkStart < ROWS; chunkStart += CHUNK_SIZE) {
+            try (Session session = sessionFactory.openSession()) {
+                session.beginTransaction();
+                for (int i = chunkStart; i < chunkStart + CHUNK_SIZE; i++) {
+                    ImportRow row = rowType.getDeclaredConstructor().newInstance();
+                    row.bankReference = "CSV-" + i;
+                    row.amount = BigDecimal.valueOf(50_000 + i % 90_000, 2);
+                    row.transactionDate = statementStart.plusDays(i % 365);
+                    row.paymentReference = String.format("STU-2025-%03d", i % 400);
+                    row.description = "MAGTAPE CREDIT STU-2025-" + (i % 400) + " SCHOOL FEES";
+                    row.senderName = "PARENT " + (i % 400);
+                    row.status = "UNMATCHED";
+                    row.type = "CREDIT";
+                    session.persist(row);
+                }
+                session.getTransaction().commit();
+            }
+        }
+    }
+
+    @MappedSuperclass
+    public abstract static class ImportRow {
+
+        @Column(unique = true, nullable = false, length = 100)
+        String bankReference;
+
+        @Column(nullable = false, precision = 10, scale = 2)
+        BigDecimal amount;
+
+        @Column(nullable = false)
+        LocalDate transactionDate;
+
+        @Column(length = 200)
+        String paymentReference;
+
+        @Column(length = 200)
+        String description;
+
+        @Column(length = 100)
+        String senderName;
+
+        @Column(nullable = false, length = 20)
+        String status;
+
+        @Column(nullable = false, length = 20)
+        String type;
+
+        @CreationTimestamp
+        LocalDateTime createdAt;
+    }
+
+    @Entity(name = "IdentityImportRow")
+    @Table(name = "import_rows_identity")
+    public static class IdentityImportRow extends ImportRow {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        Long id;
+    }
+
+    @Entity(name = "SequenceImportRow")
+    @Table(name = "import_rows_sequence")
+    public static class SequenceImportRow extends ImportRow {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "import_rows_seq")
+        @SequenceGenerator(name = "import_rows_seq", sequenceName = "import_rows_seq", allocationSize = 50)
+        Long id;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(StatementImportBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,102 @@
+package com.katlehouniversity.ecd.scheduler;
+
+import com.katlehouniversity.ecd.dto.MyUpdatesWebhookPayload;
+import com.katlehouniversity.ecd.entity.WebhookQueueItem;
+import com.katlehouniversity.ecd.service.WebhookProcessingService;
+import com.katlehouniversity.ecd.service.WebhookQueueService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Webhook Queue Worker Tests")
+class WebhookQueueWorkerTest {
+
+    @Mock
+    private WebhookQueueService queueService;
+
+    @Mock
+    private WebhookProcessingService webhookService;
+
+    @Mock
+    private TaskExecutor webhookQueueExecutor;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private WebhookQueueWorker worker;
+    private WebhookQueueItem item;
+    private MyUpdatesWebhookPayload payload;
+
+    @BeforeEach
+    void setUp() {
+        worker = new WebhookQueueWorker(queueService, webhookService, webhookQueueExecutor, transactionTemplate);
+        item = WebhookQueueItem.builder()
+                .id(42L)
+                .body("Payment received")
+                .attempts(1)
+                .enqueuedAt(LocalDateTime.now())
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+        payload = MyUpdatesWebhookPayload.builder().body("Payment received").build();
+        when(queueService.toPayload(item)).thenReturn(payload);
+    }
+
+    @Test
+    @DisplayName("Should mark a processed item as done")
+    void testProcessed() {
+        worker.process(item);
+
+        verify(webhookService).processNotification(payload);
+        verify(queueService).markDone(42L);
+        verify(queueService, never()).markAttemptFailed(any(), anyString());
+    }
+
+    @Test
+    @DisplayName("Should schedule a retry without recording a failed notification while attempts remain")
+    void testRetryScheduled() {
+        runTransactionCallbacks();
+        doThrow(new IllegalStateException("Database unavailable")).when(webhookService).processNotification(payload);
+        when(queueService.markAttemptFailed(42L, "Database unavailable")).thenReturn(false);
+
+        worker.process(item);
+
+        verify(queueService).markAttemptFailed(42L, "Database unavailable");
+        verify(webhookService, never()).recordFailedNotification(any(), anyString());
+        verify(queueService, never()).markDone(any());
+    }
+
+    @Test
+    @DisplayName("Should record a failed notification once the item is out of attempts")
+    void testAttemptsExhausted() {
+        runTransactionCallbacks();
+        doThrow(new IllegalStateException("Database unavailable")).when(webhookService).processNotification(payload);
+        when(queueService.markAttemptFailed(42L, "Database unavailable")).thenReturn(true);
+
+        worker.process(item);
+
+        verify(webhookService).recordFailedNotification(payload, "Database unavailable");
+        verify(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runTransactionCallbacks() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+}
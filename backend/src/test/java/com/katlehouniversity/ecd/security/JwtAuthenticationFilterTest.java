@@ -0,0 +1,192 @@
+package com.katlehouniversity.ecd.security;
+
+import com.katlehouniversity.ecd.entity.User;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("JWT Authentication Filter Tests")
+class JwtAuthenticationFilterTest {
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    @Mock
+    private CustomUserDetailsService userDetailsService;
+
+    @Mock
+    private Claims claims;
+
+    @Mock
+    private ObjectProvider<AuthenticatedUserCache> cacheProvider;
+
+    private AuthenticatedUserCache authenticatedUserCache;
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        authenticatedUserCache = new AuthenticatedUserCache(userDetailsService);
+        ReflectionTestUtils.setField(authenticatedUserCache, "ttlSeconds", 60L);
+        filter = new JwtAuthenticationFilter(jwtUtil, authenticatedUserCache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should authenticate a valid token of an active user")
+    void testValidTokenAuthenticates() throws Exception {
+        givenToken("admin", List.of("ROLE_ADMIN"));
+        when(userDetailsService.loadUserByUsername("admin")).thenReturn(user("admin", "ROLE_ADMIN"));
+
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request(), new MockHttpServletResponse(), chain);
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals("admin", ((UserDetails) authentication.getPrincipal()).getUsername());
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    @DisplayName("Should serve the user of a repeated request from the cache")
+    void testSecondRequestServedFromCache() throws Exception {
+        givenToken("admin", List.of("ROLE_ADMIN"));
+        when(userDetailsService.loadUserByUsername("admin")).thenReturn(user("admin", "ROLE_ADMIN"));
+
+        filter.doFilter(request(), new MockHttpServletResponse(), new MockFilterChain());
+        SecurityContextHolder.clearContext();
+        filter.doFilter(request(), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(userDetailsService, times(1)).loadUserByUsername("admin");
+    }
+
+    @Test
+    @DisplayName("Should leave the request unauthenticated when the user is no longer active")
+    void testInactiveUserNotAuthenticated() throws Exception {
+        when(jwtUtil.parseToken("token")).thenReturn(claims);
+        when(claims.getSubject()).thenReturn("admin");
+        when(userDetailsService.loadUserByUsername("admin"))
+                .thenThrow(new UsernameNotFoundException("User not found with username: admin"));
+
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request(), new MockHttpServletResponse(), chain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    @DisplayName("Should not honour a token issued before the user's role changed")
+    void testRoleMismatchNotAuthenticated() throws Exception {
+        givenToken("admin", List.of("ROLE_ADMIN"));
+        when(userDetailsService.loadUserByUsername("admin")).thenReturn(user("admin", "ROLE_STAFF"));
+
+        filter.doFilter(request(), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    @DisplayName("Should evict a changed user only once the transaction commits")
+    void testEvictionDeferredUntilCommit() throws Exception {
+        givenToken("admin", List.of("ROLE_ADMIN"));
+        when(userDetailsService.loadUserByUsername("admin")).thenReturn(user("admin", "ROLE_ADMIN"));
+        when(cacheProvider.getObject()).thenReturn(authenticatedUserCache);
+        UserCacheEvictionListener listener = new UserCacheEvictionListener(cacheProvider);
+
+        filter.doFilter(request(), new MockHttpServletResponse(), new MockFilterChain());
+
+        TransactionSynchronizationManager.initSynchronization();
+        listener.onUserChanged(User.builder().username("admin").build());
+
+        // Still cached while the change is uncommitted
+        authenticatedUserCache.get("admin");
+        verify(userDetailsService, times(1)).loadUserByUsername("admin");
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+
+        authenticatedUserCache.get("admin");
+        verify(userDetailsService, times(2)).loadUserByUsername("admin");
+    }
+
+    @Test
+    @DisplayName("Should not cache a user loaded while an eviction happened")
+    void testLoadRacingEvictionNotCached() {
+        when(userDetailsService.loadUserByUsername("admin")).thenAnswer(invocation -> {
+            // The change commits while the old row is being read
+            authenticatedUserCache.evict("admin");
+            return user("admin", "ROLE_ADMIN");
+        });
+
+        authenticatedUserCache.get("admin");
+        authenticatedUserCache.get("admin");
+
+        verify(userDetailsService, times(2)).loadUserByUsername("admin");
+    }
+
+    @Test
+    @DisplayName("Should reject an invalid token with 401")
+    void testInvalidTokenRejected() throws Exception {
+        when(jwtUtil.parseToken("token")).thenThrow(new IllegalArgumentException("Bad signature"));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request(), response, chain);
+
+        assertEquals(401, response.getStatus());
+        assertNull(chain.getRequest());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    private void givenToken(String username, List<String> roles) {
+        when(jwtUtil.parseToken("token")).thenReturn(claims);
+        when(claims.getSubject()).thenReturn(username);
+        when(jwtUtil.extractRoles(claims)).thenReturn(roles);
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/children");
+        request.addHeader("Authorization", "Bearer token");
+        return request;
+    }
+
+    private static UserDetails user(String username, String role) {
+        return org.springframework.security.core.userdetails.User.builder()
+                .username(username)
+                .password("encoded")
+                .authorities(role)
+                .build();
+    }
+}
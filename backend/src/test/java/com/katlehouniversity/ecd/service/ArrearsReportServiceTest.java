@@ -0,0 +1,186 @@
+package com.katlehouniversity.ecd.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.katlehouniversity.ecd.dto.ArrearsAgingRowDto;
+import com.katlehouniversity.ecd.entity.Child;
+import com.katlehouniversity.ecd.entity.Payment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("dev")
+@DisplayName("Arrears Report Service Tests")
+class ArrearsReportServiceTest {
+
+    private static final BigDecimal FEE = new BigDecimal("1000.00");
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ArrearsReportService arrearsReportService;
+
+    private final YearMonth now = YearMonth.now();
+    private Child longStanding;
+    private Child recentlyEnrolled;
+
+    @BeforeEach
+    void setUp() {
+        arrearsReportService = new ArrearsReportService(dataSource, transactionManager, new ObjectMapper(), null);
+
+        // Paid four months ago, nothing three months ago, part of two months ago, nothing since
+        longStanding = entityManager.persist(child("STU-2025-001", FEE, null, Child.StudentStatus.ACTIVE));
+        entityManager.persist(payment(longStanding, now.minusMonths(4), "1000.00"));
+        entityManager.persist(payment(longStanding, now.minusMonths(2), "400.00"));
+
+        // Enrolled mid last month, never paid
+        recentlyEnrolled = entityManager.persist(child("STU-2025-002", new BigDecimal("500.00"),
+                now.minusMonths(1).atDay(15), Child.StudentStatus.ACTIVE));
+
+        // Paid up, so left out of the report
+        Child paidUp = entityManager.persist(child("STU-2025-003", FEE, now.atDay(1), Child.StudentStatus.ACTIVE));
+        entityManager.persist(payment(paidUp, now, "1000.00"));
+
+        // Owes, but no longer enrolled
+        entityManager.persist(child("STU-2025-004", FEE, null, Child.StudentStatus.WITHDRAWN));
+
+        entityManager.flush();
+    }
+
+    @Test
+    @DisplayName("Should bucket each month's debt by its age, largest debtor first")
+    void testAgingBucketsAndOrder() {
+        List<ArrearsAgingRowDto> rows = report(now.minusMonths(4), now);
+
+        assertEquals(2, rows.size());
+
+        ArrearsAgingRowDto first = rows.get(0);
+        assertEquals(longStanding.getId(), first.getChildId());
+        assertAmount("1000.00", first.getCurrent());
+        assertAmount("1000.00", first.getDays30());
+        assertAmount("600.00", first.getDays60());
+        assertAmount("1000.00", first.getDays90Plus());
+        assertAmount("3600.00", first.getTotalOwed());
+        assertEquals(4, first.getMonthsOwing());
+        assertEquals(now.minusMonths(3).toString(), first.getOldestUnpaidPeriod());
+
+        assertEquals(recentlyEnrolled.getId(), rows.get(1).getChildId());
+    }
+
+    @Test
+    @DisplayName("Should not bill months before a student's enrolment")
+    void testMonthsBeforeEnrolmentExcluded() {
+        ArrearsAgingRowDto row = report(now.minusMonths(4), now).get(1);
+
+        assertEquals(recentlyEnrolled.getId(), row.getChildId());
+        assertAmount("500.00", row.getCurrent());
+        assertAmount("500.00", row.getDays30());
+        assertAmount("0", row.getDays60());
+        assertAmount("0", row.getDays90Plus());
+        assertAmount("1000.00", row.getTotalOwed());
+        assertEquals(2, row.getMonthsOwing());
+        assertEquals(now.minusMonths(1).toString(), row.getOldestUnpaidPeriod());
+    }
+
+    @Test
+    @DisplayName("Should stop the range at the current month and age debts from there")
+    void testAsOfCappedAtCurrentMonth() {
+        YearMonth future = now.plusMonths(2);
+        assertEquals(now, ArrearsReportService.asOf(future));
+
+        List<ArrearsAgingRowDto> rows = report(now.minusMonths(4), future);
+
+        assertAmount("3600.00", rows.get(0).getTotalOwed());
+        assertAmount("1000.00", rows.get(0).getCurrent());
+        assertAmount("1000.00", rows.get(1).getTotalOwed());
+    }
+
+    @Test
+    @DisplayName("Should age debts relative to the end of a past range")
+    void testAgingRelativeToPastRange() {
+        List<ArrearsAgingRowDto> rows = report(now.minusMonths(4), now.minusMonths(2));
+
+        assertEquals(1, rows.size());
+        ArrearsAgingRowDto row = rows.get(0);
+        assertEquals(longStanding.getId(), row.getChildId());
+        assertAmount("600.00", row.getCurrent());
+        assertAmount("1000.00", row.getDays30());
+        assertAmount("0", row.getDays60());
+        assertAmount("0", row.getDays90Plus());
+        assertAmount("1600.00", row.getTotalOwed());
+        assertEquals(now.minusMonths(3).toString(), row.getOldestUnpaidPeriod());
+    }
+
+    @Test
+    @DisplayName("Should decode the oldest unpaid month across a year boundary")
+    void testOldestPeriodAcrossYears() {
+        YearMonth from = YearMonth.of(now.getYear() - 1, 11);
+        Child child = entityManager.persist(child("STU-2025-005", FEE, from.atDay(1), Child.StudentStatus.ACTIVE));
+        entityManager.flush();
+
+        ArrearsAgingRowDto row = report(from, now).stream()
+                .filter(candidate -> candidate.getChildId().equals(child.getId()))
+                .findFirst()
+                .orElseThrow();
+
+        assertEquals(from.toString(), row.getOldestUnpaidPeriod());
+        assertEquals(from.until(now, ChronoUnit.MONTHS) + 1, row.getMonthsOwing());
+    }
+
+    private List<ArrearsAgingRowDto> report(YearMonth from, YearMonth to) {
+        List<ArrearsAgingRowDto> rows = new ArrayList<>();
+        arrearsReportService.forEachRow(from, to, rows::add);
+        return rows;
+    }
+
+    private static void assertAmount(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), () -> expected + " != " + actual);
+    }
+
+    private static Child child(String studentNumber, BigDecimal fee, LocalDate enrollmentDate,
+                               Child.StudentStatus status) {
+        return Child.builder()
+                .studentNumber(studentNumber)
+                .firstName("Lerato")
+                .lastName("Mokoena")
+                .monthlyFee(fee)
+                .academicYear("2025")
+                .enrollmentDate(enrollmentDate)
+                .status(status)
+                .build();
+    }
+
+    private static Payment payment(Child child, YearMonth period, String amountPaid) {
+        BigDecimal amount = new BigDecimal(amountPaid);
+        return Payment.builder()
+                .child(child)
+                .paymentMonth(period.getMonthValue())
+                .paymentYear(period.getYear())
+                .amountPaid(amount)
+                .expectedAmount(child.getMonthlyFee())
+                .paymentDate(period.atDay(3))
+                .status(Payment.resolveStatus(amount, child.getMonthlyFee(), Payment.PaymentStatus.PENDING))
+                .build();
+    }
+}
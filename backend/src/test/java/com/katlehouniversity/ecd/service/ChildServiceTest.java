@@ -11,6 +11,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
@@ -28,6 +29,9 @@ class ChildServiceTest {
     @Mock
     private ChildRepository childRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ChildService childService;
 
@@ -112,6 +116,7 @@ class ChildServiceTest {
         assertNotNull(result);
         assertEquals("John", result.getFirstName());
         verify(childRepository, times(1)).save(any(Child.class));
+        verify(eventPublisher, times(1)).publishEvent(any(ChildChangedEvent.class));
     }
 
     @Test
@@ -0,0 +1,171 @@
+package com.katlehouniversity.ecd.service;
+
+import com.katlehouniversity.ecd.entity.MonthlyCollectionSummary;
+import com.katlehouniversity.ecd.entity.Payment;
+import com.katlehouniversity.ecd.repository.ChildRepository;
+import com.katlehouniversity.ecd.repository.MonthlyCollectionSummaryRepository;
+import com.katlehouniversity.ecd.repository.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Monthly Collection Summary Service Tests")
+class MonthlyCollectionSummaryServiceTest {
+
+    @Mock
+    private MonthlyCollectionSummaryRepository summaryRepository;
+
+    @Mock
+    private ChildRepository childRepository;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MonthlyCollectionSummaryService summaryService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        summaryService = new MonthlyCollectionSummaryService(summaryRepository, childRepository,
+                paymentRepository, transactionTemplate, transactionManager);
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    @DisplayName("Should add a payment change to its month without recalculating")
+    void testPaymentDeltaApplied() {
+        when(summaryRepository.addCollected(2025, 5, new BigDecimal("500.00"), 1)).thenReturn(1);
+
+        summaryService.onPaymentChanged(PaymentChangedEvent.forPayment(5, 2025, true,
+                new BigDecimal("500.00"), false, true));
+
+        verify(summaryRepository).addCollected(2025, 5, new BigDecimal("500.00"), 1);
+        verifyNoInteractions(childRepository, paymentRepository);
+    }
+
+    @Test
+    @DisplayName("Should calculate a month's row on its first write, then add the change")
+    void testFirstWriteCreatesSummary() {
+        when(summaryRepository.addCollected(2025, 5, new BigDecimal("500.00"), 0)).thenReturn(0, 1);
+        when(childRepository.getActiveFeeTotals()).thenReturn(feeTotals(10L, new BigDecimal("15000.00")));
+        when(paymentRepository.getActiveCollectionForMonth(5, 2025))
+                .thenReturn(collection(new BigDecimal("3000.00"), 2L));
+
+        summaryService.onPaymentChanged(PaymentChangedEvent.forPayment(5, 2025, true,
+                new BigDecimal("500.00"), false, false));
+
+        verify(summaryRepository).saveAndFlush(argThat(summary ->
+                summary.getPaymentYear() == 2025 && summary.getPaymentMonth() == 5
+                        && summary.getTotalCollected().compareTo(new BigDecimal("3000.00")) == 0
+                        && summary.getOwingCount() == 8L));
+        verify(summaryRepository, times(2)).addCollected(2025, 5, new BigDecimal("500.00"), 0);
+    }
+
+    @Test
+    @DisplayName("Should ignore payments of students who are not active")
+    void testInactiveStudentIgnored() {
+        summaryService.onPaymentChanged(PaymentChangedEvent.forPayment(5, 2025, false,
+                new BigDecimal("500.00"), false, true));
+
+        verifyNoInteractions(summaryRepository, transactionTemplate);
+    }
+
+    @Test
+    @DisplayName("Should ignore student changes that leave fee and status alone")
+    void testNameChangeIgnored() {
+        BigDecimal fee = new BigDecimal("1500.00");
+
+        summaryService.onChildChanged(ChildChangedEvent.between(1L, true, fee, true, fee));
+
+        verifyNoInteractions(summaryRepository, paymentRepository, transactionTemplate);
+    }
+
+    @Test
+    @DisplayName("Should apply a fee change to every month's expected total")
+    void testFeeChangeApplied() {
+        summaryService.onChildChanged(ChildChangedEvent.between(1L, true, new BigDecimal("1500.00"),
+                true, new BigDecimal("1600.00")));
+
+        verify(summaryRepository).addExpected(new BigDecimal("100.00"), 0);
+        verify(summaryRepository, never()).addCollected(anyInt(), anyInt(), any(), anyLong());
+        verifyNoInteractions(paymentRepository);
+    }
+
+    @Test
+    @DisplayName("Should take a withdrawn student's fee and payments out of the totals")
+    void testWithdrawalApplied() {
+        BigDecimal fee = new BigDecimal("1500.00");
+        when(paymentRepository.findByChildId(1L)).thenReturn(List.of(
+                payment(4, 2025, "1500.00", fee),
+                payment(5, 2025, "700.00", fee)));
+        when(summaryRepository.addCollected(anyInt(), anyInt(), any(), anyLong())).thenReturn(1);
+
+        summaryService.onChildChanged(ChildChangedEvent.between(1L, true, fee, false, fee));
+
+        verify(summaryRepository).addCollected(2025, 4, new BigDecimal("-1500.00"), -1);
+        verify(summaryRepository).addCollected(2025, 5, new BigDecimal("-700.00"), 0);
+        verify(summaryRepository).addExpected(new BigDecimal("-1500.00"), -1);
+    }
+
+    private static Payment payment(int month, int year, String amountPaid, BigDecimal expected) {
+        return Payment.builder()
+                .paymentMonth(month)
+                .paymentYear(year)
+                .amountPaid(new BigDecimal(amountPaid))
+                .expectedAmount(expected)
+                .build();
+    }
+
+    private static ChildRepository.ActiveFeeTotalsView feeTotals(Long activeChildren, BigDecimal totalFees) {
+        return new ChildRepository.ActiveFeeTotalsView() {
+            @Override
+            public Long getActiveChildren() {
+                return activeChildren;
+            }
+
+            @Override
+            public BigDecimal getTotalFees() {
+                return totalFees;
+            }
+        };
+    }
+
+    private static PaymentRepository.MonthCollectionView collection(BigDecimal totalCollected, Long paidCount) {
+        return new PaymentRepository.MonthCollectionView() {
+            @Override
+            public BigDecimal getTotalCollected() {
+                return totalCollected;
+            }
+
+            @Override
+            public Long getPaidCount() {
+                return paidCount;
+            }
+        };
+    }
+}
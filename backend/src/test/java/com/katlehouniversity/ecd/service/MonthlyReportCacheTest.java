@@ -0,0 +1,116 @@
+package com.katlehouniversity.ecd.service;
+
+import com.katlehouniversity.ecd.dto.MonthlyReportDto;
+import com.katlehouniversity.ecd.repository.MonthlyCollectionSummaryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Monthly Report Cache Tests")
+class MonthlyReportCacheTest {
+
+    @Mock
+    private ReportService reportService;
+
+    @Mock
+    private MonthlyCollectionSummaryRepository summaryRepository;
+
+    private MonthlyReportCache reportCache;
+
+    @BeforeEach
+    void setUp() {
+        reportCache = new MonthlyReportCache(reportService, summaryRepository, 24, 300);
+        lenient().when(reportService.generateMonthlyReport(anyInt(), anyInt()))
+                .thenAnswer(invocation -> MonthlyReportDto.builder()
+                        .month(invocation.getArgument(0))
+                        .year(invocation.getArgument(1))
+                        .build());
+        lenient().when(summaryRepository.findRevision(anyInt(), anyInt())).thenReturn(Optional.of(1L));
+    }
+
+    @Test
+    @DisplayName("Should generate a month's report once while nothing changes")
+    void testReuseUntilChanged() {
+        MonthlyReportCache.CachedReport first = reportCache.get(5, 2025);
+        MonthlyReportCache.CachedReport second = reportCache.get(5, 2025);
+
+        assertSame(first.report(), second.report());
+        assertEquals(first.eTag(), second.eTag());
+        verify(reportService, times(1)).generateMonthlyReport(5, 2025);
+    }
+
+    @Test
+    @DisplayName("Should regenerate a month whose summary revision moved, whichever instance moved it")
+    void testRevisionChangeInvalidatesMonth() {
+        MonthlyReportCache.CachedReport may = reportCache.get(5, 2025);
+        MonthlyReportCache.CachedReport june = reportCache.get(6, 2025);
+
+        when(summaryRepository.findRevision(2025, 5)).thenReturn(Optional.of(2L));
+
+        MonthlyReportCache.CachedReport changed = reportCache.get(5, 2025);
+        assertNotSame(may.report(), changed.report());
+        assertNotEquals(may.eTag(), changed.eTag());
+        assertSame(june.report(), reportCache.get(6, 2025).report());
+    }
+
+    @Test
+    @DisplayName("Should regenerate only the month whose payments changed on this instance")
+    void testPaymentChangeInvalidatesMonth() {
+        MonthlyReportCache.CachedReport may = reportCache.get(5, 2025);
+        MonthlyReportCache.CachedReport june = reportCache.get(6, 2025);
+
+        reportCache.onPaymentChanged(PaymentChangedEvent.forPayment(5, 2025, false, new BigDecimal("500.00"), false, true));
+
+        assertNotEquals(may.eTag(), reportCache.get(5, 2025).eTag());
+        assertEquals(june.eTag(), reportCache.get(6, 2025).eTag());
+    }
+
+    @Test
+    @DisplayName("Should regenerate every month after a student change")
+    void testChildChangeInvalidatesAllMonths() {
+        String may = reportCache.get(5, 2025).eTag();
+        String june = reportCache.get(6, 2025).eTag();
+
+        BigDecimal fee = new BigDecimal("1500.00");
+        reportCache.onChildChanged(ChildChangedEvent.between(1L, true, fee, true, fee));
+
+        assertNotEquals(may, reportCache.get(5, 2025).eTag());
+        assertNotEquals(june, reportCache.get(6, 2025).eTag());
+        verify(reportService, times(2)).generateMonthlyReport(6, 2025);
+    }
+
+    @Test
+    @DisplayName("Should regenerate a report once it has expired")
+    void testExpiredReportRegenerated() throws InterruptedException {
+        reportCache = new MonthlyReportCache(reportService, summaryRepository, 24, 0);
+
+        MonthlyReportCache.CachedReport first = reportCache.get(5, 2025);
+        Thread.sleep(5);
+
+        assertNotSame(first.report(), reportCache.get(5, 2025).report());
+        verify(reportService, times(2)).generateMonthlyReport(5, 2025);
+    }
+
+    @Test
+    @DisplayName("Should cache a month that has no summary yet until one is created")
+    void testMissingSummaryCachedUntilCreated() {
+        when(summaryRepository.findRevision(2025, 5)).thenReturn(Optional.empty());
+        MonthlyReportCache.CachedReport first = reportCache.get(5, 2025);
+        assertSame(first.report(), reportCache.get(5, 2025).report());
+
+        when(summaryRepository.findRevision(2025, 5)).thenReturn(Optional.of(1L));
+
+        assertNotSame(first.report(), reportCache.get(5, 2025).report());
+    }
+}
@@ -0,0 +1,102 @@
+package com.katlehouniversity.ecd.service;
+
+import com.katlehouniversity.ecd.benchmark.LegacyMyUpdatesEmailParser;
+import com.katlehouniversity.ecd.benchmark.MyUpdatesEmailSamples;
+import com.katlehouniversity.ecd.dto.ParsedEmailNotification;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("MyUpdates Email Parser Tests")
+class MyUpdatesEmailParserTest {
+
+    private final MyUpdatesEmailParser parser = new MyUpdatesEmailParser();
+    private final LegacyMyUpdatesEmailParser legacy = new LegacyMyUpdatesEmailParser();
+
+    @Test
+    @DisplayName("Should extract every field from a standard notification")
+    void testParseStandardNotification() {
+        ParsedEmailNotification result = parser.parseMyUpdatesEmail(MyUpdatesEmailSamples.BODIES[0], "Payment received");
+
+        assertTrue(result.isValid());
+        assertEquals(LocalDateTime.of(2025, 1, 15, 0, 0), result.getTransactionDate());
+        assertEquals(new BigDecimal("1500.00"), result.getAmount());
+        assertEquals(new BigDecimal("45230.50"), result.getBalance());
+        assertEquals("STU-2025-001 January Fee", result.getReference());
+        assertEquals("CREDIT", result.getTransactionType());
+        assertEquals("STU-2025-001", parser.extractStudentNumber(result.getReference()));
+    }
+
+    @Test
+    @DisplayName("Should produce the same result as the regex parser on sample emails")
+    void testMatchesLegacyParserOnSamples() {
+        for (String body : MyUpdatesEmailSamples.BODIES) {
+            assertEquals(legacy.parseMyUpdatesEmail(body, MyUpdatesEmailSamples.SUBJECT),
+                    parser.parseMyUpdatesEmail(body, MyUpdatesEmailSamples.SUBJECT), body);
+            assertEquals(legacy.parseMyUpdatesEmail(body, null), parser.parseMyUpdatesEmail(body, null), body);
+        }
+    }
+
+    @Test
+    @DisplayName("Should treat only ASCII letters, digits and underscore as word characters")
+    void testKeywordBoundariesAreAscii() {
+        assertEquals("CREDIT", parser.parseMyUpdatesEmail("debit", "\u00e9credit").getTransactionType());
+        assertEquals("CREDIT", parser.parseMyUpdatesEmail("debit", "\u4e2dcredit\u00e9").getTransactionType());
+        assertEquals("DEBIT", parser.parseMyUpdatesEmail("debit", "_credit").getTransactionType());
+        assertEquals("DEBIT", parser.parseMyUpdatesEmail("debit", "credit1").getTransactionType());
+        assertEquals("DEBIT", parser.parseMyUpdatesEmail("withdrawal\u00e9", null).getTransactionType());
+        assertEquals("CREDIT", parser.parseMyUpdatesEmail("withdrawal \u00e9deposit", null).getTransactionType());
+    }
+
+    @Test
+    @DisplayName("Should produce the same result as the regex parser on generated edge cases")
+    void testMatchesLegacyParserOnGeneratedBodies() {
+        // ASCII only next to keywords: whether \b sees a non-ASCII letter as a word character
+        // depends on the JDK, and the boundary rule is pinned by testKeywordBoundariesAreAscii
+        String[] fragments = {
+            "Date:", "date: ", "UPDATE:", "Amount:", "amount: R", "Balance:", "New Balance: r ",
+            "Reference:", "reference:\n", "Description:", "From:", "sender: ", "Sender:\n\n",
+            "15/01/2025", "2025-01-15", "15-01-2025", "15/01-2025", "31/02/2024", "00/01/2025",
+            "15/13/2025", "01/01/0000", "1,500.00", "1500.0", ",.00", "R 2,450.75", "99",
+            "STU-2025-001", "January Fee", "payment received", "Payment Sent", "debit", "credited",
+            "withdrawal", "_credit", "deposit1", " ", "  ", "\t", "\n", "\r\n", "\r", "\u000B",
+            "\f", "\u0085", "\u2028", "\u2029", "#credit", "x", "-", "/", "."
+        };
+        Random random = new Random(20250115L);
+
+        for (int i = 0; i < 20_000; i++) {
+            StringBuilder body = new StringBuilder();
+            int parts = 1 + random.nextInt(12);
+            for (int p = 0; p < parts; p++) {
+                body.append(fragments[random.nextInt(fragments.length)]);
+            }
+            String subject = random.nextInt(4) == 0 ? null : fragments[random.nextInt(fragments.length)];
+
+            assertEquals(legacy.parseMyUpdatesEmail(body.toString(), subject),
+                    parser.parseMyUpdatesEmail(body.toString(), subject),
+                    () -> "body=" + escape(body.toString()) + " subject=" + subject);
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject an empty body")
+    void testParseEmptyBody() {
+        ParsedEmailNotification result = parser.parseMyUpdatesEmail("  ", null);
+
+        assertFalse(result.isValid());
+        assertEquals("Email body is empty", result.getErrorMessage());
+    }
+
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder();
+        for (char c : text.toCharArray()) {
+            escaped.append(c < 0x20 || c > 0x7e ? String.format("\\u%04x", (int) c) : String.valueOf(c));
+        }
+        return escaped.toString();
+    }
+}
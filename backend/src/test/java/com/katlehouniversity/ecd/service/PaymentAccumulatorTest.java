@@ -0,0 +1,151 @@
+package com.katlehouniversity.ecd.service;
+
+import com.katlehouniversity.ecd.entity.Child;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("dev")
+@Import(PaymentAccumulator.class)
+@DisplayName("Payment Accumulator Tests")
+class PaymentAccumulatorTest {
+
+    private static final BigDecimal FEE = new BigDecimal("1500.00");
+
+    @Autowired
+    private PaymentAccumulator paymentAccumulator;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Should insert the month's payment on its first credit")
+    void testFirstCreditInserts() {
+        long childId = entityManager.persistAndFlush(child("STU-2025-001")).getId();
+
+        PaymentAccumulator.Credited credited = paymentAccumulator.accumulate(credit(childId, "500.00"));
+
+        assertNotNull(credited.payment().getId());
+        assertFalse(credited.settledBefore());
+        assertFalse(credited.settledAfter());
+        Map<String, Object> row = paymentRow(childId);
+        assertEquals(0, new BigDecimal("500.00").compareTo((BigDecimal) row.get("amount_paid")));
+        assertEquals("PARTIAL", row.get("status"));
+        assertEquals(credited.payment().getId(), ((Number) row.get("id")).longValue());
+    }
+
+    @Test
+    @DisplayName("Should add credits to the month until it is paid")
+    void testCreditsAccumulateToPaid() {
+        long childId = entityManager.persistAndFlush(child("STU-2025-002")).getId();
+
+        PaymentAccumulator.Credited first = paymentAccumulator.accumulate(credit(childId, "500.00"));
+        assertEquals("PARTIAL", paymentRow(childId).get("status"));
+
+        PaymentAccumulator.Credited settling = paymentAccumulator.accumulate(credit(childId, "1000.00"));
+        assertEquals(first.payment().getId(), settling.payment().getId());
+        assertFalse(settling.settledBefore());
+        assertTrue(settling.settledAfter());
+        assertEquals("PAID", paymentRow(childId).get("status"));
+
+        PaymentAccumulator.Credited overpaid = paymentAccumulator.accumulate(credit(childId, "200.00"));
+        assertTrue(overpaid.settledBefore());
+        assertTrue(overpaid.settledAfter());
+
+        Map<String, Object> row = paymentRow(childId);
+        assertEquals(0, new BigDecimal("1700.00").compareTo((BigDecimal) row.get("amount_paid")));
+        assertEquals("PAID", row.get("status"));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Should not lose either of two concurrent credits to the same month")
+    void testConcurrentCreditsNotLost() throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long childId = transaction.execute(status -> entityManager.persistAndFlush(child("STU-2025-003")).getId());
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<PaymentAccumulator.Credited>> results = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return transaction.execute(status -> paymentAccumulator.accumulate(credit(childId, "750.00")));
+                }));
+            }
+            start.countDown();
+
+            int settled = 0;
+            for (Future<PaymentAccumulator.Credited> result : results) {
+                PaymentAccumulator.Credited credited = result.get(30, TimeUnit.SECONDS);
+                if (!credited.settledBefore() && credited.settledAfter()) {
+                    settled++;
+                }
+            }
+
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                    "SELECT amount_paid, status FROM payments WHERE child_id = ?", childId);
+            assertEquals(1, rows.size());
+            assertEquals(0, FEE.compareTo((BigDecimal) rows.get(0).get("amount_paid")));
+            assertEquals("PAID", rows.get(0).get("status"));
+            // Exactly one of the two credits is the one that settled the month
+            assertEquals(1, settled);
+        } finally {
+            executor.shutdownNow();
+            transaction.executeWithoutResult(status -> {
+                jdbcTemplate.update("DELETE FROM payments WHERE child_id = ?", childId);
+                jdbcTemplate.update("DELETE FROM students WHERE id = ?", childId);
+            });
+        }
+    }
+
+    private Map<String, Object> paymentRow(long childId) {
+        return jdbcTemplate.queryForMap("SELECT id, amount_paid, status FROM payments " +
+                "WHERE child_id = ? AND payment_month = 5 AND payment_year = 2025", childId);
+    }
+
+    private static PaymentAccumulator.Credit credit(long childId, String amount) {
+        return new PaymentAccumulator.Credit(childId, 5, 2025, new BigDecimal(amount), FEE,
+                LocalDate.of(2025, 5, 3), null, "REF-" + amount, true);
+    }
+
+    private static Child child(String studentNumber) {
+        return Child.builder()
+                .studentNumber(studentNumber)
+                .firstName("Lerato")
+                .lastName("Mokoena")
+                .monthlyFee(FEE)
+                .academicYear("2025")
+                .build();
+    }
+}
@@ -0,0 +1,126 @@
+package com.katlehouniversity.ecd.service;
+
+import com.katlehouniversity.ecd.entity.Child;
+import com.katlehouniversity.ecd.entity.Payment;
+import com.katlehouniversity.ecd.entity.Transaction;
+import com.katlehouniversity.ecd.repository.ChildRepository;
+import com.katlehouniversity.ecd.repository.PaymentRepository;
+import com.katlehouniversity.ecd.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("dev")
+@Import(PaymentAccumulator.class)
+@DisplayName("Payment Matching Service Tests")
+class PaymentMatchingServiceTest {
+
+    private static final BigDecimal FEE = new BigDecimal("1000.00");
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private ChildRepository childRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PaymentAccumulator paymentAccumulator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Object> events = new ArrayList<>();
+    private PaymentMatchingService paymentMatchingService;
+
+    @BeforeEach
+    void setUp() {
+        StudentReferenceCache studentReferenceCache = new StudentReferenceCache(childRepository, new SimpleMeterRegistry());
+        paymentMatchingService = new PaymentMatchingService(transactionRepository, childRepository, paymentRepository,
+                studentReferenceCache, paymentAccumulator, jdbcTemplate, events::add);
+        // One transaction per page, so credits to the same month land in different pages
+        ReflectionTestUtils.setField(paymentMatchingService, "matchingBatchSize", 1);
+    }
+
+    @Test
+    @DisplayName("Should add every matched credit to the month's existing payment")
+    void testCreditsAddedToExistingPayment() {
+        Child child = entityManager.persist(child("STU-2025-001"));
+        entityManager.persist(Payment.builder()
+                .child(child)
+                .paymentMonth(5)
+                .paymentYear(2025)
+                .amountPaid(new BigDecimal("400.00"))
+                .expectedAmount(FEE)
+                .paymentDate(LocalDate.of(2025, 5, 1))
+                .build());
+        Transaction first = entityManager.persist(transaction("BANK-1", "stu-2025-001 ", "300.00"));
+        Transaction second = entityManager.persist(transaction("BANK-2", "STU-2025-001", "300.00"));
+        entityManager.persist(transaction("BANK-3", "STU-UNKNOWN", "300.00"));
+        entityManager.flush();
+
+        paymentMatchingService.matchAllUnmatchedTransactions();
+
+        Map<String, Object> payment = jdbcTemplate.queryForMap("SELECT amount_paid, status, transaction_id " +
+                "FROM payments WHERE child_id = ? AND payment_month = 5 AND payment_year = 2025", child.getId());
+        assertEquals(0, FEE.compareTo((BigDecimal) payment.get("amount_paid")));
+        assertEquals("PAID", payment.get("status"));
+        assertEquals(second.getId(), ((Number) payment.get("transaction_id")).longValue());
+
+        assertEquals("MATCHED", transactionStatus(first));
+        assertEquals("MATCHED", transactionStatus(second));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transactions WHERE status = 'UNMATCHED'", Integer.class));
+
+        assertEquals(2, events.size());
+        PaymentChangedEvent settling = (PaymentChangedEvent) events.get(1);
+        assertEquals(0, new BigDecimal("300.00").compareTo(settling.getCollectedDelta()));
+        assertEquals(1, settling.getPaidCountDelta());
+    }
+
+    private String transactionStatus(Transaction transaction) {
+        return jdbcTemplate.queryForObject("SELECT status FROM transactions WHERE id = ?",
+                String.class, transaction.getId());
+    }
+
+    private static Transaction transaction(String bankReference, String paymentReference, String amount) {
+        return Transaction.builder()
+                .bankReference(bankReference)
+                .paymentReference(paymentReference)
+                .amount(new BigDecimal(amount))
+                .transactionDate(LocalDate.of(2025, 5, 10))
+                .build();
+    }
+
+    private static Child child(String studentNumber) {
+        return Child.builder()
+                .studentNumber(studentNumber)
+                .firstName("Lerato")
+                .lastName("Mokoena")
+                .monthlyFee(FEE)
+                .academicYear("2025")
+                .build();
+    }
+}
@@ -0,0 +1,113 @@
+package com.katlehouniversity.ecd.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.katlehouniversity.ecd.dto.MonthlyReportDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Report Artifact Cache Tests")
+class ReportArtifactCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should render a report once and serve the stored file afterwards")
+    void testRenderOnce() throws IOException {
+        ReportArtifactCache cache = new ReportArtifactCache(objectMapper, directory.toString(), 1024 * 1024);
+        AtomicInteger renders = new AtomicInteger();
+        ReportArtifactCache.Renderer renderer = outputStream -> {
+            renders.incrementAndGet();
+            outputStream.write("%PDF-report".getBytes());
+        };
+
+        String first = read(cache.getOrRender(ReportArtifactCache.ArtifactType.PDF, report(5, "1000.00"), renderer));
+        String second = read(cache.getOrRender(ReportArtifactCache.ArtifactType.PDF, report(5, "1000.00"), renderer));
+
+        assertEquals("%PDF-report", first);
+        assertEquals(first, second);
+        assertEquals(1, renders.get());
+    }
+
+    @Test
+    @DisplayName("Should render again when the report data or artifact type differs")
+    void testContentAddressed() throws IOException {
+        ReportArtifactCache cache = new ReportArtifactCache(objectMapper, directory.toString(), 1024 * 1024);
+        AtomicInteger renders = new AtomicInteger();
+        ReportArtifactCache.Renderer renderer = outputStream -> outputStream.write(renders.incrementAndGet());
+
+        read(cache.getOrRender(ReportArtifactCache.ArtifactType.PDF, report(5, "1000.00"), renderer));
+        read(cache.getOrRender(ReportArtifactCache.ArtifactType.PDF, report(5, "1700.00"), renderer));
+        read(cache.getOrRender(ReportArtifactCache.ArtifactType.EXCEL, report(5, "1000.00"), renderer));
+
+        assertEquals(3, renders.get());
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently served files past the size limit")
+    void testEviction() throws IOException {
+        ReportArtifactCache cache = new ReportArtifactCache(objectMapper, directory.toString(), 250);
+        AtomicInteger renders = new AtomicInteger();
+        ReportArtifactCache.Renderer renderer = outputStream -> {
+            renders.incrementAndGet();
+            outputStream.write(new byte[100]);
+        };
+
+        read(cache.getOrRender(ReportArtifactCache.ArtifactType.PDF, report(1, "1000.00"), renderer));
+        read(cache.getOrRender(ReportArtifactCache.ArtifactType.PDF, report(2, "1000.00"), renderer));
+        read(cache.getOrRender(ReportArtifactCache.ArtifactType.PDF, report(1, "1000.00"), renderer));
+        read(cache.getOrRender(ReportArtifactCache.ArtifactType.PDF, report(3, "1000.00"), renderer));
+
+        try (var files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+        read(cache.getOrRender(ReportArtifactCache.ArtifactType.PDF, report(1, "1000.00"), renderer));
+        assertEquals(3, renders.get());
+        read(cache.getOrRender(ReportArtifactCache.ArtifactType.PDF, report(2, "1000.00"), renderer));
+        assertEquals(4, renders.get());
+    }
+
+    @Test
+    @DisplayName("Should serve files rendered before a restart")
+    void testSurvivesRestart() throws IOException {
+        AtomicInteger renders = new AtomicInteger();
+        ReportArtifactCache.Renderer renderer = outputStream -> {
+            renders.incrementAndGet();
+            outputStream.write("xlsx".getBytes());
+        };
+
+        read(new ReportArtifactCache(objectMapper, directory.toString(), 1024)
+                .getOrRender(ReportArtifactCache.ArtifactType.EXCEL, report(5, "1000.00"), renderer));
+        String restarted = read(new ReportArtifactCache(objectMapper, directory.toString(), 1024)
+                .getOrRender(ReportArtifactCache.ArtifactType.EXCEL, report(5, "1000.00"), renderer));
+
+        assertEquals("xlsx", restarted);
+        assertEquals(1, renders.get());
+    }
+
+    private static MonthlyReportDto report(int month, String collected) {
+        return MonthlyReportDto.builder()
+                .month(month)
+                .year(2025)
+                .totalCollected(new BigDecimal(collected))
+                .build();
+    }
+
+    private static String read(ReportArtifactCache.Artifact artifact) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        artifact.transferTo(outputStream);
+        return outputStream.toString();
+    }
+}
@@ -0,0 +1,77 @@
+package com.katlehouniversity.ecd.service;
+
+import com.katlehouniversity.ecd.entity.Transaction;
+import com.katlehouniversity.ecd.repository.TransactionRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Transaction Identity Index Tests")
+class TransactionIdentityIndexTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 5, 23);
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @InjectMocks
+    private TransactionIdentityIndex identityIndex;
+
+    @Test
+    @DisplayName("Should build the same key for the same credit from any channel")
+    void testIdentityKey() {
+        String fromStatement = TransactionIdentityIndex.identityKey(
+                DATE, new BigDecimal("700"), new BigDecimal("4918.02"));
+        String fromWebhook = TransactionIdentityIndex.identityKey(
+                DATE, new BigDecimal("700.00"), new BigDecimal("4918.020"));
+
+        assertEquals("2025-05-23|70000|491802", fromStatement);
+        assertEquals(fromStatement, fromWebhook);
+        assertNull(TransactionIdentityIndex.identityKey(DATE, new BigDecimal("700.00"), null));
+    }
+
+    @Test
+    @DisplayName("Should resolve a batch by bank reference and identity key")
+    void testResolveBatch() {
+        Transaction webhookCredit = transaction(1L, "hash-1", new BigDecimal("4918.02"));
+        Transaction reimported = transaction(null, "2025-05-23-70000-aaa", new BigDecimal("5618.02"));
+        Transaction sameCredit = transaction(null, "2025-05-23-70000-bbb", new BigDecimal("4918.02"));
+        Transaction newCredit = transaction(null, "2025-05-23-70000-ccc", null);
+
+        when(transactionRepository.findExistingBankReferences(anyCollection()))
+                .thenReturn(Set.of("2025-05-23-70000-aaa"));
+        when(transactionRepository.findByIdentityKeyIn(anyCollection())).thenReturn(List.of(webhookCredit));
+
+        TransactionIdentityIndex.Resolution known =
+                identityIndex.resolve(List.of(reimported, sameCredit, newCredit));
+
+        assertTrue(known.isSameReference(reimported));
+        assertSame(webhookCredit, known.existingFor(sameCredit).orElseThrow());
+        assertFalse(known.isKnown(newCredit));
+        verify(transactionRepository, times(1)).findByIdentityKeyIn(anyCollection());
+    }
+
+    private Transaction transaction(Long id, String bankReference, BigDecimal balance) {
+        Transaction transaction = Transaction.builder()
+                .id(id)
+                .bankReference(bankReference)
+                .amount(new BigDecimal("700.00"))
+                .transactionDate(DATE)
+                .build();
+        identityIndex.assignIdentity(transaction, balance);
+        return transaction;
+    }
+}
@@ -0,0 +1,158 @@
+package com.katlehouniversity.ecd.service;
+
+import com.katlehouniversity.ecd.entity.WebhookQueueItem;
+import com.katlehouniversity.ecd.entity.WebhookQueueItem.QueueStatus;
+import com.katlehouniversity.ecd.repository.WebhookQueueRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Webhook Queue Service Tests")
+class WebhookQueueServiceTest {
+
+    @Mock
+    private WebhookQueueRepository queueRepository;
+
+    private WebhookQueueService queueService;
+
+    @BeforeEach
+    void setUp() {
+        queueService = new WebhookQueueService(queueRepository);
+        ReflectionTestUtils.setField(queueService, "batchSize", 10);
+        ReflectionTestUtils.setField(queueService, "maxAttempts", 10);
+        ReflectionTestUtils.setField(queueService, "backoffBaseSeconds", 5L);
+        ReflectionTestUtils.setField(queueService, "backoffMaxSeconds", 60L);
+        ReflectionTestUtils.setField(queueService, "maxDepth", 100L);
+    }
+
+    @Test
+    @DisplayName("Should claim a batch of due items for the worker")
+    void testClaimBatch() {
+        WebhookQueueItem first = pendingItem(1L, 0);
+        WebhookQueueItem second = pendingItem(2L, 2);
+        when(queueRepository.findClaimable(any(LocalDateTime.class), eq(PageRequest.of(0, 10))))
+                .thenReturn(List.of(first, second));
+        when(queueRepository.saveAll(anyList())).then(returnsFirstArg());
+
+        List<WebhookQueueItem> claimed = queueService.claimBatch("webhook-worker-1");
+
+        assertEquals(2, claimed.size());
+        for (WebhookQueueItem item : claimed) {
+            assertEquals(QueueStatus.PROCESSING, item.getStatus());
+            assertEquals("webhook-worker-1", item.getLockedBy());
+            assertNotNull(item.getLockedAt());
+        }
+        assertEquals(1, first.getAttempts());
+        assertEquals(3, second.getAttempts());
+    }
+
+    @Test
+    @DisplayName("Should retry a failed item after an exponentially growing delay")
+    void testBackoff() {
+        assertRetriedAfter(1, Duration.ofSeconds(5));
+        assertRetriedAfter(2, Duration.ofSeconds(10));
+        assertRetriedAfter(4, Duration.ofSeconds(40));
+    }
+
+    @Test
+    @DisplayName("Should cap the retry delay at the configured maximum")
+    void testBackoffCap() {
+        assertRetriedAfter(6, Duration.ofSeconds(60));
+        assertRetriedAfter(9, Duration.ofSeconds(60));
+    }
+
+    @Test
+    @DisplayName("Should mark an item FAILED once it is out of attempts")
+    void testAttemptsExhausted() {
+        WebhookQueueItem item = claimedItem(7L, 10);
+        when(queueRepository.findById(7L)).thenReturn(Optional.of(item));
+
+        boolean exhausted = queueService.markAttemptFailed(7L, "Parser exploded");
+
+        assertTrue(exhausted);
+        assertEquals(QueueStatus.FAILED, item.getStatus());
+        assertEquals("Parser exploded", item.getLastError());
+        assertNotNull(item.getProcessedAt());
+        assertNull(item.getLockedBy());
+        assertNull(item.getLockedAt());
+        verify(queueRepository).save(item);
+    }
+
+    @Test
+    @DisplayName("Should ignore a failed attempt for an item that no longer exists")
+    void testMissingItem() {
+        when(queueRepository.findById(7L)).thenReturn(Optional.empty());
+
+        assertFalse(queueService.markAttemptFailed(7L, "Gone"));
+        verify(queueRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should release claims older than the lock timeout")
+    void testReleaseStaleLocks() {
+        when(queueRepository.releaseStaleLocks(any(LocalDateTime.class))).thenReturn(3);
+
+        LocalDateTime before = LocalDateTime.now();
+        int released = queueService.releaseStaleLocks(Duration.ofMinutes(5));
+        LocalDateTime after = LocalDateTime.now();
+
+        assertEquals(3, released);
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(queueRepository).releaseStaleLocks(cutoff.capture());
+        assertFalse(cutoff.getValue().isBefore(before.minusMinutes(5)));
+        assertFalse(cutoff.getValue().isAfter(after.minusMinutes(5)));
+    }
+
+    private void assertRetriedAfter(int attempts, Duration expectedDelay) {
+        WebhookQueueItem item = claimedItem((long) attempts, attempts);
+        when(queueRepository.findById((long) attempts)).thenReturn(Optional.of(item));
+
+        LocalDateTime before = LocalDateTime.now();
+        boolean exhausted = queueService.markAttemptFailed((long) attempts, "Database unavailable");
+        LocalDateTime after = LocalDateTime.now();
+
+        assertFalse(exhausted);
+        assertEquals(QueueStatus.PENDING, item.getStatus());
+        assertEquals("Database unavailable", item.getLastError());
+        assertNull(item.getLockedBy());
+        assertFalse(item.getNextAttemptAt().isBefore(before.plus(expectedDelay)),
+                "attempt " + attempts + " retried too early");
+        assertFalse(item.getNextAttemptAt().isAfter(after.plus(expectedDelay)),
+                "attempt " + attempts + " retried too late");
+    }
+
+    private static WebhookQueueItem pendingItem(Long id, int attempts) {
+        LocalDateTime now = LocalDateTime.now();
+        return WebhookQueueItem.builder()
+                .id(id)
+                .body("Payment received")
+                .attempts(attempts)
+                .enqueuedAt(now)
+                .nextAttemptAt(now)
+                .build();
+    }
+
+    private static WebhookQueueItem claimedItem(Long id, int attempts) {
+        WebhookQueueItem item = pendingItem(id, attempts - 1);
+        item.markAsClaimed("webhook-worker-1");
+        return item;
+    }
+}
@@ -0,0 +1,99 @@
+package com.katlehouniversity.ecd.service;
+
+import com.katlehouniversity.ecd.entity.TransactionNotification.MatchStatus;
+import com.katlehouniversity.ecd.repository.TransactionNotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Webhook Stats Cache Tests")
+class WebhookStatsCacheTest {
+
+    @Mock
+    private TransactionNotificationRepository notificationRepository;
+
+    @BeforeEach
+    void setUp() {
+        when(notificationRepository.countByMatchStatus(any())).thenReturn(List.of(
+                statusCount(MatchStatus.MATCHED, 6, 2L),
+                statusCount(MatchStatus.UNMATCHED, 3, 1L),
+                statusCount(MatchStatus.FAILED, 1, 0L)
+        ));
+    }
+
+    @Test
+    @DisplayName("Should build the stats from the grouped counts")
+    void testStatsFromGroupedCounts() {
+        WebhookStatsCache cache = new WebhookStatsCache(notificationRepository, 30);
+
+        Map<String, Object> stats = cache.getStats();
+
+        assertEquals(10L, stats.get("total_notifications"));
+        assertEquals(6L, stats.get("matched_count"));
+        assertEquals(3L, stats.get("unmatched_count"));
+        assertEquals(1L, stats.get("failed_count"));
+        assertEquals(3L, stats.get("last_24h_count"));
+        assertEquals("60.00", stats.get("match_rate_percentage"));
+    }
+
+    @Test
+    @DisplayName("Should count stored notifications without querying again within the TTL")
+    void testIncrementalUpdates() {
+        WebhookStatsCache cache = new WebhookStatsCache(notificationRepository, 30);
+        cache.getStats();
+
+        cache.recordStored(MatchStatus.MATCHED);
+        cache.recordStored(MatchStatus.FAILED);
+        Map<String, Object> stats = cache.getStats();
+
+        assertEquals(12L, stats.get("total_notifications"));
+        assertEquals(7L, stats.get("matched_count"));
+        assertEquals(2L, stats.get("failed_count"));
+        assertEquals(5L, stats.get("last_24h_count"));
+        verify(notificationRepository, times(1)).countByMatchStatus(any());
+    }
+
+    @Test
+    @DisplayName("Should recount once the snapshot has expired")
+    void testReloadAfterExpiry() {
+        WebhookStatsCache cache = new WebhookStatsCache(notificationRepository, -1);
+
+        cache.getStats();
+        cache.recordStored(MatchStatus.MATCHED);
+        Map<String, Object> stats = cache.getStats();
+
+        assertEquals(6L, stats.get("matched_count"));
+        verify(notificationRepository, times(2)).countByMatchStatus(any());
+    }
+
+    private static TransactionNotificationRepository.StatusCount statusCount(MatchStatus status, long total,
+                                                                             Long receivedSince) {
+        return new TransactionNotificationRepository.StatusCount() {
+            @Override
+            public MatchStatus getMatchStatus() {
+                return status;
+            }
+
+            @Override
+            public Long getTotal() {
+                return total;
+            }
+
+            @Override
+            public Long getReceivedSince() {
+                return receivedSince;
+            }
+        };
+    }
+}
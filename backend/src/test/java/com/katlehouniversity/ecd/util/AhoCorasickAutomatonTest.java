@@ -0,0 +1,59 @@
+package com.katlehouniversity.ecd.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Aho-Corasick Automaton Tests")
+class AhoCorasickAutomatonTest {
+
+    @Test
+    @DisplayName("Should find overlapping and nested keywords in one pass")
+    void testFindsOverlappingKeywords() {
+        AhoCorasickAutomaton<String> automaton = AhoCorasickAutomaton.<String>builder()
+                .add("HE", "he")
+                .add("SHE", "she")
+                .add("HIS", "his")
+                .add("HERS", "hers")
+                .build();
+
+        List<String> found = automaton.findAll("USHERS").stream()
+                .map(match -> match.getPayload() + "@" + match.getStart())
+                .collect(Collectors.toList());
+
+        assertEquals(List.of("she@1", "he@2", "hers@2"), found);
+    }
+
+    @Test
+    @DisplayName("Should match student identifiers case-insensitively after normalization")
+    void testMatchesNormalizedText() {
+        AhoCorasickAutomaton<Long> automaton = AhoCorasickAutomaton.<Long>builder()
+                .add(AhoCorasickAutomaton.normalize("STU-2025-001"), 1L)
+                .add(AhoCorasickAutomaton.normalize("Thabo Mokoena"), 2L)
+                .build();
+
+        List<AhoCorasickAutomaton.Match<Long>> matches =
+                automaton.findAll(AhoCorasickAutomaton.normalize("Fee stu-2025-001 from thabo mokoena"));
+
+        assertEquals(2, matches.size());
+        assertEquals(1L, matches.get(0).getPayload());
+        assertEquals(4, matches.get(0).getStart());
+        assertEquals(16, matches.get(0).getEnd());
+        assertEquals(2L, matches.get(1).getPayload());
+    }
+
+    @Test
+    @DisplayName("Should return no matches for an empty automaton")
+    void testEmptyAutomaton() {
+        AhoCorasickAutomaton<String> automaton = AhoCorasickAutomaton.<String>builder()
+                .add("  ", "blank")
+                .build();
+
+        assertTrue(automaton.isEmpty());
+        assertTrue(automaton.findAll("ANY TEXT").isEmpty());
+    }
+}
@@ -0,0 +1,60 @@
+package com.katlehouniversity.ecd.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Reference Index Tests")
+class ReferenceIndexTest {
+
+    @Test
+    @DisplayName("Should find references ignoring case and surrounding whitespace")
+    void testLookupIsTrimmedAndCaseInsensitive() {
+        ReferenceIndex index = ReferenceIndex.builder(3)
+                .put("STU-2025-001", 0)
+                .put("JohnDoe", 1)
+                .put("  ", 2)
+                .build();
+
+        assertEquals(2, index.size());
+        assertEquals(0, index.get("stu-2025-001"));
+        assertEquals(1, index.get("  JOHNDOE\t"));
+        assertEquals(ReferenceIndex.NOT_FOUND, index.get("JOHNDOE2"));
+        assertEquals(ReferenceIndex.NOT_FOUND, index.get(" "));
+        assertEquals(ReferenceIndex.NOT_FOUND, index.get(null));
+        assertEquals(ReferenceIndex.NOT_FOUND, ReferenceIndex.empty().get("STU-2025-001"));
+    }
+
+    @Test
+    @DisplayName("Should keep the first value for references that normalize the same way")
+    void testFirstKeyWins() {
+        ReferenceIndex index = ReferenceIndex.builder(2)
+                .put("janesmit", 4)
+                .put("JANESMIT ", 7)
+                .build();
+
+        assertEquals(1, index.size());
+        assertEquals(4, index.get("JaneSmit"));
+    }
+
+    @Test
+    @DisplayName("Should resolve every key of a full table")
+    void testManyKeys() {
+        ReferenceIndex.Builder builder = ReferenceIndex.builder(500);
+        for (int i = 0; i < 500; i++) {
+            builder.put(String.format("STU-2025-%03d", i), i);
+        }
+        ReferenceIndex index = builder.build();
+
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i, index.get(String.format("stu-2025-%03d", i)));
+        }
+        assertThrows(IllegalStateException.class, () -> {
+            ReferenceIndex.Builder small = ReferenceIndex.builder(1);
+            for (int i = 0; i < 3; i++) {
+                small.put("REF" + i, i);
+            }
+        });
+    }
+}
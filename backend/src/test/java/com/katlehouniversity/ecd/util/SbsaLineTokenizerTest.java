@@ -0,0 +1,98 @@
+package com.katlehouniversity.ecd.util;
+
+import com.katlehouniversity.ecd.benchmark.LegacySbsaLineParser;
+import com.katlehouniversity.ecd.benchmark.SbsaStatementSamples;
+import com.katlehouniversity.ecd.util.SbsaLineTokenizer.SbsaLine;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SBSA Line Tokenizer Tests")
+class SbsaLineTokenizerTest {
+
+    private final LegacySbsaLineParser legacy = new LegacySbsaLineParser();
+
+    @Test
+    @DisplayName("Should split a credit line into date, description, amount and balance")
+    void testTokenizeCreditLine() {
+        SbsaLine line = SbsaLineTokenizer.tokenize("23 May 25  CAPITEC KELEBOGILE\tXABA 700.00 4,918.02\nCREDIT TRANSFER");
+
+        assertNotNull(line);
+        assertEquals(LocalDate.of(2025, 5, 23), line.date());
+        assertEquals("CAPITEC KELEBOGILE XABA", line.description());
+        assertEquals(new BigDecimal("700.00"), line.amount());
+        assertEquals(new BigDecimal("4918.02"), line.balance());
+        assertEquals("23 May 25 CAPITEC KELEBOGILE XABA 700.00 4,918.02 CREDIT TRANSFER", line.normalizedLine());
+    }
+
+    @Test
+    @DisplayName("Should skip debits, headers and lines without a balance")
+    void testRejectsNonCreditLines() {
+        assertNull(SbsaLineTokenizer.tokenize("24 May 25 IB PAYMENT TO ESKOM PREPAID -350.00 5,468.02"));
+        assertNull(SbsaLineTokenizer.tokenize("Date Description Payments Deposits Balance"));
+        assertNull(SbsaLineTokenizer.tokenize("31 Jun 25 CLOSING BALANCE 12,367.70"));
+        assertNull(SbsaLineTokenizer.tokenize(""));
+    }
+
+    @Test
+    @DisplayName("Should produce the same result as the split parser on sample statement lines")
+    void testMatchesLegacyParserOnSamples() {
+        for (String line : SbsaStatementSamples.LINES) {
+            assertEquals(legacy.parseSBSALine(line), SbsaLineTokenizer.tokenize(line), line);
+        }
+    }
+
+    @Test
+    @DisplayName("Should produce the same result as the split parser on generated edge cases")
+    void testMatchesLegacyParserOnGeneratedLines() {
+        String[] days = {"23", "5", "05", "31", "29", "005", "23", "5", "00", "32", "1x"};
+        String[] months = {"May", "Jun", "Feb", "Apr", "Sep", "May", "Jun", "MAY", "Sept", "13"};
+        String[] years = {"25", "25", "24", "2025", "7"};
+        String[] numbers = {"700.00", "4,918.02", "-350.00", "0.00", "+12", "1,2,3", ".5", "5.", "1e3"};
+        String[] fragments = {
+            "CAPITEC", "STU-2026-001", "X", "700.00", "4,918.02", "-350.00", "+12", "0.00", "1,2,3",
+            ".5", "5.", ".", "-", "1.2.3", "1e3", "2E-2", "1e", "1e+", "4e,1", "1e2147483648",
+            "1e-2147483648", "1e00000000001", "\u0663\u0664", ",", ",,", "R700", "700.00CR",
+            " ", "\t", "\n", "\r\n", "\u000B", "\f", "\u0001", "\u00a0", "\u2003", "\""
+        };
+        String[] separators = {" ", " ", " ", " ", " ", " ", " ", " ", "  ", "\t", "\n", "", "\u0001"};
+        Random random = new Random(20250523L);
+
+        for (int i = 0; i < 50_000; i++) {
+            StringBuilder line = new StringBuilder();
+            if (random.nextInt(8) == 0) {
+                line.append(fragments[random.nextInt(fragments.length)]);
+            }
+            // Mostly plausible dates, so most lines get as far as the amount scan
+            line.append(pick(random, days, fragments)).append(pick(random, separators, separators))
+                .append(pick(random, months, fragments)).append(pick(random, separators, separators))
+                .append(pick(random, years, fragments));
+            int parts = 2 + random.nextInt(6);
+            for (int p = 0; p < parts; p++) {
+                line.append(separators[random.nextInt(separators.length)])
+                    .append(pick(random, numbers, fragments));
+            }
+
+            assertEquals(legacy.parseSBSALine(line.toString()), SbsaLineTokenizer.tokenize(line),
+                    () -> "line=" + escape(line.toString()));
+        }
+    }
+
+    private static String pick(Random random, String[] likely, String[] other) {
+        String[] pool = random.nextInt(10) == 0 ? other : likely;
+        return pool[random.nextInt(pool.length)];
+    }
+
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder();
+        for (char c : text.toCharArray()) {
+            escaped.append(c < 0x20 || c > 0x7e ? String.format("\\u%04x", (int) c) : String.valueOf(c));
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,120 @@
+package com.katlehouniversity.ecd.util;
+
+import com.katlehouniversity.ecd.benchmark.LegacyStatementFieldParser;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Statement Field Parser Tests")
+class StatementFieldParserTest {
+
+    private final LegacyStatementFieldParser legacy = new LegacyStatementFieldParser();
+
+    @Test
+    @DisplayName("Should parse every statement date shape")
+    void testParseDateShapes() {
+        assertEquals(LocalDate.of(2025, 5, 23), StatementFieldParser.parseDate("23 May 25"));
+        assertEquals(LocalDate.of(2025, 6, 5), StatementFieldParser.parseDate("5 Jun 25"));
+        assertEquals(LocalDate.of(2025, 5, 23), StatementFieldParser.parseDate("2025-05-23"));
+        assertEquals(LocalDate.of(2025, 5, 23), StatementFieldParser.parseDate("23/05/2025"));
+        assertEquals(LocalDate.of(2025, 4, 30), StatementFieldParser.parseDate("31 Apr 25"));
+        assertEquals(LocalDate.of(2025, 5, 23), StatementFieldParser.parseDate("0025-05-23"));
+        assertNull(StatementFieldParser.parseDate("Date"));
+        assertNull(StatementFieldParser.parseDate("23-05-2025"));
+        assertNull(StatementFieldParser.parseDate("2025-13-01"));
+    }
+
+    @Test
+    @DisplayName("Should parse the same dates as the formatter list on generated input")
+    void testParseDateMatchesLegacy() {
+        String[] fragments = {
+            "23", "5", "05", "00", "31", "29", "2025", "0025", "0000", "13", "02", "1x", "May", "Feb",
+            "Sept", "MAY", " ", "  ", "-", "/", "\t", ""
+        };
+        Random random = new Random(20250605L);
+
+        for (int i = 0; i < 50_000; i++) {
+            StringBuilder text = new StringBuilder();
+            int parts = 1 + random.nextInt(6);
+            for (int p = 0; p < parts; p++) {
+                text.append(fragments[random.nextInt(fragments.length)]);
+            }
+            assertEquals(legacy.parseDate(text.toString()), StatementFieldParser.parseDate(text), text::toString);
+        }
+    }
+
+    @Test
+    @DisplayName("Should parse amounts leniently into cents")
+    void testParseAmount() {
+        assertEquals(150_000L, StatementFieldParser.parseCents("R 1,500.00", 0, 10));
+        assertEquals(new BigDecimal("1500.00"), StatementFieldParser.parseAmount("R 1,500.00"));
+        assertEquals(new BigDecimal("900.00"), StatementFieldParser.parseAmount("900"));
+        assertEquals(new BigDecimal("350.50"), StatementFieldParser.parseAmount("350.5"));
+        assertEquals(new BigDecimal("1.005"), StatementFieldParser.parseAmount("1.005"));
+        assertEquals(StatementFieldParser.NOT_AN_AMOUNT, StatementFieldParser.parseCents("1.2.3", 0, 5));
+        assertNull(StatementFieldParser.parseAmount("R"));
+        assertNull(StatementFieldParser.parseAmount("1.2.3"));
+    }
+
+    @Test
+    @DisplayName("Should parse the same amounts as replaceAll and BigDecimal on generated input")
+    void testParseAmountMatchesLegacy() {
+        String[] fragments = {"R", " ", ",", ".", "-", "0", "5", "700", "1,500", "00", "123456789", "a", "٣"};
+        Random random = new Random(20250606L);
+
+        for (int i = 0; i < 50_000; i++) {
+            StringBuilder text = new StringBuilder();
+            int parts = 1 + random.nextInt(8);
+            for (int p = 0; p < parts; p++) {
+                text.append(fragments[random.nextInt(fragments.length)]);
+            }
+
+            BigDecimal expected = legacy.parseAmount(text.toString());
+            BigDecimal actual = StatementFieldParser.parseAmount(text);
+            if (expected == null) {
+                assertNull(actual, text::toString);
+            } else {
+                assertNotNull(actual, text::toString);
+                assertEquals(0, expected.compareTo(actual), text::toString);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should parse extreme exponents like BigDecimal does, without throwing")
+    void testParseDecimalExponentBounds() {
+        String[] tokens = {
+            "1e2147483647", "1e-2147483647", "1e2147483648", "-1e-2147483648", "1.5e-2147483647",
+            "1,0e2147483648", "1e99999999999"
+        };
+        for (String token : tokens) {
+            assertEquals(bigDecimalOrNull(token.replace(",", "")),
+                    StatementFieldParser.parseDecimal(token, 0, token.length()), token);
+        }
+    }
+
+    @Test
+    @DisplayName("Should remember dates and misses per instance")
+    void testDateMemo() {
+        StatementFieldParser fields = new StatementFieldParser();
+
+        LocalDate first = fields.date("23 May 25");
+        assertSame(first, fields.date("23 May 25"));
+        assertEquals(LocalDate.of(2025, 5, 23), first);
+        assertNull(fields.date("Opening balance"));
+        assertNull(fields.date("Opening balance"));
+    }
+
+    private static BigDecimal bigDecimalOrNull(String token) {
+        try {
+            return new BigDecimal(token);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.katlehouniversity.ecd.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Statement Fingerprinter Tests")
+class StatementFingerprinterTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 5, 23);
+
+    @Test
+    @DisplayName("Should give the same line the same reference on every upload")
+    void testDeterministicAcrossUploads() {
+        String first = new StatementFingerprinter().bankReference(
+                DATE, new BigDecimal("700.00"), "CAPITEC KELEBOGILE XABA", new BigDecimal("4918.02"));
+        String second = new StatementFingerprinter().bankReference(
+                DATE, new BigDecimal("700"), "  Capitec   Kelebogile\tXaba ", new BigDecimal("4918.020"));
+
+        assertEquals(first, second);
+        assertTrue(first.matches("2025-05-23-70000-[0-9a-f]{24}"), first);
+        assertTrue(first.length() <= 100);
+    }
+
+    @Test
+    @DisplayName("Should tell identical lines within a statement apart by occurrence")
+    void testOccurrenceIndex() {
+        StatementFingerprinter fingerprinter = new StatementFingerprinter();
+        BigDecimal amount = new BigDecimal("350.00");
+
+        String first = fingerprinter.bankReference(DATE, amount, "STU-2026-001 FEES", null);
+        String second = fingerprinter.bankReference(DATE, amount, "STU-2026-001 FEES", null);
+        String third = fingerprinter.bankReference(DATE, amount, "STU-2026-001 FEES", null);
+
+        assertTrue(first.matches("2025-05-23-35000-[0-9a-f]{24}"), first);
+        assertEquals(first + "-1", second);
+        assertEquals(first + "-2", third);
+    }
+
+    @Test
+    @DisplayName("Should give different lines different references")
+    void testDistinctContent() {
+        StatementFingerprinter fingerprinter = new StatementFingerprinter();
+        BigDecimal amount = new BigDecimal("700.00");
+
+        String reference = fingerprinter.bankReference(DATE, amount, "PARENT A", new BigDecimal("1000.00"));
+
+        assertNotEquals(reference, fingerprinter.bankReference(DATE, amount, "PARENT A", new BigDecimal("1700.00")));
+        assertNotEquals(reference, fingerprinter.bankReference(DATE, amount, "PARENT B", new BigDecimal("1000.00")));
+        assertNotEquals(reference, fingerprinter.bankReference(DATE.plusDays(1), amount, "PARENT A",
+                new BigDecimal("1000.00")));
+        assertNotEquals(reference, fingerprinter.bankReference(DATE, new BigDecimal("700.01"), "PARENT A",
+                new BigDecimal("1000.00")));
+        assertNotEquals(reference, fingerprinter.bankReference(DATE, amount, "PARENT A", null));
+    }
+}
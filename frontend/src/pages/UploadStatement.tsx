@@ -1,16 +1,52 @@
-import { useState } from 'react';
+import { useEffect, useRef, useState } from 'react';
 import { useNavigate } from 'react-router-dom';
 import { api } from '../services/api';
-import type { UploadedStatement } from '../types';
+import type { StatementProcessingStatus } from '../types';
 import Navigation from '../components/Navigation';
 
+const STATUS_POLL_INTERVAL_MS = 1000;
+
 export default function UploadStatement() {
   const navigate = useNavigate();
   const [file, setFile] = useState<File | null>(null);
   const [loading, setLoading] = useState(false);
   const [error, setError] = useState('');
-  const [result, setResult] = useState<UploadedStatement | null>(null);
+  const [result, setResult] = useState<StatementProcessingStatus | null>(null);
   const [isDragging, setIsDragging] = useState(false);
+  const pollTimer = useRef<number | null>(null);
+
+  const stopPolling = () => {
+    if (pollTimer.current !== null) {
+      window.clearTimeout(pollTimer.current);
+      pollTimer.current = null;
+    }
+  };
+
+  useEffect(() => stopPolling, []);
+
+  const pollStatus = async (statementId: number) => {
+    try {
+      const status = await api.getStatementStatus(statementId);
+
+      if (status.status === 'FAILED') {
+        setResult(null);
+        setError(status.errorMessage || 'Failed to process statement');
+        setLoading(false);
+        return;
+      }
+
+      setResult(status);
+
+      if (status.status === 'COMPLETED') {
+        setLoading(false);
+      } else {
+        pollTimer.current = window.setTimeout(() => pollStatus(statementId), STATUS_POLL_INTERVAL_MS);
+      }
+    } catch (err: any) {
+      setError(err.response?.data?.message || 'Failed to fetch processing status');
+      setLoading(false);
+    }
+  };
 
   const handleFileChange = (e: React.ChangeEvent<HTMLInputElement>) => {
     const selectedFile = e.target.files?.[0];
@@ -70,20 +106,17 @@ export default function UploadStatement() {
     setError('');
 
     try {
-      const uploadResult = await api.uploadStatement(file);
-      setResult(uploadResult);
-
-      if (uploadResult.status === 'FAILED') {
-        setError(uploadResult.errorMessage || 'Failed to process statement');
-      }
+      const submission = await api.uploadStatement(file);
+      await pollStatus(submission.id);
     } catch (err: any) {
       setError(err.response?.data?.error || 'Failed to upload statement');
-    } finally {
       setLoading(false);
     }
   };
 
   const handleReset = () => {
+    stopPolling();
+    setLoading(false);
     setFile(null);
     setError('');
     setResult(null);
@@ -112,6 +145,32 @@ export default function UploadStatement() {
           </div>
         )}
 
+        {result && (result.status === 'PENDING' || result.status === 'PROCESSING') && (
+          <div className="mb-6 p-6 bg-blue-50 border border-blue-200 rounded">
+            <h3 className="font-semibold text-blue-800 mb-4">
+              {result.status === 'PENDING' ? 'Queued for processing...' : 'Processing statement...'}
+            </h3>
+            <div className="space-y-2 text-sm">
+              <div className="flex justify-between">
+                <span className="text-gray-600">File:</span>
+                <span className="font-medium">{result.fileName}</span>
+              </div>
+              <div className="flex justify-between">
+                <span className="text-gray-600">Rows Parsed:</span>
+                <span className="font-medium">{result.rowsParsed}</span>
+              </div>
+              <div className="flex justify-between">
+                <span className="text-green-600">Matched:</span>
+                <span className="font-semibold text-green-700">{result.rowsMatched}</span>
+              </div>
+              <div className="flex justify-between">
+                <span className="text-gray-600">Throughput:</span>
+                <span className="font-medium">{result.throughputRowsPerSecond} rows/s</span>
+              </div>
+            </div>
+          </div>
+        )}
+
         {result && result.status === 'COMPLETED' && (
           <div className="mb-6 p-6 bg-green-50 border border-green-200 rounded">
             <h3 className="font-semibold text-green-800 mb-4">Upload Successful!</h3>
@@ -122,16 +181,22 @@ export default function UploadStatement() {
               </div>
               <div className="flex justify-between">
                 <span className="text-gray-600">Total Transactions:</span>
-                <span className="font-medium">{result.totalTransactions}</span>
+                <span className="font-medium">{result.rowsParsed}</span>
               </div>
               <div className="flex justify-between">
                 <span className="text-green-600">Matched:</span>
-                <span className="font-semibold text-green-700">{result.matchedCount}</span>
+                <span className="font-semibold text-green-700">{result.rowsMatched}</span>
               </div>
               <div className="flex justify-between">
                 <span className="text-orange-600">Unmatched:</span>
-                <span className="font-semibold text-orange-700">{result.unmatchedCount}</span>
+                <span className="font-semibold text-orange-700">{result.rowsUnmatched}</span>
               </div>
+              {result.rowsAlreadyImported > 0 && (
+                <div className="flex justify-between">
+                  <span className="text-gray-600">Already Imported (skipped):</span>
+                  <span className="font-medium">{result.rowsAlreadyImported}</span>
+                </div>
+              )}
               <div className="flex justify-between">
                 <span className="text-gray-600">Processed:</span>
                 <span className="font-medium">
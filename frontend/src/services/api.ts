@@ -7,6 +7,8 @@ import type {
   AuthResponse,
   LoginRequest,
   UploadedStatement,
+  StatementSubmission,
+  StatementProcessingStatus,
 } from '../types';
 
 const API_BASE_URL = import.meta.env.VITE_API_URL || 'http://localhost:8080/api';
@@ -120,11 +122,11 @@ class ApiClient {
   }
 
   // Statement Upload
-  async uploadStatement(file: File): Promise<UploadedStatement> {
+  async uploadStatement(file: File): Promise<StatementSubmission> {
     const formData = new FormData();
     formData.append('file', file);
 
-    const response = await this.client.post<UploadedStatement>('/statements/upload', formData, {
+    const response = await this.client.post<StatementSubmission>('/statements/upload', formData, {
       headers: {
         'Content-Type': 'multipart/form-data',
       },
@@ -141,6 +143,11 @@ class ApiClient {
     const response = await this.client.get<UploadedStatement>(`/statements/${id}`);
     return response.data;
   }
+
+  async getStatementStatus(id: number): Promise<StatementProcessingStatus> {
+    const response = await this.client.get<StatementProcessingStatus>(`/statements/${id}/status`);
+    return response.data;
+  }
 }
 
 export const api = new ApiClient();
@@ -162,4 +169,5 @@ export const {
   uploadStatement,
   getAllStatements,
   getStatementById,
+  getStatementStatus,
 } = api;
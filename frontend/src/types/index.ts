@@ -29,7 +29,7 @@ export interface Child {
 export interface UploadedStatement {
   id?: number;
   fileName: string;
-  fileType: 'CSV' | 'MARKDOWN';
+  fileType: 'CSV' | 'MARKDOWN' | 'PDF';
   totalTransactions: number;
   matchedCount: number;
   unmatchedCount: number;
@@ -39,6 +39,32 @@ export interface UploadedStatement {
   processedDate?: string;
 }
 
+export interface StatementSubmission {
+  id: number;
+  fileName: string;
+  fileType: UploadedStatement['fileType'];
+  status: UploadedStatement['status'];
+  uploadDate: string;
+  statusUrl: string;
+}
+
+export interface StatementProcessingStatus {
+  id: number;
+  fileName: string;
+  fileType: UploadedStatement['fileType'];
+  status: UploadedStatement['status'];
+  rowsParsed: number;
+  rowsMatched: number;
+  rowsUnmatched: number;
+  rowsAlreadyImported: number;
+  throughputRowsPerSecond: number;
+  elapsedMillis: number;
+  uploadDate: string;
+  processingStartedAt?: string;
+  processedDate?: string;
+  errorMessage?: string;
+}
+
 export interface Payment {
   id?: number;
   childId: number;